@@ -0,0 +1,114 @@
+package com.crewmeister.cmcodingchallenge.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic, synthetic Bundesbank BBEX3 CSV payloads shaped like the real API responses:
+ * metadata lines, one row per calendar day since 1999, "." for days without a fixing.
+ */
+public final class BundesbankCsvFixtures {
+
+    static final LocalDate FIRST_DAY = LocalDate.of(1999, 1, 1);
+
+    /** Forty currencies, roughly the set the Bundesbank publishes daily EUR reference rates for. */
+    public static final List<String> CURRENCIES = Collections.unmodifiableList(Arrays.asList(
+            "AUD", "BGN", "BRL", "CAD", "CHF", "CNY", "CYP", "CZK", "DKK", "EEK",
+            "GBP", "GRD", "HKD", "HRK", "HUF", "IDR", "ILS", "INR", "ISK", "JPY",
+            "KRW", "LTL", "LVL", "MTL", "MXN", "MYR", "NOK", "NZD", "PHP", "PLN",
+            "ROL", "RON", "RUB", "SEK", "SGD", "SIT", "SKK", "THB", "TRY", "USD"));
+
+    private BundesbankCsvFixtures() {
+    }
+
+    static byte[] singleSeries(String currency, int years, long seed) {
+        Random random = new Random(seed);
+        String key = seriesKey(currency);
+        StringBuilder csv = new StringBuilder(years * 366 * 24);
+        csv.append(',').append(key).append(',').append(key).append("_FLAGS\n");
+        csv.append("unit,").append(currency).append(",\n");
+        csv.append("unit multiplier,one,\n");
+        csv.append("last update,2024-04-19 14:08:42,\n");
+
+        double rate = 1.0 + random.nextDouble();
+        LocalDate end = FIRST_DAY.plusYears(years);
+        for (LocalDate day = FIRST_DAY; day.isBefore(end); day = day.plusDays(1)) {
+            if (isWeekend(day)) {
+                csv.append(day).append(",.,No value available\n");
+                continue;
+            }
+            rate = nextRate(random, rate);
+            csv.append(day).append(',').append(format(rate)).append(",\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A wildcard ({@code D..EUR.BB.AC.000}) response: one value and one flags column per currency.
+     */
+    public static byte[] allSeries(List<String> currencies, int years, long seed) {
+        Random random = new Random(seed);
+        StringBuilder csv = new StringBuilder(years * 366 * currencies.size() * 10);
+        StringBuilder units = new StringBuilder("unit");
+        StringBuilder updates = new StringBuilder("last update");
+        double[] rates = new double[currencies.size()];
+        for (int i = 0; i < currencies.size(); i++) {
+            String key = seriesKey(currencies.get(i));
+            csv.append(',').append(key).append(',').append(key).append("_FLAGS");
+            units.append(',').append(currencies.get(i)).append(',');
+            updates.append(",2024-04-19 14:08:42,");
+            rates[i] = 0.5 + random.nextDouble() * 200;
+        }
+        csv.append('\n').append(units).append('\n').append(updates).append('\n');
+
+        LocalDate end = FIRST_DAY.plusYears(years);
+        for (LocalDate day = FIRST_DAY; day.isBefore(end); day = day.plusDays(1)) {
+            csv.append(day);
+            boolean weekend = isWeekend(day);
+            for (int i = 0; i < rates.length; i++) {
+                if (weekend) {
+                    csv.append(",.,No value available");
+                } else {
+                    rates[i] = nextRate(random, rates[i]);
+                    csv.append(',').append(format(rates[i])).append(',');
+                }
+            }
+            csv.append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A {@code detail=serieskeyonly} response listing the series of every currency.
+     */
+    public static String seriesKeysOnly(List<String> currencies) {
+        StringBuilder csv = new StringBuilder();
+        for (String currency : currencies) {
+            String key = seriesKey(currency);
+            csv.append(',').append(key).append(',').append(key).append("_FLAGS");
+        }
+        return csv.append('\n').toString();
+    }
+
+    private static String seriesKey(String currency) {
+        return "BBEX3.D." + currency + ".EUR.BB.AC.000";
+    }
+
+    private static boolean isWeekend(LocalDate day) {
+        return day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+
+    private static double nextRate(Random random, double rate) {
+        return Math.max(0.0001, rate * (1 + (random.nextGaussian() * 0.004)));
+    }
+
+    private static String format(double rate) {
+        return String.format(Locale.ROOT, "%.4f", rate);
+    }
+}
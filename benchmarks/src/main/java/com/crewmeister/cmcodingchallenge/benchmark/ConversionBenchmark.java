@@ -0,0 +1,106 @@
+package com.crewmeister.cmcodingchallenge.benchmark;
+
+import com.crewmeister.cmcodingchallenge.dto.ConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.CrossConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.index.CurrencyRegistry;
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.crewmeister.cmcodingchallenge.service.CurrencyService;
+import com.crewmeister.cmcodingchallenge.service.DatasetVersion;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ExchangeRateService} conversions end to end (validation, index lookup, BigDecimal
+ * arithmetic and result DTO) for random weekday dates over 40 currencies. The service is wired by
+ * hand around the in-memory index; any database access would fail the benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+
+    private static final int QUERIES = 1024;
+    private static final BigDecimal AMOUNT = new BigDecimal("1234.56");
+
+    @Param({"25"})
+    public int years;
+
+    private ExchangeRateService service;
+    private String[] currencies;
+    private String[] targets;
+    private LocalDate[] dates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ExchangeRateIndex index = RateIndexFixtures.index(BundesbankCsvFixtures.CURRENCIES, years, 42L);
+        CurrencyRegistry registry = new CurrencyRegistry();
+        registry.replace(BundesbankCsvFixtures.CURRENCIES);
+        CurrencyService currencyService = new CurrencyService();
+        Field registryField = ReflectionUtils.findField(CurrencyService.class, "currencyRegistry");
+        ReflectionUtils.makeAccessible(registryField);
+        ReflectionUtils.setField(registryField, currencyService, registry);
+        service = new ExchangeRateService(RateIndexFixtures.unsupportedRepository(), null, currencyService,
+                index, new DatasetVersion(), null);
+
+        Random random = new Random(7L);
+        currencies = new String[QUERIES];
+        targets = new String[QUERIES];
+        dates = new LocalDate[QUERIES];
+        int days = (int) (BundesbankCsvFixtures.FIRST_DAY.plusYears(years).toEpochDay()
+                - BundesbankCsvFixtures.FIRST_DAY.toEpochDay());
+        for (int i = 0; i < QUERIES; i++) {
+            currencies[i] = BundesbankCsvFixtures.CURRENCIES.get(random.nextInt(BundesbankCsvFixtures.CURRENCIES.size()));
+            targets[i] = BundesbankCsvFixtures.CURRENCIES.get(random.nextInt(BundesbankCsvFixtures.CURRENCIES.size()));
+            LocalDate date;
+            do {
+                date = BundesbankCsvFixtures.FIRST_DAY.plusDays(random.nextInt(days));
+            } while (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY);
+            dates[i] = date;
+        }
+    }
+
+    private int nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public ConversionResultDTO convertCurrency() {
+        int q = nextQuery();
+        return service.convertCurrency(currencies[q], AMOUNT, dates[q]);
+    }
+
+    @Benchmark
+    public ConversionResultDTO convertCurrencyAsOf() {
+        int q = nextQuery();
+        return service.convertCurrency(currencies[q], AMOUNT, dates[q], true);
+    }
+
+    @Benchmark
+    public CrossConversionResultDTO convertCrossCurrency() {
+        int q = nextQuery();
+        return service.convertCrossCurrency(currencies[q], targets[q], AMOUNT, dates[q]);
+    }
+}
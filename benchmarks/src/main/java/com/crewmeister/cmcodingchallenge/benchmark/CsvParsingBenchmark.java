@@ -0,0 +1,75 @@
+package com.crewmeister.cmcodingchallenge.benchmark;
+
+import com.crewmeister.cmcodingchallenge.integration.BundesbankCsvParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses one currency's full daily history, comparing the former read-to-String-and-split parser
+ * with the streaming {@link BundesbankCsvParser}, and the wildcard response of every currency as
+ * fetched in bulk mode. Run with {@code -prof gc} to compare allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParsingBenchmark {
+
+    @Param({"25"})
+    public int years;
+
+    @Param({"40"})
+    public int currencies;
+
+    private byte[] payload;
+    private byte[] allSeriesPayload;
+    private BundesbankCsvParser parser;
+
+    @Setup
+    public void setUp() {
+        payload = BundesbankCsvFixtures.singleSeries("USD", years, 42L);
+        allSeriesPayload = BundesbankCsvFixtures.allSeries(
+                BundesbankCsvFixtures.CURRENCIES.subList(0, currencies), years, 42L);
+        parser = new BundesbankCsvParser();
+    }
+
+    @Benchmark
+    public List<LegacyCsvParser.ExchangeRateData> legacySplitParser() {
+        return LegacyCsvParser.parseCSVResponse(new String(payload, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public int streamingParser(Blackhole blackhole) throws IOException {
+        return parser.parse(new ByteArrayInputStream(payload), (epochDay, scaledRate) -> {
+            blackhole.consume(epochDay);
+            blackhole.consume(scaledRate);
+        });
+    }
+
+    @Benchmark
+    public int streamingMultiSeriesParser(Blackhole blackhole) throws IOException {
+        return parser.parseMultiSeries(new ByteArrayInputStream(allSeriesPayload), (currency, epochDay, scaledRate) -> {
+            blackhole.consume(currency);
+            blackhole.consume(epochDay);
+            blackhole.consume(scaledRate);
+        });
+    }
+}
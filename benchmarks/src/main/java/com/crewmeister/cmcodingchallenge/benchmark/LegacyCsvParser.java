@@ -0,0 +1,60 @@
+package com.crewmeister.cmcodingchallenge.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The split-based parser that BundesbankApiClient used before the streaming parser, kept here as
+ * the baseline the benchmarks compare against.
+ */
+final class LegacyCsvParser {
+
+    static final class ExchangeRateData {
+        final LocalDate date;
+        final BigDecimal rate;
+
+        ExchangeRateData(LocalDate date, BigDecimal rate) {
+            this.date = date;
+            this.rate = rate;
+        }
+    }
+
+    private LegacyCsvParser() {
+    }
+
+    static List<ExchangeRateData> parseCSVResponse(String csvContent) {
+        List<ExchangeRateData> rates = new ArrayList<>();
+        if (csvContent == null || csvContent.isEmpty()) {
+            return rates;
+        }
+
+        String[] lines = csvContent.split("\n");
+        for (int i = 2; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty()) continue;
+
+            String[] parts = line.split(",", -1);
+            if (parts.length < 2) continue;
+
+            if (parts[0].equals("\"\"") || parts[0].contains("Comment")) {
+                continue;
+            }
+
+            String dateStr = parts[0].replace("\"", "").trim();
+            String rateStr = parts[1].replace("\"", "").trim();
+            if (".".equals(rateStr)) {
+                continue;
+            }
+
+            try {
+                rates.add(new ExchangeRateData(LocalDate.parse(dateStr), new BigDecimal(rateStr)));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                // skipped, as in the original implementation
+            }
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,101 @@
+package com.crewmeister.cmcodingchallenge.benchmark;
+
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.crewmeister.cmcodingchallenge.index.IndexSnapshotStore;
+import com.crewmeister.cmcodingchallenge.index.RateMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-date lookups against the in-memory index and rate matrix over 40 currencies. Each call picks
+ * the next of a fixed set of random (currency, date) pairs, a quarter of which fall on weekends.
+ * With {@code storage=mapped} the index reads from a memory-mapped snapshot instead of heap arrays.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"25"})
+    public int years;
+
+    @Param({"heap", "mapped"})
+    public String storage;
+
+    private ExchangeRateIndex index;
+    private RateMatrix matrix;
+    private String[] currencies;
+    private String[] targets;
+    private LocalDate[] dates;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        index = RateIndexFixtures.index(BundesbankCsvFixtures.CURRENCIES, years, 42L);
+        if ("mapped".equals(storage)) {
+            Path directory = Files.createTempDirectory("index-snapshot");
+            Path file = directory.resolve("exchange-rates.snapshot");
+            new IndexSnapshotStore(index, RateIndexFixtures.snapshotRepository(), file.toString(), true).save();
+            // The mapping outlives the file
+            Files.delete(file);
+            Files.delete(directory);
+        }
+        matrix = index.rateMatrix();
+        Random random = new Random(7L);
+        currencies = new String[QUERIES];
+        targets = new String[QUERIES];
+        dates = new LocalDate[QUERIES];
+        int days = (int) (BundesbankCsvFixtures.FIRST_DAY.plusYears(years).toEpochDay()
+                - BundesbankCsvFixtures.FIRST_DAY.toEpochDay());
+        for (int i = 0; i < QUERIES; i++) {
+            currencies[i] = BundesbankCsvFixtures.CURRENCIES.get(random.nextInt(BundesbankCsvFixtures.CURRENCIES.size()));
+            targets[i] = BundesbankCsvFixtures.CURRENCIES.get(random.nextInt(BundesbankCsvFixtures.CURRENCIES.size()));
+            dates[i] = BundesbankCsvFixtures.FIRST_DAY.plusDays(random.nextInt(days));
+        }
+    }
+
+    private int nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public long rateOn() {
+        int q = nextQuery();
+        return index.rateOn(currencies[q], dates[q]);
+    }
+
+    @Benchmark
+    public int floorDay() {
+        int q = nextQuery();
+        return index.floorDay(currencies[q], dates[q]);
+    }
+
+    @Benchmark
+    public BigDecimal crossRate() {
+        int q = nextQuery();
+        return matrix.crossRate(currencies[q], targets[q], dates[q]);
+    }
+}
@@ -0,0 +1,72 @@
+package com.crewmeister.cmcodingchallenge.benchmark;
+
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.crewmeister.cmcodingchallenge.index.RateSeries;
+import com.crewmeister.cmcodingchallenge.integration.BundesbankCsvParser;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an {@link ExchangeRateIndex} from the synthetic wildcard payload, the way ingestion fills
+ * it, so the lookup and conversion benchmarks run without a database or network.
+ */
+final class RateIndexFixtures {
+
+    private RateIndexFixtures() {
+    }
+
+    static ExchangeRateIndex index(List<String> currencies, int years, long seed) {
+        Map<String, RateSeries> series = new LinkedHashMap<>();
+        currencies.forEach(currency -> series.put(currency, new RateSeries(currency, years * 262)));
+        try {
+            new BundesbankCsvParser().parseMultiSeries(
+                    new ByteArrayInputStream(BundesbankCsvFixtures.allSeries(currencies, years, seed)),
+                    (currency, epochDay, scaledRate) -> series.get(currency).add(epochDay, scaledRate));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ExchangeRateIndex index = new ExchangeRateIndex(unsupportedRepository());
+        series.values().forEach(index::merge);
+        index.rateMatrix();
+        return index;
+    }
+
+    /**
+     * A repository that fails on every query, proving the measured paths never reach the database.
+     */
+    static ExchangeRateRepository unsupportedRepository() {
+        return repository(false);
+    }
+
+    /**
+     * Like {@link #unsupportedRepository()}, but answers the highest-id query an index snapshot is
+     * fingerprinted with, as an empty table.
+     */
+    static ExchangeRateRepository snapshotRepository() {
+        return repository(true);
+    }
+
+    private static ExchangeRateRepository repository(boolean fingerprint) {
+        return (ExchangeRateRepository) Proxy.newProxyInstance(
+                ExchangeRateRepository.class.getClassLoader(),
+                new Class<?>[]{ExchangeRateRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return "toString".equals(method.getName()) ? "UnsupportedExchangeRateRepository"
+                                : "hashCode".equals(method.getName()) ? System.identityHashCode(proxy)
+                                : proxy == args[0];
+                    }
+                    if (fingerprint && "findMaxId".equals(method.getName())) {
+                        return null;
+                    }
+                    throw new UnsupportedOperationException("Benchmarks run without a database: " + method.getName());
+                });
+    }
+}
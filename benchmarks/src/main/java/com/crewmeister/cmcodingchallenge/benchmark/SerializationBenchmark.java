@@ -0,0 +1,68 @@
+package com.crewmeister.cmcodingchallenge.benchmark;
+
+import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.domain.FixedPointRate;
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of one currency's full history as returned by
+ * {@code GET /api/v1/exchange-rates}, with an {@link ObjectMapper} configured like Spring Boot's
+ * (ISO dates, Java time module).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"25"})
+    public int years;
+
+    private List<ExchangeRate> history;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        ExchangeRateIndex index = RateIndexFixtures.index(Collections.singletonList("USD"), years, 42L);
+        int size = index.size("USD");
+        int[] epochDays = new int[size];
+        long[] scaledRates = new long[size];
+        index.copyDescending("USD", Integer.MIN_VALUE, Integer.MAX_VALUE, epochDays, scaledRates);
+        history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            history.add(new ExchangeRate((long) i + 1, "USD", LocalDate.ofEpochDay(epochDays[i]),
+                    FixedPointRate.toBigDecimal(scaledRates[i])));
+        }
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, ExchangeRate.class));
+    }
+
+    @Benchmark
+    public byte[] serializeHistory() throws JsonProcessingException {
+        return writer.writeValueAsBytes(history);
+    }
+}
@@ -0,0 +1,45 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.benchmark.BundesbankCsvFixtures;
+import com.crewmeister.cmcodingchallenge.domain.Currency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses the {@code serieskeyonly} response listing every currency with
+ * {@link CurrencyService#parseCSVResponse}. Lives in the service package because the method is
+ * package-private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CurrencyListParsingBenchmark {
+
+    private CurrencyService currencyService;
+    private String payload;
+
+    @Setup
+    public void setUp() {
+        currencyService = new CurrencyService();
+        payload = BundesbankCsvFixtures.seriesKeysOnly(BundesbankCsvFixtures.CURRENCIES);
+    }
+
+    @Benchmark
+    public List<Currency> parseCurrencyList() {
+        return currencyService.parseCSVResponse(payload);
+    }
+}
@@ -0,0 +1,133 @@
+package com.crewmeister.cmcodingchallenge.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded stand-in for the Bundesbank SDMX REST API, serving {@code GET /data/BBEX3/<series key>}
+ * from {@link StubSeries}. Each response is delayed by the configured latency plus uniform jitter,
+ * and the configured share of requests fails with {@code 503 Service Unavailable}.
+ */
+final class BundesbankStub implements AutoCloseable {
+
+    private static final String PATH = "/data/BBEX3/";
+
+    private final Map<String, StubSeries> series;
+    private final byte[] seriesKeysOnly;
+    private final Duration latency;
+    private final Duration jitter;
+    private final double failureRate;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+
+    BundesbankStub(Map<String, StubSeries> series, Duration latency, Duration jitter, double failureRate)
+            throws IOException {
+        this.series = series;
+        this.seriesKeysOnly = StubSeries.seriesKeysOnly(series.keySet());
+        this.latency = latency;
+        this.jitter = jitter;
+        this.failureRate = failureRate;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return the value for {@code bundesbank.api.base-url}
+     */
+    String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long failures() {
+        return failures.get();
+    }
+
+    long bytesServed() {
+        return bytesServed.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+            delay();
+            if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                failures.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            String key = exchange.getRequestURI().getPath().substring(PATH.length());
+            String query = exchange.getRequestURI().getQuery();
+            byte[] body;
+            if (query != null && query.contains("detail=serieskeyonly")) {
+                body = seriesKeysOnly;
+            } else {
+                StubSeries response = series.get(key);
+                if (response == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                body = response.render(parameter(query, "startPeriod"));
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/csv");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            bytesServed.addAndGet(body.length);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void delay() {
+        long nanos = latency.toNanos();
+        if (!jitter.isZero()) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter.toNanos() + 1);
+        }
+        if (nanos > 0) {
+            try {
+                Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String parameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
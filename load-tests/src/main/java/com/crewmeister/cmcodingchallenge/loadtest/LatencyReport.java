@@ -0,0 +1,47 @@
+package com.crewmeister.cmcodingchallenge.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prints per-operation and overall throughput and latency percentiles of a load run.
+ */
+final class LatencyReport {
+
+    private static final String ROW = "%-16s %9s %10s %9s %9s %9s %9s %8s%n";
+
+    private LatencyReport() {
+    }
+
+    static void print(OpenLoadGenerator.Result result, double offeredRate, PrintStream out) {
+        double seconds = result.measured.toMillis() / 1000.0;
+        out.printf(Locale.ROOT, "%nAPI scenario: %.0f req/s offered for %.0f s%n", offeredRate, seconds);
+        out.printf(Locale.ROOT, ROW, "operation", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (Map.Entry<String, OpenLoadGenerator.OperationResult> entry : result.operations.entrySet()) {
+            printRow(entry.getKey(), entry.getValue(), seconds, out);
+        }
+        printRow("TOTAL", result.total, seconds, out);
+        if (result.dropped.get() > 0) {
+            out.printf(Locale.ROOT, "%d arrivals dropped: too many requests in flight, the service fell behind%n",
+                    result.dropped.get());
+        }
+    }
+
+    private static void printRow(String name, OpenLoadGenerator.OperationResult result, double seconds, PrintStream out) {
+        Histogram latency = result.latencyMicros;
+        long count = latency.getTotalCount();
+        out.printf(Locale.ROOT, ROW, name, count,
+                String.format(Locale.ROOT, "%.1f", count / seconds),
+                millis(latency, 50.0), millis(latency, 99.0), millis(latency, 99.9),
+                String.format(Locale.ROOT, "%.2f", latency.getMaxValue() / 1000.0),
+                result.errors.get());
+    }
+
+    private static String millis(Histogram latency, double percentile) {
+        return latency.getTotalCount() == 0 ? "-"
+                : String.format(Locale.ROOT, "%.2f", latency.getValueAtPercentile(percentile) / 1000.0);
+    }
+}
@@ -0,0 +1,117 @@
+package com.crewmeister.cmcodingchallenge.loadtest;
+
+import com.crewmeister.cmcodingchallenge.CmCodingChallengeApplication;
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Boots the application against an embedded {@link BundesbankStub} and an in-memory database, then
+ * runs the API scenario (an open-model request mix against {@code /api/v1}) and the ingestion
+ * scenario (a timed cold load of every currency from the stub). Options are described in
+ * {@link LoadTestOptions}; any {@code --app.<property>=<value>} is passed to the application.
+ */
+public final class LoadTestMain {
+
+    private static final long READINESS_POLL_MILLIS = 100;
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.printf(Locale.ROOT, "Preparing stub data (%d currencies, %d years)...%n",
+                options.currencies, options.years);
+        try (BundesbankStub stub = new BundesbankStub(
+                options.recordedDir != null
+                        ? StubSeries.recorded(options.recordedDir)
+                        : StubSeries.synthetic(StubSeries.CURRENCIES.subList(0, options.currencies), options.years, 42L),
+                options.stubLatency, options.stubJitter, options.stubFailureRate)) {
+
+            long bootStart = System.nanoTime();
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(CmCodingChallengeApplication.class)
+                    .properties(applicationProperties(stub, options))
+                    .run();
+            try {
+                System.out.printf(Locale.ROOT, "Application started in %.2f s%n", (System.nanoTime() - bootStart) / 1e9);
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                awaitReady(port);
+                System.out.printf(Locale.ROOT, "Warm-up finished %.2f s after launch%n", (System.nanoTime() - bootStart) / 1e9);
+
+                if (options.runs("api")) {
+                    OpenLoadGenerator generator = new OpenLoadGenerator("http://localhost:" + port,
+                            WorkloadMix.standard(StubSeries.CURRENCIES.subList(0, options.currencies), options.years),
+                            options.apiKeys);
+                    System.out.printf(Locale.ROOT, "Running API scenario: %s warm-up, %s measured...%n",
+                            options.warmup, options.duration);
+                    LatencyReport.print(generator.run(options.rate, options.warmup, options.duration),
+                            options.rate, System.out);
+                }
+                if (options.runs("ingestion")) {
+                    runIngestion(context, stub);
+                }
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Polls the readiness probe until the startup warm-up has loaded the data.
+     */
+    private static void awaitReady(int port) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/health/readiness")).build();
+        while (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+            Thread.sleep(READINESS_POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Empties the table and the index, then times one full ingestion of every currency.
+     */
+    private static void runIngestion(ConfigurableApplicationContext context, BundesbankStub stub) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("TRUNCATE TABLE exchange_rates");
+        context.getBean(ExchangeRateIndex.class).rebuild();
+
+        long requestsBefore = stub.requests();
+        long failuresBefore = stub.failures();
+        long bytesBefore = stub.bytesServed();
+        long start = System.nanoTime();
+        context.getBean(ExchangeRateService.class).updateExchangeRatesParallel();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM exchange_rates", Long.class);
+
+        System.out.printf(Locale.ROOT, "%nIngestion scenario: cold load of all currencies%n");
+        System.out.printf(Locale.ROOT, "duration %.2f s, %d rows, %.0f rows/s, %d stub requests (%d failed), %.1f MB downloaded%n",
+                seconds, rows, rows / seconds, stub.requests() - requestsBefore, stub.failures() - failuresBefore,
+                (stub.bytesServed() - bytesBefore) / 1e6);
+    }
+
+    private static Map<String, Object> applicationProperties(BundesbankStub stub, LoadTestOptions options) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.h2.console.enabled", false);
+        properties.put("bundesbank.api.base-url", stub.baseUrl());
+        properties.put("bundesbank.response-cache.enabled", false);
+        properties.put("logging.level.com.crewmeister", "WARN");
+        properties.putAll(options.applicationProperties);
+        return properties;
+    }
+}
@@ -0,0 +1,73 @@
+package com.crewmeister.cmcodingchallenge.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}. Every option has a default, so a run
+ * without arguments exercises the whole suite at a modest rate.
+ */
+final class LoadTestOptions {
+
+    /** Requests per second started by the load generator, independent of response times. */
+    final double rate;
+    /** Length of the measured phase of the API scenario. */
+    final Duration duration;
+    /** Unmeasured phase at the same rate before it, so the JIT and caches are warm. */
+    final Duration warmup;
+    /** Distinct X-API-KEY values spread across requests, enough to stay under the per-key limit. */
+    final int apiKeys;
+    /** Years of daily history and number of currencies the stub serves. */
+    final int years;
+    final int currencies;
+    /** Delay before the stub answers, plus up to {@code stubJitter} of uniform random delay. */
+    final Duration stubLatency;
+    final Duration stubJitter;
+    /** Share of stub requests answered with 503 Service Unavailable. */
+    final double stubFailureRate;
+    /** Directory of recorded {@code <series key>.csv} responses to serve instead of synthetic ones. */
+    final Path recordedDir;
+    /** Which scenarios to run: {@code all}, {@code api} or {@code ingestion}. */
+    final String scenario;
+    /** Options given as {@code --app.<property>=<value>}, passed to the application. */
+    final Map<String, String> applicationProperties = new HashMap<>();
+
+    private LoadTestOptions(Map<String, String> values) {
+        rate = Double.parseDouble(values.getOrDefault("rate", "200"));
+        duration = Duration.parse(values.getOrDefault("duration", "PT60S"));
+        warmup = Duration.parse(values.getOrDefault("warmup", "PT15S"));
+        apiKeys = Integer.parseInt(values.getOrDefault("api-keys",
+                String.valueOf(Math.max(1, (int) Math.ceil(rate * 60 / 50)))));
+        years = Integer.parseInt(values.getOrDefault("years", "25"));
+        currencies = Integer.parseInt(values.getOrDefault("currencies", "40"));
+        stubLatency = Duration.parse(values.getOrDefault("stub-latency", "PT0.05S"));
+        stubJitter = Duration.parse(values.getOrDefault("stub-jitter", "PT0.05S"));
+        stubFailureRate = Double.parseDouble(values.getOrDefault("stub-failure-rate", "0"));
+        recordedDir = values.containsKey("recorded-dir") ? Paths.get(values.get("recorded-dir")) : null;
+        scenario = values.getOrDefault("scenario", "all");
+        values.forEach((name, value) -> {
+            if (name.startsWith("app.")) {
+                applicationProperties.put(name.substring("app.".length()), value);
+            }
+        });
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    boolean runs(String name) {
+        return "all".equals(scenario) || name.equals(scenario);
+    }
+}
@@ -0,0 +1,121 @@
+package com.crewmeister.cmcodingchallenge.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests start at a constant arrival rate whatever the response times, as
+ * independent clients would send them. Latency is measured from each request's scheduled start,
+ * not its actual send time, so a stalled server shows up in the tail instead of silently lowering
+ * the offered load (no coordinated omission).
+ */
+final class OpenLoadGenerator {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+    /** Requests in flight beyond which new arrivals are dropped and counted, to bound memory. */
+    private static final int MAX_OUTSTANDING = 20_000;
+
+    static final class OperationResult {
+        final Histogram latencyMicros = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        final AtomicLong errors = new AtomicLong();
+    }
+
+    static final class Result {
+        final Map<String, OperationResult> operations = new LinkedHashMap<>();
+        final OperationResult total = new OperationResult();
+        final AtomicLong dropped = new AtomicLong();
+        Duration measured;
+    }
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final String baseUrl;
+    private final WorkloadMix mix;
+    private final int apiKeys;
+
+    OpenLoadGenerator(String baseUrl, WorkloadMix mix, int apiKeys) {
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        this.apiKeys = apiKeys;
+    }
+
+    /**
+     * Runs the warm-up phase, then the measured phase, at {@code rate} requests per second, and
+     * waits for the measured requests to finish.
+     */
+    Result run(double rate, Duration warmup, Duration duration) throws InterruptedException {
+        Result result = new Result();
+        mix.operations().forEach(operation -> result.operations.put(operation.name, new OperationResult()));
+        Random random = new Random(42L);
+        AtomicLong outstanding = new AtomicLong();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = scheduled >= measureFrom;
+            WorkloadMix.Operation operation = mix.next(random);
+            if (outstanding.get() >= MAX_OUTSTANDING) {
+                if (measured) {
+                    result.dropped.incrementAndGet();
+                }
+                continue;
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + operation.pathAndQuery.apply(random)))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("X-API-KEY", "load-test-" + random.nextInt(apiKeys))
+                    .GET()
+                    .build();
+            outstanding.incrementAndGet();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        outstanding.decrementAndGet();
+                        if (!measured) {
+                            return;
+                        }
+                        long latencyMicros = Math.min(MAX_LATENCY_MICROS,
+                                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled));
+                        boolean failed = error != null || response.statusCode() >= 400;
+                        record(result.operations.get(operation.name), latencyMicros, failed);
+                        record(result.total, latencyMicros, failed);
+                    });
+        }
+        result.measured = duration;
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return result;
+    }
+
+    private static void record(OperationResult result, long latencyMicros, boolean failed) {
+        result.latencyMicros.recordValue(latencyMicros);
+        if (failed) {
+            result.errors.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.crewmeister.cmcodingchallenge.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A BBEX3 CSV response split into its metadata lines and its dated observation lines, so the stub
+ * can honour {@code startPeriod} by skipping lines instead of regenerating the response.
+ */
+final class StubSeries {
+
+    static final LocalDate FIRST_DAY = LocalDate.of(1999, 1, 1);
+    static final String WILDCARD_KEY = "D..EUR.BB.AC.000";
+
+    static final List<String> CURRENCIES = Collections.unmodifiableList(Arrays.asList(
+            "AUD", "BGN", "BRL", "CAD", "CHF", "CNY", "CYP", "CZK", "DKK", "EEK",
+            "GBP", "GRD", "HKD", "HRK", "HUF", "IDR", "ILS", "INR", "ISK", "JPY",
+            "KRW", "LTL", "LVL", "MTL", "MXN", "MYR", "NOK", "NZD", "PHP", "PLN",
+            "ROL", "RON", "RUB", "SEK", "SGD", "SIT", "SKK", "THB", "TRY", "USD"));
+
+    private final String header;
+    private final String[] dayLines; // ascending, each starting with its ISO date
+
+    private StubSeries(String header, String[] dayLines) {
+        this.header = header;
+        this.dayLines = dayLines;
+    }
+
+    /**
+     * @param startPeriod ISO date of the first observation to include, or null for all of them
+     */
+    byte[] render(String startPeriod) {
+        int first = 0;
+        if (startPeriod != null) {
+            int low = 0;
+            int high = dayLines.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (dayLines[mid].compareTo(startPeriod) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            first = low;
+        }
+        StringBuilder csv = new StringBuilder(header);
+        for (int i = first; i < dayLines.length; i++) {
+            csv.append(dayLines[i]).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Deterministic synthetic responses: one per currency, the wildcard response covering all of them.
+     *
+     * @return responses by series key, e.g. {@code D.USD.EUR.BB.AC.000}
+     */
+    static Map<String, StubSeries> synthetic(List<String> currencies, int years, long seed) {
+        Random random = new Random(seed);
+        LocalDate end = FIRST_DAY.plusYears(years);
+        int days = (int) (end.toEpochDay() - FIRST_DAY.toEpochDay());
+        String[][] values = new String[currencies.size()][days];
+        for (int c = 0; c < currencies.size(); c++) {
+            double rate = 0.5 + random.nextDouble() * 200;
+            for (int d = 0; d < days; d++) {
+                if (!isWeekend(FIRST_DAY.plusDays(d))) {
+                    rate = Math.max(0.0001, rate * (1 + random.nextGaussian() * 0.004));
+                    values[c][d] = String.format(Locale.ROOT, "%.4f", rate);
+                }
+            }
+        }
+
+        Map<String, StubSeries> responses = new LinkedHashMap<>();
+        for (int c = 0; c < currencies.size(); c++) {
+            String key = seriesKey(currencies.get(c));
+            String header = "," + qualified(key) + "," + qualified(key) + "_FLAGS\n"
+                    + "unit," + currencies.get(c) + ",\nunit multiplier,one,\nlast update,2024-04-19 14:08:42,\n";
+            String[] lines = new String[days];
+            for (int d = 0; d < days; d++) {
+                String value = values[c][d];
+                lines[d] = FIRST_DAY.plusDays(d) + (value == null ? ",.,No value available" : "," + value + ",");
+            }
+            responses.put(key, new StubSeries(header, lines));
+        }
+
+        StringBuilder header = new StringBuilder();
+        StringBuilder units = new StringBuilder("unit");
+        for (String currency : currencies) {
+            String key = qualified(seriesKey(currency));
+            header.append(',').append(key).append(',').append(key).append("_FLAGS");
+            units.append(',').append(currency).append(',');
+        }
+        header.append('\n').append(units).append('\n');
+        String[] lines = new String[days];
+        for (int d = 0; d < days; d++) {
+            StringBuilder line = new StringBuilder().append(FIRST_DAY.plusDays(d));
+            for (int c = 0; c < currencies.size(); c++) {
+                String value = values[c][d];
+                line.append(value == null ? ",.,No value available" : "," + value + ",");
+            }
+            lines[d] = line.toString();
+        }
+        responses.put(WILDCARD_KEY, new StubSeries(header.toString(), lines));
+        return responses;
+    }
+
+    /**
+     * Recorded responses, one {@code <series key>.csv} file each, e.g. {@code D.USD.EUR.BB.AC.000.csv}.
+     * Lines starting with a date are observations; everything before the first one is metadata.
+     */
+    static Map<String, StubSeries> recorded(Path directory) throws IOException {
+        Map<String, StubSeries> responses = new LinkedHashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.csv")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                responses.put(name.substring(0, name.length() - ".csv".length()), parse(Files.readAllLines(file)));
+            }
+        }
+        return responses;
+    }
+
+    private static StubSeries parse(List<String> lines) {
+        StringBuilder header = new StringBuilder();
+        List<String> dayLines = new ArrayList<>();
+        for (String line : lines) {
+            String unquoted = line.startsWith("\"") ? line.substring(1) : line;
+            if (unquoted.length() >= 10 && Character.isDigit(unquoted.charAt(0)) && unquoted.charAt(4) == '-') {
+                dayLines.add(line);
+            } else if (dayLines.isEmpty()) {
+                header.append(line).append('\n');
+            }
+        }
+        return new StubSeries(header.toString(), dayLines.toArray(new String[0]));
+    }
+
+    /**
+     * The {@code detail=serieskeyonly} response listing every single-currency series served.
+     */
+    static byte[] seriesKeysOnly(Iterable<String> seriesKeys) {
+        StringBuilder csv = new StringBuilder();
+        for (String key : seriesKeys) {
+            if (!WILDCARD_KEY.equals(key)) {
+                csv.append(',').append(qualified(key)).append(',').append(qualified(key)).append("_FLAGS");
+            }
+        }
+        return csv.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String seriesKey(String currency) {
+        return "D." + currency + ".EUR.BB.AC.000";
+    }
+
+    private static String qualified(String seriesKey) {
+        return "BBEX3." + seriesKey;
+    }
+
+    private static boolean isWeekend(LocalDate day) {
+        return day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+}
@@ -0,0 +1,98 @@
+package com.crewmeister.cmcodingchallenge.loadtest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Weighted mix of {@code /api/v1} requests over random currencies and dates within the served
+ * history. Dates may fall on weekends, so lookups and conversions use {@code asOf=true}.
+ */
+final class WorkloadMix {
+
+    static final class Operation {
+        final String name;
+        final int weight;
+        final Function<Random, String> pathAndQuery;
+
+        Operation(String name, int weight, Function<Random, String> pathAndQuery) {
+            this.name = name;
+            this.weight = weight;
+            this.pathAndQuery = pathAndQuery;
+        }
+    }
+
+    private final List<Operation> operations = new ArrayList<>();
+    private final List<String> currencies;
+    private final int days;
+    private int totalWeight;
+
+    private WorkloadMix(List<String> currencies, int years) {
+        this.currencies = currencies;
+        this.days = (int) (StubSeries.FIRST_DAY.plusYears(years).toEpochDay() - StubSeries.FIRST_DAY.toEpochDay());
+    }
+
+    /**
+     * The default mix, dominated by single-date lookups and conversions.
+     */
+    static WorkloadMix standard(List<String> currencies, int years) {
+        WorkloadMix mix = new WorkloadMix(currencies, years);
+        mix.add("rate-for-date", 40, random ->
+                "/api/v1/exchange-rates/" + mix.date(random) + "?currency=" + mix.currency(random) + "&asOf=true");
+        mix.add("convert", 20, random ->
+                "/api/v1/exchange-rates/convert?currency=" + mix.currency(random) + "&amount=100.50&date="
+                        + mix.date(random) + "&asOf=true");
+        mix.add("convert-cross", 10, random ->
+                "/api/v1/exchange-rates/convert/cross?from=" + mix.currency(random) + "&to=" + mix.currency(random)
+                        + "&amount=100.50&date=" + mix.weekday(random));
+        mix.add("snapshot", 10, random -> "/api/v1/exchange-rates/snapshot/" + mix.weekday(random));
+        mix.add("history-page", 10, random ->
+                "/api/v1/exchange-rates?currency=" + mix.currency(random) + "&limit=100&to=" + mix.date(random));
+        mix.add("currencies", 5, random -> "/api/v1/currencies");
+        mix.add("full-history", 5, random -> "/api/v1/exchange-rates?currency=" + mix.currency(random));
+        return mix;
+    }
+
+    private void add(String name, int weight, Function<Random, String> pathAndQuery) {
+        operations.add(new Operation(name, weight, pathAndQuery));
+        totalWeight += weight;
+    }
+
+    List<Operation> operations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    Operation next(Random random) {
+        int pick = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            pick -= operation.weight;
+            if (pick < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Weights do not add up");
+    }
+
+    private String currency(Random random) {
+        return currencies.get(random.nextInt(currencies.size()));
+    }
+
+    private LocalDate date(Random random) {
+        return StubSeries.FIRST_DAY.plusDays(random.nextInt(days));
+    }
+
+    private LocalDate weekday(Random random) {
+        LocalDate date = date(random);
+        switch (date.getDayOfWeek()) {
+            case SATURDAY:
+                return date.minusDays(1);
+            case SUNDAY:
+                return date.minusDays(2);
+            default:
+                return date;
+        }
+    }
+}
@@ -1,24 +1,46 @@
 package com.crewmeister.cmcodingchallenge.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
-
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    /**
+     * Bounded pool that reads and parses Bundesbank response bodies, kept apart from request
+     * threads and the common ForkJoinPool. Core and max size are equal so the pool never grows
+     * past the configured concurrency; further responses wait in the queue.
+     */
     @Bean(name = "exchangeRateTaskExecutor")
-    public Executor exchangeRateTaskExecutor() {
+    public ThreadPoolTaskExecutor exchangeRateTaskExecutor(
+            @Value("${ingestion.fetch-concurrency:4}") int concurrency,
+            @Value("${ingestion.fetch-queue-capacity:100}") int queueCapacity) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(10);  // Increased from default
-        executor.setMaxPoolSize(20);   // Increased from default
-        executor.setQueueCapacity(100);
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix("ExchangeRate-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Single thread running the startup warm-up, so loading data neither blocks startup nor
+     * takes a parsing thread from the ingestion pool. Shutdown interrupts a warm-up in progress.
+     */
+    @Bean(name = "warmUpTaskExecutor")
+    public ThreadPoolTaskExecutor warmUpTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("WarmUp-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
         executor.initialize();
         return executor;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collection;
+import java.util.Map;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheSpecProperties.class)
+public class CacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
+
+    /**
+     * Collections (e.g. the full history of a currency) weigh as many units as they have elements,
+     * so a {@code maximumWeight} bound caps the number of cached rows rather than cached lists.
+     */
+    static final Weigher<Object, Object> COLLECTION_SIZE_WEIGHER = (key, value) ->
+            value instanceof Collection ? Math.max(1, ((Collection<?>) value).size()) : 1;
+
+    @Bean
+    public CacheManager cacheManager(CacheSpecProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(builderFor(properties.getDefaultSpec()));
+        for (Map.Entry<String, String> entry : properties.getSpecs().entrySet()) {
+            logger.info("Configuring cache '{}' with spec: {}", entry.getKey(), entry.getValue());
+            cacheManager.registerCustomCache(entry.getKey(), builderFor(entry.getValue()).build());
+        }
+        return cacheManager;
+    }
+
+    static Caffeine<Object, Object> builderFor(String spec) {
+        Caffeine<Object, Object> builder = Caffeine.from(CaffeineSpec.parse(spec));
+        if (spec.contains("maximumWeight")) {
+            return builder.weigher(COLLECTION_SIZE_WEIGHER);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,34 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache Caffeine specifications, e.g.
+ * {@code cache.specs.exchangeRate=maximumSize=100000,expireAfterWrite=12h,recordStats}.
+ * Caches without an explicit entry fall back to {@link #getDefaultSpec()}.
+ */
+@ConfigurationProperties(prefix = "cache")
+public class CacheSpecProperties {
+
+    private String defaultSpec = "maximumSize=1000,expireAfterWrite=1h,recordStats";
+    private Map<String, String> specs = new LinkedHashMap<>();
+
+    public String getDefaultSpec() {
+        return defaultSpec;
+    }
+
+    public void setDefaultSpec(String defaultSpec) {
+        this.defaultSpec = defaultSpec;
+    }
+
+    public Map<String, String> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(Map<String, String> specs) {
+        this.specs = specs;
+    }
+}
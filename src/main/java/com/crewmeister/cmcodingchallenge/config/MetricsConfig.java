@@ -0,0 +1,80 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collections;
+
+/**
+ * A Prometheus registry scraped through {@code GET /admin/metrics}. Besides the meters recorded
+ * on the hot paths themselves, it watches every Caffeine cache (including the rate limit bucket
+ * store), the {@code exchangeRateTaskExecutor} pool and its queue, and basic JVM figures.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private final CacheManager cacheManager;
+    private final RateLimitConfig rateLimitConfig;
+    private final ThreadPoolTaskExecutor exchangeRateTaskExecutor;
+
+    public MetricsConfig(CacheManager cacheManager, RateLimitConfig rateLimitConfig,
+                         @Qualifier("exchangeRateTaskExecutor") ThreadPoolTaskExecutor exchangeRateTaskExecutor) {
+        this.cacheManager = cacheManager;
+        this.rateLimitConfig = rateLimitConfig;
+        this.exchangeRateTaskExecutor = exchangeRateTaskExecutor;
+    }
+
+    @Bean
+    public PrometheusMeterRegistry meterRegistry() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().commonTags("application", "cm-coding-challenge");
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        return registry;
+    }
+
+    /**
+     * Times every {@code ExchangeRateRepository} query. Static so the post-processor does not pull
+     * this configuration and its dependencies into early initialization.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RepositoryMetricsPostProcessor(meterRegistry);
+    }
+
+    /**
+     * Binds caches once the context is up, so caches registered by then are all covered; caches
+     * created lazily later are not.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void bindCacheAndExecutorMetrics() {
+        MeterRegistry registry = meterRegistry();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache) {
+                CaffeineCacheMetrics.monitor(registry, ((CaffeineCache) cache).getNativeCache(), name);
+            }
+        }
+        CaffeineCacheMetrics.monitor(registry, rateLimitConfig.getBuckets(), "rateLimitBuckets");
+        new ExecutorServiceMetrics(exchangeRateTaskExecutor.getThreadPoolExecutor(),
+                "exchangeRateTaskExecutor", Collections.emptyList()).bindTo(registry);
+    }
+}
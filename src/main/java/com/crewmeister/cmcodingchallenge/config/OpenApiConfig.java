@@ -38,7 +38,10 @@ public class OpenApiConfig {
                                 .description("Operations related to EUR exchange rates"),
                         new Tag()
                                 .name("Currencies")
-                                .description("Operations related to available currencies")
+                                .description("Operations related to available currencies"),
+                        new Tag()
+                                .name("Administration")
+                                .description("Operational insight into the running service")
                 ));
     }
 } 
\ No newline at end of file
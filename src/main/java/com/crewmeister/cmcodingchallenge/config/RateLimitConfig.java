@@ -1,25 +1,183 @@
 package com.crewmeister.cmcodingchallenge.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.Refill;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.github.bucket4j.grid.jcache.JCacheProxyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.CompleteConfiguration;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.expiry.AccessedExpiryPolicy;
+import javax.cache.expiry.EternalExpiryPolicy;
+import javax.cache.spi.CachingProvider;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Holds one token bucket per API key in a size-bounded Caffeine cache, so sending random keys
+ * cannot grow the heap and buckets of keys that went quiet are dropped.
+ *
+ * A bucket idle for a full refill period is full again, so expiring it after at least that long
+ * never lets a client exceed its limit. Evicting a busy key when the store is full does reset it;
+ * {@code rate-limit.max-buckets} should comfortably exceed the number of active clients.
+ *
+ * With {@link Backend#JCACHE} the bucket state lives in a JCache cache shared by all nodes and the
+ * local store keeps one proxy per key. Each proxy consumes tokens locally and writes them back once
+ * {@code rate-limit.sync.max-unsynchronized-tokens} or {@code rate-limit.sync.max-unsynchronized-timeout}
+ * is reached, so the limit can be overshot by at most that many tokens per node. Entries of the
+ * shared cache expire after the same idle time as the local ones, so random keys cannot grow it
+ * either. A cache that already exists is used as it is and must be configured with such an expiry.
+ */
 @Configuration
 public class RateLimitConfig {
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitConfig.class);
 
-    public Bucket resolveBucket(String apiKey) {
-        return buckets.computeIfAbsent(apiKey, this::newBucket);
+    public enum Backend {
+        /** Buckets live in this JVM; every node enforces its own limit. */
+        LOCAL,
+        /** Bucket state is shared through a JCache provider; the limit holds across the cluster. */
+        JCACHE
+    }
+
+    static final int CAPACITY = 100;
+    static final Duration REFILL_PERIOD = Duration.ofMinutes(1);
+
+    /** Immutable and shared by every bucket, so creating one allocates only its state. */
+    private static final Bandwidth LIMIT = Bandwidth.classic(CAPACITY, Refill.intervally(CAPACITY, REFILL_PERIOD));
+    private static final BucketConfiguration CONFIGURATION = BucketConfiguration.builder().addLimit(LIMIT).build();
+
+    private final Cache<String, Bucket> buckets;
+    private final int maxKeyLength;
+    private final ProxyManager<String> proxyManager; // null for the local backend
+    private final DelayParameters syncParameters;
+
+    @Autowired
+    public RateLimitConfig(@Value("${rate-limit.max-buckets:100000}") long maxBuckets,
+                           @Value("${rate-limit.bucket-idle-timeout:PT10M}") Duration idleTimeout,
+                           @Value("${rate-limit.max-key-length:64}") int maxKeyLength,
+                           @Value("${rate-limit.backend:LOCAL}") Backend backend,
+                           @Value("${rate-limit.jcache.provider:}") String provider,
+                           @Value("${rate-limit.jcache.cache-name:rate-limit-buckets}") String cacheName,
+                           @Value("${rate-limit.sync.max-unsynchronized-tokens:10}") long maxUnsynchronizedTokens,
+                           @Value("${rate-limit.sync.max-unsynchronized-timeout:PT1S}") Duration maxUnsynchronizedTimeout) {
+        this(maxBuckets, idleTimeout, maxKeyLength,
+                backend == Backend.JCACHE ? jcacheProxyManager(provider, cacheName, bucketExpiry(idleTimeout)) : null,
+                new DelayParameters(maxUnsynchronizedTokens, maxUnsynchronizedTimeout));
     }
 
-    private Bucket newBucket(String apiKey) {
-        return Bucket.builder()
-                .addLimit(Bandwidth.classic(100, Refill.intervally(100, Duration.ofMinutes(1))))
+    public RateLimitConfig(long maxBuckets, Duration idleTimeout, int maxKeyLength) {
+        this(maxBuckets, idleTimeout, maxKeyLength, null, null);
+    }
+
+    RateLimitConfig(long maxBuckets, Duration idleTimeout, int maxKeyLength,
+                    ProxyManager<String> proxyManager, DelayParameters syncParameters) {
+        Duration expiry = bucketExpiry(idleTimeout);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(expiry)
+                .recordStats()
                 .build();
+        this.maxKeyLength = maxKeyLength;
+        this.proxyManager = proxyManager;
+        this.syncParameters = syncParameters;
+        logger.info("Rate limit bucket store ({} backend) holds up to {} keys, idle buckets expire after {}",
+                proxyManager == null ? Backend.LOCAL : Backend.JCACHE, maxBuckets, expiry);
+    }
+
+    /**
+     * How long a bucket may go unused before it is dropped: the configured idle timeout, but never
+     * less than the refill period, after which an idle bucket is full again anyway.
+     */
+    static Duration bucketExpiry(Duration idleTimeout) {
+        return idleTimeout.compareTo(REFILL_PERIOD) < 0 ? REFILL_PERIOD : idleTimeout;
+    }
+
+    /**
+     * Creates a JCache-backed proxy manager. Without an explicit provider class the single
+     * {@link CachingProvider} on the classpath is used; the cache is created if it does not exist,
+     * with entries expiring {@code expiry} after their last access.
+     */
+    static ProxyManager<String> jcacheProxyManager(String provider, String cacheName, Duration expiry) {
+        CachingProvider cachingProvider = provider == null || provider.isEmpty()
+                ? Caching.getCachingProvider()
+                : Caching.getCachingProvider(provider);
+        CacheManager cacheManager = cachingProvider.getCacheManager();
+        javax.cache.Cache<String, byte[]> cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            cache = cacheManager.createCache(cacheName, new MutableConfiguration<String, byte[]>()
+                    .setTypes(String.class, byte[].class)
+                    .setExpiryPolicyFactory(AccessedExpiryPolicy.factoryOf(
+                            new javax.cache.expiry.Duration(TimeUnit.MILLISECONDS, expiry.toMillis()))));
+        } else if (neverExpires(cache)) {
+            logger.warn("JCache cache '{}' already exists without an expiry policy; configure it to expire entries "
+                    + "{} after access, or buckets of every key ever seen are kept forever", cacheName, expiry);
+        }
+        logger.info("Sharing rate limit buckets through JCache cache '{}' of {}",
+                cacheName, cachingProvider.getClass().getName());
+        return new JCacheProxyManager<>(cache);
+    }
+
+    private static boolean neverExpires(javax.cache.Cache<String, byte[]> cache) {
+        try {
+            CompleteConfiguration<?, ?> configuration = cache.getConfiguration(CompleteConfiguration.class);
+            return configuration.getExpiryPolicyFactory().create() instanceof EternalExpiryPolicy;
+        } catch (IllegalArgumentException e) {
+            return false; // the provider does not expose its configuration
+        }
+    }
+
+    public Bucket resolveBucket(String apiKey) {
+        return buckets.get(boundedKey(apiKey), this::newBucket);
+    }
+
+    /**
+     * The Caffeine cache holding the buckets, for statistics on live buckets and evictions.
+     */
+    public Cache<String, Bucket> getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Keys longer than the configured maximum are replaced by their SHA-256 digest, so a single
+     * entry never retains more than a few dozen characters of client input.
+     */
+    String boundedKey(String apiKey) {
+        if (apiKey.length() <= maxKeyLength) {
+            return apiKey;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Bucket newBucket(String key) {
+        if (proxyManager == null) {
+            return Bucket.builder()
+                    .addLimit(LIMIT)
+                    .build();
+        }
+        return proxyManager.builder()
+                .withOptimization(Optimizations.delaying(syncParameters))
+                .build(key, CONFIGURATION);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Wraps the {@link ExchangeRateRepository} proxy so each call records a {@code repository.query}
+ * timer tagged with the method name. For methods returning a {@code Stream} only opening the
+ * cursor is timed, not consuming it.
+ */
+class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof ExchangeRateRepository)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            Timer.Sample sample = Timer.start();
+            String outcome = "success";
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                outcome = "error";
+                throw e;
+            } finally {
+                sample.stop(Timer.builder("repository.query")
+                        .description("Duration of ExchangeRateRepository calls")
+                        .tag("repository", ExchangeRateRepository.class.getSimpleName())
+                        .tag("method", invocation.getMethod().getName())
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry.getObject()));
+            }
+        });
+        return proxyFactory.getProxy();
+    }
+}
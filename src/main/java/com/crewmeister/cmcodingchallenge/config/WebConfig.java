@@ -1,8 +1,15 @@
 package com.crewmeister.cmcodingchallenge.config;
 
+import com.crewmeister.cmcodingchallenge.interceptor.ConditionalRequestInterceptor;
 import com.crewmeister.cmcodingchallenge.interceptor.RateLimitInterceptor;
+import com.crewmeister.cmcodingchallenge.interceptor.RequestMetricsFilter;
+import com.crewmeister.cmcodingchallenge.interceptor.WarmUpInterceptor;
+import com.crewmeister.cmcodingchallenge.service.WarmUpService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -10,19 +17,39 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebConfig implements WebMvcConfigurer {
 
     private final RateLimitConfig rateLimitConfig;
+    private final ConditionalRequestInterceptor conditionalRequestInterceptor;
+    private final MeterRegistry meterRegistry;
+    private final WarmUpService warmUpService;
 
-    public WebConfig(RateLimitConfig rateLimitConfig) {
+    public WebConfig(RateLimitConfig rateLimitConfig, ConditionalRequestInterceptor conditionalRequestInterceptor,
+                     MeterRegistry meterRegistry, WarmUpService warmUpService) {
         this.rateLimitConfig = rateLimitConfig;
+        this.conditionalRequestInterceptor = conditionalRequestInterceptor;
+        this.meterRegistry = meterRegistry;
+        this.warmUpService = warmUpService;
     }
 
     @Bean
     public RateLimitInterceptor rateLimitInterceptor() {
-        return new RateLimitInterceptor(rateLimitConfig);
+        return new RateLimitInterceptor(rateLimitConfig, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter() {
+        FilterRegistrationBean<RequestMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestMetricsFilter(meterRegistry));
+        registration.addUrlPatterns("/api/v1/*"); // Time versioned API endpoints, including rejected requests
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
     }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new WarmUpInterceptor(warmUpService))
+                .addPathPatterns("/api/v1/**"); // Before rate limiting, so waiting out the warm-up costs no tokens
         registry.addInterceptor(rateLimitInterceptor())
                 .addPathPatterns("/api/v1/**"); // Apply to versioned API endpoints
+        registry.addInterceptor(conditionalRequestInterceptor)
+                .addPathPatterns("/api/v1/exchange-rates/**", "/api/v1/currencies/**"); // Read endpoints backed by the dataset
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package com.crewmeister.cmcodingchallenge.controller;
+
+import com.crewmeister.cmcodingchallenge.config.RateLimitConfig;
+import com.crewmeister.cmcodingchallenge.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/admin/caches")
+@Tag(name = "Administration", description = "Operational insight into the running service")
+public class CacheAdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheAdminController.class);
+    static final String RATE_LIMIT_BUCKETS = "rateLimitBuckets";
+
+    private final CacheManager cacheManager;
+    private final RateLimitConfig rateLimitConfig;
+
+    public CacheAdminController(CacheManager cacheManager, RateLimitConfig rateLimitConfig) {
+        this.cacheManager = cacheManager;
+        this.rateLimitConfig = rateLimitConfig;
+        logger.info("CacheAdminController initialized");
+    }
+
+    @GetMapping
+    @Operation(summary = "Get cache statistics", description = "Returns size, hit ratio, load time and eviction counts for every cache and for the rate limit bucket store.")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved cache statistics",
+                content = @Content(mediaType = "application/json",
+                array = @ArraySchema(schema = @Schema(implementation = CacheStatsDTO.class))))
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStatistics() {
+        List<CacheStatsDTO> statistics = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache) {
+                statistics.add(toDTO(name, ((CaffeineCache) cache).getNativeCache()));
+            }
+        }
+        statistics.add(toDTO(RATE_LIMIT_BUCKETS, rateLimitConfig.getBuckets()));
+        logger.debug("Returning statistics for {} caches", statistics.size());
+        return ResponseEntity.ok(statistics);
+    }
+
+    private CacheStatsDTO toDTO(String name, com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+        CacheStats stats = nativeCache.stats();
+        return new CacheStatsDTO(
+                name,
+                nativeCache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.loadCount(),
+                stats.averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1),
+                stats.evictionCount(),
+                stats.evictionWeight()
+        );
+    }
+}
@@ -1,9 +1,20 @@
 package com.crewmeister.cmcodingchallenge.controller;
 
 import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.dto.BatchConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.ConversionRequestDTO;
 import com.crewmeister.cmcodingchallenge.dto.ConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.CrossConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRatePageDTO;
+import com.crewmeister.cmcodingchallenge.dto.RateSnapshotDTO;
+import com.crewmeister.cmcodingchallenge.dto.RateStatisticsDTO;
 import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
 import com.crewmeister.cmcodingchallenge.facade.CurrencyFacade;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -15,12 +26,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -43,25 +57,46 @@ import java.util.List;
 public class ExchangeRateController {
 
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateController.class);
+    static final int MAX_BATCH_ITEMS = 10_000;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String TEXT_CSV_VALUE = "text/csv";
+
     private final CurrencyFacade currencyFacade;
+    private final ObjectWriter batchItemWriter;
 
-    public ExchangeRateController(CurrencyFacade currencyFacade) {
+    public ExchangeRateController(CurrencyFacade currencyFacade, ObjectMapper objectMapper) {
         this.currencyFacade = currencyFacade;
+        // Flushing after every item would turn each result into its own network write
+        this.batchItemWriter = objectMapper.writerFor(BatchConversionResultDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
         logger.info("ExchangeRateController initialized");
     }
 
     @GetMapping
-    @Operation(summary = "Get all exchange rates for a currency", description = "Returns a list of all available EUR exchange rates for a specific currency across all dates.")
+    @Operation(summary = "Get exchange rates for a currency", description = "Returns the EUR exchange rates for a specific currency, newest first. Without from, to, limit or cursor the whole history is returned. With any of them the result is a page of at most limit rates; when more remain, the X-Next-Cursor response header carries the cursor for the next page.")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved exchange rates", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ExchangeRate.class))))
-    @ApiResponse(responseCode = "400", description = "Invalid currency code supplied", content = @Content)
+    @ApiResponse(responseCode = "400", description = "Invalid currency code, date range, limit or cursor supplied", content = @Content)
     public ResponseEntity<List<ExchangeRate>> getExchangeRates(
             @Parameter(description = "3-letter ISO currency code", required = true, example = "USD") 
-            @RequestParam String currency) {
+            @RequestParam String currency,
+            @Parameter(description = "Earliest date to include, in YYYY-MM-DD format", example = "2023-01-01") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Latest date to include, in YYYY-MM-DD format", example = "2023-12-31") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Maximum number of rates to return (1-1000, default 100)", example = "100") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Opaque cursor from the X-Next-Cursor header of the previous page") @RequestParam(required = false) String cursor) {
         logger.debug("Received request to get exchange rates for currency: {}", currency);
         try {
-            List<ExchangeRate> rates = currencyFacade.getExchangeRatesForCurrency(currency);
-            logger.debug("Returning {} exchange rates for currency: {}", rates.size(), currency);
-            return ResponseEntity.ok(rates);
+            if (from == null && to == null && limit == null && cursor == null) {
+                List<ExchangeRate> rates = currencyFacade.getExchangeRatesForCurrency(currency);
+                logger.debug("Returning {} exchange rates for currency: {}", rates.size(), currency);
+                return ResponseEntity.ok(rates);
+            }
+            ExchangeRatePageDTO page = currencyFacade.getExchangeRatesPage(currency, from, to, limit, cursor);
+            logger.debug("Returning page of {} exchange rates for currency: {}", page.getRates().size(), currency);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.hasNext()) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getRates());
         } catch (ExchangeRateException ex) {
             logger.error("Exchange rate error for currency {}: {}", currency, ex.getMessage());
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getErrorMessage(), ex);
@@ -75,17 +110,58 @@ public class ExchangeRateController {
         }
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export exchange rates for a currency as NDJSON", description = "Streams the EUR exchange rates for a currency, newest first, one JSON object per line. Selected with Accept: application/x-ndjson. Memory use does not depend on the length of the history.")
+    @ApiResponse(responseCode = "200", description = "Exchange rates streamed", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE))
+    @ApiResponse(responseCode = "400", description = "Invalid currency code or date range supplied", content = @Content)
+    public ResponseEntity<StreamingResponseBody> exportExchangeRatesNdjson(
+            @Parameter(description = "3-letter ISO currency code", required = true, example = "USD") @RequestParam String currency,
+            @Parameter(description = "Earliest date to include, in YYYY-MM-DD format", example = "2023-01-01") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Latest date to include, in YYYY-MM-DD format", example = "2023-12-31") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return export(currency, from, to, ExchangeRateExportService.Format.NDJSON, MediaType.APPLICATION_NDJSON);
+    }
+
+    @GetMapping(produces = TEXT_CSV_VALUE)
+    @Operation(summary = "Export exchange rates for a currency as CSV", description = "Streams the EUR exchange rates for a currency, newest first, as CSV with a currency,date,rate header. Selected with Accept: text/csv. Memory use does not depend on the length of the history.")
+    @ApiResponse(responseCode = "200", description = "Exchange rates streamed", content = @Content(mediaType = TEXT_CSV_VALUE))
+    @ApiResponse(responseCode = "400", description = "Invalid currency code or date range supplied", content = @Content)
+    public ResponseEntity<StreamingResponseBody> exportExchangeRatesCsv(
+            @Parameter(description = "3-letter ISO currency code", required = true, example = "USD") @RequestParam String currency,
+            @Parameter(description = "Earliest date to include, in YYYY-MM-DD format", example = "2023-01-01") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Latest date to include, in YYYY-MM-DD format", example = "2023-12-31") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return export(currency, from, to, ExchangeRateExportService.Format.CSV, MediaType.parseMediaType(TEXT_CSV_VALUE));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String currency, LocalDate from, LocalDate to,
+                                                         ExchangeRateExportService.Format format, MediaType mediaType) {
+        logger.debug("Received request to export exchange rates for currency: {} as {}", currency, format);
+        try {
+            ExchangeRateExportService.Export export = currencyFacade.exportExchangeRates(currency, from, to, format);
+            StreamingResponseBody body = export::writeTo;
+            return ResponseEntity.ok().contentType(mediaType).body(body);
+        } catch (ExchangeRateException ex) {
+            logger.error("Exchange rate error for currency {}: {}", currency, ex.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getErrorMessage(), ex);
+        } catch (IllegalArgumentException ex) {
+            logger.error("Invalid argument for currency {}: {}", currency, ex.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+    }
+
     @GetMapping("/{date}")
-    @Operation(summary = "Get exchange rate for a specific date", description = "Returns the EUR exchange rate for a specific currency on a particular date.")
+    @Operation(summary = "Get exchange rate for a specific date", description = "Returns the EUR exchange rate for a specific currency on a particular date. With asOf=true, returns the latest rate published on or before that date instead; its date field is the date it was observed on.")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved exchange rate",content = @Content(mediaType = "application/json", schema = @Schema(implementation = ExchangeRate.class)))
     @ApiResponse(responseCode = "400", description = "Invalid currency code or date format supplied", content = @Content)
     @ApiResponse(responseCode = "500", description = "Exchange rate not found for the given currency and date", content = @Content)
     public ResponseEntity<ExchangeRate> getExchangeRateForDate(
             @Parameter(description = "Date in YYYY-MM-DD format", required = true, example = "2023-10-26") @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
-            @Parameter(description = "3-letter ISO currency code", required = true, example = "USD") @RequestParam String currency) {
-        logger.debug("Received request to get exchange rate for currency: {} on date: {}", currency, date);
+            @Parameter(description = "3-letter ISO currency code", required = true, example = "USD") @RequestParam String currency,
+            @Parameter(description = "Fall back to the latest rate before the date when none was published on it", example = "true") @RequestParam(defaultValue = "false") boolean asOf) {
+        logger.debug("Received request to get exchange rate for currency: {} on date: {} (as of: {})", currency, date, asOf);
         try {
-            ExchangeRate rate = currencyFacade.getExchangeRateForDate(currency, date);
+            ExchangeRate rate = asOf
+                ? currencyFacade.getExchangeRateAsOf(currency, date)
+                : currencyFacade.getExchangeRateForDate(currency, date);
             if (rate == null) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No exchange rate found for the given currency and date");
             }
@@ -106,18 +182,78 @@ public class ExchangeRateController {
         }
     }
 
+    @GetMapping("/stats")
+    @Operation(summary = "Get exchange rate statistics for a currency", description = "Returns the number of observations, the first and last rate, the minimum, maximum, mean and sample standard deviation of a currency's EUR exchange rates between two dates, both inclusive. Without from the range starts at the first observation; without to it ends today. The response time does not depend on the length of the range.")
+    @ApiResponse(responseCode = "200", description = "Successfully computed statistics", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RateStatisticsDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid currency code or date range supplied", content = @Content)
+    @ApiResponse(responseCode = "404", description = "No exchange rates were published in the range", content = @Content)
+    public ResponseEntity<RateStatisticsDTO> getRateStatistics(
+            @Parameter(description = "3-letter ISO currency code", required = true, example = "USD") @RequestParam String currency,
+            @Parameter(description = "Earliest date to include, in YYYY-MM-DD format", example = "2023-01-01") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Latest date to include, in YYYY-MM-DD format", example = "2023-12-31") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.debug("Received request to get rate statistics for currency: {} from {} to {}", currency, from, to);
+        try {
+            RateStatisticsDTO statistics = currencyFacade.getRateStatistics(currency, from, to);
+            if (statistics == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No exchange rates found for the given currency and date range");
+            }
+            return ResponseEntity.ok(statistics);
+        } catch (ExchangeRateException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getErrorMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/snapshot/{date}")
+    @Operation(summary = "Get the exchange rates of all currencies for a date", description = "Returns every currency's EUR exchange rate published on the date in one response, keyed by currency code.")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved exchange rates", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RateSnapshotDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid or future date supplied", content = @Content)
+    @ApiResponse(responseCode = "404", description = "No exchange rates were published on the date", content = @Content)
+    public ResponseEntity<byte[]> getRateSnapshot(
+            @Parameter(description = "Date in YYYY-MM-DD format", required = true, example = "2023-10-26") @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        logger.debug("Received request to get rate snapshot for date: {}", date);
+        try {
+            return snapshot(currencyFacade.getRateSnapshot(date));
+        } catch (ExchangeRateException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getErrorMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/snapshot/latest")
+    @Operation(summary = "Get the latest exchange rates of all currencies", description = "Returns every currency's EUR exchange rate for the most recent date with published rates, keyed by currency code.")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved exchange rates", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RateSnapshotDTO.class)))
+    @ApiResponse(responseCode = "404", description = "No exchange rates are available", content = @Content)
+    public ResponseEntity<byte[]> getLatestRateSnapshot() {
+        logger.debug("Received request to get latest rate snapshot");
+        return snapshot(currencyFacade.getLatestRateSnapshot());
+    }
+
+    private static ResponseEntity<byte[]> snapshot(byte[] json) {
+        if (json == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No exchange rates found for the given date");
+        }
+        // Already serialized and cached; written out as is
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+
     @GetMapping("/convert")
-    @Operation(summary = "Convert an amount from a foreign currency to EUR", description = "Converts a given amount of a specified foreign currency into EUR based on the exchange rate of a particular date.")
+    @Operation(summary = "Convert an amount from a foreign currency to EUR", description = "Converts a given amount of a specified foreign currency into EUR based on the exchange rate of a particular date. With asOf=true, the latest rate published on or before that date is used; rateDate reports which one.")
     @ApiResponse(responseCode = "200", description = "Successfully converted currency",content = @Content(mediaType = "application/json", schema = @Schema(implementation = ConversionResultDTO.class))) 
     @ApiResponse(responseCode = "400", description = "Invalid currency code, amount, or date format supplied", content = @Content)
     @ApiResponse(responseCode = "500", description = "Exchange rate not found for the given currency and date", content = @Content)
     public ResponseEntity<ConversionResultDTO> convertCurrency(
             @Parameter(description = "3-letter ISO currency code of the source currency", required = true, example = "USD") @RequestParam String currency,
             @Parameter(description = "Amount of the source currency to convert", required = true, example = "100.50") @RequestParam BigDecimal amount,
-            @Parameter(description = "Date in YYYY-MM-DD format for the exchange rate", required = true, example = "2023-10-26") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        logger.debug("Received conversion request: {} {} to EUR on date: {}", amount, currency, date);
+            @Parameter(description = "Date in YYYY-MM-DD format for the exchange rate", required = true, example = "2023-10-26") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @Parameter(description = "Fall back to the latest rate before the date when none was published on it", example = "true") @RequestParam(defaultValue = "false") boolean asOf) {
+        logger.debug("Received conversion request: {} {} to EUR on date: {} (as of: {})", amount, currency, date, asOf);
         try {
-            ConversionResultDTO result = currencyFacade.convertToEur(currency, amount, date);
+            ConversionResultDTO result = asOf
+                ? currencyFacade.convertToEurAsOf(currency, amount, date)
+                : currencyFacade.convertToEur(currency, amount, date);
             logger.debug("Conversion result: {} {} = {} EUR", amount, currency, result.getConvertedAmount());
             return ResponseEntity.ok(result);
         } catch (ExchangeRateException e) {
@@ -137,4 +273,70 @@ public class ExchangeRateController {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error converting currency: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/convert/cross")
+    @Operation(summary = "Convert an amount between two currencies", description = "Converts an amount from one currency to another, e.g. USD to JPY, by triangulating through both currencies' EUR rates on the given date. Either side may be EUR.")
+    @ApiResponse(responseCode = "200", description = "Successfully converted currency", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CrossConversionResultDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid currency code, amount, or date format supplied", content = @Content)
+    @ApiResponse(responseCode = "500", description = "Exchange rate not found for one of the currencies on the given date", content = @Content)
+    public ResponseEntity<CrossConversionResultDTO> convertCrossCurrency(
+            @Parameter(description = "3-letter ISO currency code of the source currency", required = true, example = "USD") @RequestParam String from,
+            @Parameter(description = "3-letter ISO currency code of the target currency", required = true, example = "JPY") @RequestParam String to,
+            @Parameter(description = "Amount of the source currency to convert", required = true, example = "100.50") @RequestParam BigDecimal amount,
+            @Parameter(description = "Date in YYYY-MM-DD format for the exchange rates", required = true, example = "2023-10-26") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        logger.debug("Received conversion request: {} {} to {} on date: {}", amount, from, to, date);
+        try {
+            CrossConversionResultDTO result = currencyFacade.convert(from, to, amount, date);
+            logger.debug("Conversion result: {} {} = {} {}", amount, from, result.getConvertedAmount(), to);
+            return ResponseEntity.ok(result);
+        } catch (ExchangeRateException e) {
+            logger.error("Exchange rate error: {} (code: {})", e.getMessage(), e.getErrorCode());
+            if ("FUTURE_DATE".equals(e.getErrorCode()) || 
+                "INVALID_CURRENCY".equals(e.getErrorCode()) || 
+                "INVALID_CURRENCY_FORMAT".equals(e.getErrorCode()) ||
+                "INVALID_AMOUNT".equals(e.getErrorCode())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getErrorMessage());
+            }
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error converting currency: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Unexpected error: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error converting currency: " + e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/convert/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Convert many amounts from foreign currencies to EUR", description = "Converts up to 10,000 items in one request. Each distinct currency and date is resolved once. Results are streamed back in request order; an item that cannot be converted carries an error code and message instead of failing the batch.")
+    @ApiResponse(responseCode = "200", description = "Batch processed; check each item for errors", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = BatchConversionResultDTO.class))))
+    @ApiResponse(responseCode = "400", description = "Empty or oversized batch", content = @Content)
+    public ResponseEntity<StreamingResponseBody> convertCurrencyBatch(@RequestBody List<ConversionRequestDTO> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch must contain at least one item");
+        }
+        if (requests.size() > MAX_BATCH_ITEMS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                String.format("Batch must not contain more than %d items", MAX_BATCH_ITEMS));
+        }
+        logger.debug("Received batch conversion request with {} items", requests.size());
+
+        StreamingResponseBody body = out -> {
+            long start = System.nanoTime();
+            JsonGenerator generator = batchItemWriter.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            Iterator<BatchConversionResultDTO> results = currencyFacade.convertBatchToEur(requests).iterator();
+            while (results.hasNext()) {
+                batchItemWriter.writeValue(generator, results.next());
+            }
+            generator.writeEndArray();
+            generator.close();
+
+            long micros = Math.max(1, (System.nanoTime() - start) / 1_000);
+            logger.info("Converted {} items in {} ms ({} items/s)", requests.size(), micros / 1_000,
+                requests.size() * 1_000_000L / micros);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
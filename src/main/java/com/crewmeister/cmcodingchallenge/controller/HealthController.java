@@ -0,0 +1,37 @@
+package com.crewmeister.cmcodingchallenge.controller;
+
+import com.crewmeister.cmcodingchallenge.dto.WarmUpStatusDTO;
+import com.crewmeister.cmcodingchallenge.service.WarmUpService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/health")
+@Tag(name = "Administration", description = "Operational insight into the running service")
+public class HealthController {
+
+    private final WarmUpService warmUpService;
+
+    public HealthController(WarmUpService warmUpService) {
+        this.warmUpService = warmUpService;
+    }
+
+    @GetMapping("/readiness")
+    @Operation(summary = "Readiness probe", description = "Reports whether startup data is loaded, with per-currency warm-up progress. Use as the readiness probe so traffic is only routed to instances that can serve it.")
+    @ApiResponse(responseCode = "200", description = "Data is loaded and requests are served",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = WarmUpStatusDTO.class)))
+    @ApiResponse(responseCode = "503", description = "Warm-up still running or failed",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = WarmUpStatusDTO.class)))
+    public ResponseEntity<WarmUpStatusDTO> readiness() {
+        WarmUpStatusDTO status = warmUpService.getStatus();
+        return ResponseEntity.status(status.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(status);
+    }
+}
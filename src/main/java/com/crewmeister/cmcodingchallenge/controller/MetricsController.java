@@ -0,0 +1,30 @@
+package com.crewmeister.cmcodingchallenge.controller;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/metrics")
+@Tag(name = "Administration", description = "Operational insight into the running service")
+public class MetricsController {
+
+    private final PrometheusMeterRegistry meterRegistry;
+
+    public MetricsController(PrometheusMeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @GetMapping(produces = TextFormat.CONTENT_TYPE_004)
+    @Operation(summary = "Scrape metrics", description = "Returns every meter in the Prometheus text exposition format.")
+    @ApiResponse(responseCode = "200", description = "Successfully rendered metrics")
+    public ResponseEntity<String> scrape() {
+        return ResponseEntity.ok(meterRegistry.scrape());
+    }
+}
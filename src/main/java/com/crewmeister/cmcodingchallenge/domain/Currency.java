@@ -1,13 +1,26 @@
 package com.crewmeister.cmcodingchallenge.domain;
 
+import org.springframework.data.domain.Persistable;
+
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Transient;
 
+/**
+ * A supported currency. The code is assigned, not generated, so the entity tracks whether it has
+ * been stored; otherwise saving a new currency would first select it to decide between insert and
+ * update.
+ */
 @Entity
-public class Currency {
+public class Currency implements Persistable<String> {
     @Id
     private String code;
 
+    @Transient
+    private boolean isNew = true;
+
     public Currency() {
     }
 
@@ -22,4 +35,20 @@ public class Currency {
     public void setCode(String code) {
         this.code = code;
     }
-} 
\ No newline at end of file
+
+    @Override
+    public String getId() {
+        return code;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+} 
@@ -0,0 +1,25 @@
+package com.crewmeister.cmcodingchallenge.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point representation of exchange rates as {@code long}s with four implied decimals,
+ * matching the {@code scale = 4} of {@link ExchangeRate#getRate()} and the database column.
+ */
+public final class FixedPointRate {
+
+    public static final int SCALE = 4;
+    public static final long SCALE_FACTOR = 10_000L;
+
+    private FixedPointRate() {
+    }
+
+    public static long toScaled(BigDecimal rate) {
+        return rate.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long scaledRate) {
+        return BigDecimal.valueOf(scaledRate, SCALE);
+    }
+}
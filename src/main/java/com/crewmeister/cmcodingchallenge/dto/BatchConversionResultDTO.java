@@ -0,0 +1,80 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * Outcome of one batch conversion item: either a result or an error code and message.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class BatchConversionResultDTO {
+    private final int index;
+    private final ConversionResultDTO result;
+    private final String errorCode;
+    private final String errorMessage;
+
+    @JsonCreator
+    private BatchConversionResultDTO(@JsonProperty("index") int index,
+            @JsonProperty("result") ConversionResultDTO result,
+            @JsonProperty("errorCode") String errorCode,
+            @JsonProperty("errorMessage") String errorMessage) {
+        this.index = index;
+        this.result = result;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    public static BatchConversionResultDTO success(int index, ConversionResultDTO result) {
+        return new BatchConversionResultDTO(index, Objects.requireNonNull(result, "Result must not be null"), null, null);
+    }
+
+    public static BatchConversionResultDTO failure(int index, String errorCode, String errorMessage) {
+        return new BatchConversionResultDTO(index, null,
+                Objects.requireNonNull(errorCode, "Error code must not be null"), errorMessage);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public ConversionResultDTO getResult() {
+        return result;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BatchConversionResultDTO)) return false;
+        BatchConversionResultDTO that = (BatchConversionResultDTO) o;
+        return index == that.index &&
+               Objects.equals(result, that.result) &&
+               Objects.equals(errorCode, that.errorCode) &&
+               Objects.equals(errorMessage, that.errorMessage);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, result, errorCode, errorMessage);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchConversionResultDTO{" +
+               "index=" + index +
+               ", result=" + result +
+               ", errorCode='" + errorCode + '\'' +
+               ", errorMessage='" + errorMessage + '\'' +
+               '}';
+    }
+}
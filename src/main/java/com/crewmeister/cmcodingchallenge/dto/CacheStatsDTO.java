@@ -0,0 +1,101 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import java.util.Objects;
+
+public final class CacheStatsDTO {
+    private final String name;
+    private final long estimatedSize;
+    private final long hitCount;
+    private final long missCount;
+    private final double hitRate;
+    private final long loadCount;
+    private final double averageLoadMillis;
+    private final long evictionCount;
+    private final long evictionWeight;
+
+    public CacheStatsDTO(String name, long estimatedSize, long hitCount, long missCount, double hitRate,
+            long loadCount, double averageLoadMillis, long evictionCount, long evictionWeight) {
+        this.name = Objects.requireNonNull(name, "Name must not be null");
+        this.estimatedSize = estimatedSize;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.hitRate = hitRate;
+        this.loadCount = loadCount;
+        this.averageLoadMillis = averageLoadMillis;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    public double getAverageLoadMillis() {
+        return averageLoadMillis;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getEvictionWeight() {
+        return evictionWeight;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheStatsDTO)) return false;
+        CacheStatsDTO that = (CacheStatsDTO) o;
+        return estimatedSize == that.estimatedSize &&
+               hitCount == that.hitCount &&
+               missCount == that.missCount &&
+               Double.compare(hitRate, that.hitRate) == 0 &&
+               loadCount == that.loadCount &&
+               Double.compare(averageLoadMillis, that.averageLoadMillis) == 0 &&
+               evictionCount == that.evictionCount &&
+               evictionWeight == that.evictionWeight &&
+               Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, estimatedSize, hitCount, missCount, hitRate, loadCount,
+                averageLoadMillis, evictionCount, evictionWeight);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatsDTO{" +
+               "name='" + name + '\'' +
+               ", estimatedSize=" + estimatedSize +
+               ", hitCount=" + hitCount +
+               ", missCount=" + missCount +
+               ", hitRate=" + hitRate +
+               ", loadCount=" + loadCount +
+               ", averageLoadMillis=" + averageLoadMillis +
+               ", evictionCount=" + evictionCount +
+               ", evictionWeight=" + evictionWeight +
+               '}';
+    }
+}
@@ -0,0 +1,63 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * One item of a batch conversion request. Fields may be missing; they are validated per item so a
+ * single bad entry does not fail the whole batch.
+ */
+public final class ConversionRequestDTO {
+    private final String currency;
+    private final BigDecimal amount;
+    private final LocalDate date;
+
+    @JsonCreator
+    public ConversionRequestDTO(@JsonProperty("currency") String currency,
+            @JsonProperty("amount") BigDecimal amount,
+            @JsonProperty("date") LocalDate date) {
+        this.currency = currency;
+        this.amount = amount;
+        this.date = date;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ConversionRequestDTO)) return false;
+        ConversionRequestDTO that = (ConversionRequestDTO) o;
+        return Objects.equals(currency, that.currency) &&
+               Objects.equals(amount, that.amount) &&
+               Objects.equals(date, that.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(currency, amount, date);
+    }
+
+    @Override
+    public String toString() {
+        return "ConversionRequestDTO{" +
+               "currency='" + currency + '\'' +
+               ", amount=" + amount +
+               ", date=" + date +
+               '}';
+    }
+}
@@ -1,5 +1,8 @@
 package com.crewmeister.cmcodingchallenge.dto;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Objects;
@@ -10,14 +13,30 @@ public final class ConversionResultDTO {
     private final BigDecimal rate;
     private final BigDecimal convertedAmount;
     private final LocalDate date;
+    private final LocalDate rateDate;
 
     public ConversionResultDTO(String fromCurrency, BigDecimal amount, BigDecimal rate,
             BigDecimal convertedAmount, LocalDate date) {
+        this(fromCurrency, amount, rate, convertedAmount, date, date);
+    }
+
+    /**
+     * @param date the requested date
+     * @param rateDate the date of the observation used, earlier than {@code date} for as-of conversions
+     */
+    @JsonCreator
+    public ConversionResultDTO(@JsonProperty("fromCurrency") String fromCurrency,
+            @JsonProperty("amount") BigDecimal amount,
+            @JsonProperty("rate") BigDecimal rate,
+            @JsonProperty("convertedAmount") BigDecimal convertedAmount,
+            @JsonProperty("date") LocalDate date,
+            @JsonProperty("rateDate") LocalDate rateDate) {
         this.fromCurrency = Objects.requireNonNull(fromCurrency, "Currency must not be null");
         this.amount = Objects.requireNonNull(amount, "Amount must not be null");
         this.rate = Objects.requireNonNull(rate, "Rate must not be null");
         this.convertedAmount = Objects.requireNonNull(convertedAmount, "Converted amount must not be null");
         this.date = Objects.requireNonNull(date, "Date must not be null");
+        this.rateDate = Objects.requireNonNull(rateDate, "Rate date must not be null");
     }
 
     public String getFromCurrency() {
@@ -40,6 +59,10 @@ public final class ConversionResultDTO {
         return date;
     }
 
+    public LocalDate getRateDate() {
+        return rateDate;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -49,12 +72,13 @@ public final class ConversionResultDTO {
                Objects.equals(amount, that.amount) &&
                Objects.equals(rate, that.rate) &&
                Objects.equals(convertedAmount, that.convertedAmount) &&
-               Objects.equals(date, that.date);
+               Objects.equals(date, that.date) &&
+               Objects.equals(rateDate, that.rateDate);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(fromCurrency, amount, rate, convertedAmount, date);
+        return Objects.hash(fromCurrency, amount, rate, convertedAmount, date, rateDate);
     }
 
     @Override
@@ -65,6 +89,7 @@ public final class ConversionResultDTO {
                ", rate=" + rate +
                ", convertedAmount=" + convertedAmount +
                ", date=" + date +
+               ", rateDate=" + rateDate +
                '}';
     }
 } 
\ No newline at end of file
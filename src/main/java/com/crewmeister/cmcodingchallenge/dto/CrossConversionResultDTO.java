@@ -0,0 +1,90 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Result of converting between two currencies. {@code rate} is units of {@code toCurrency} per
+ * unit of {@code fromCurrency}, derived from both currencies' EUR rates on {@code date}.
+ */
+public final class CrossConversionResultDTO {
+    private final String fromCurrency;
+    private final String toCurrency;
+    private final BigDecimal amount;
+    private final BigDecimal rate;
+    private final BigDecimal convertedAmount;
+    private final LocalDate date;
+
+    @JsonCreator
+    public CrossConversionResultDTO(@JsonProperty("fromCurrency") String fromCurrency,
+            @JsonProperty("toCurrency") String toCurrency,
+            @JsonProperty("amount") BigDecimal amount,
+            @JsonProperty("rate") BigDecimal rate,
+            @JsonProperty("convertedAmount") BigDecimal convertedAmount,
+            @JsonProperty("date") LocalDate date) {
+        this.fromCurrency = Objects.requireNonNull(fromCurrency, "From currency must not be null");
+        this.toCurrency = Objects.requireNonNull(toCurrency, "To currency must not be null");
+        this.amount = Objects.requireNonNull(amount, "Amount must not be null");
+        this.rate = Objects.requireNonNull(rate, "Rate must not be null");
+        this.convertedAmount = Objects.requireNonNull(convertedAmount, "Converted amount must not be null");
+        this.date = Objects.requireNonNull(date, "Date must not be null");
+    }
+
+    public String getFromCurrency() {
+        return fromCurrency;
+    }
+
+    public String getToCurrency() {
+        return toCurrency;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public BigDecimal getConvertedAmount() {
+        return convertedAmount;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CrossConversionResultDTO)) return false;
+        CrossConversionResultDTO that = (CrossConversionResultDTO) o;
+        return Objects.equals(fromCurrency, that.fromCurrency) &&
+               Objects.equals(toCurrency, that.toCurrency) &&
+               Objects.equals(amount, that.amount) &&
+               Objects.equals(rate, that.rate) &&
+               Objects.equals(convertedAmount, that.convertedAmount) &&
+               Objects.equals(date, that.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fromCurrency, toCurrency, amount, rate, convertedAmount, date);
+    }
+
+    @Override
+    public String toString() {
+        return "CrossConversionResultDTO{" +
+               "fromCurrency='" + fromCurrency + '\'' +
+               ", toCurrency='" + toCurrency + '\'' +
+               ", amount=" + amount +
+               ", rate=" + rate +
+               ", convertedAmount=" + convertedAmount +
+               ", date=" + date +
+               '}';
+    }
+}
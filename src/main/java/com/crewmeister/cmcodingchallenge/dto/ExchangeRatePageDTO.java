@@ -0,0 +1,54 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One page of a currency's exchange rate history, newest first. {@code nextCursor} is null
+ * on the last page.
+ */
+public final class ExchangeRatePageDTO {
+    private final List<ExchangeRate> rates;
+    private final String nextCursor;
+
+    public ExchangeRatePageDTO(List<ExchangeRate> rates, String nextCursor) {
+        this.rates = Objects.requireNonNull(rates, "Rates must not be null");
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ExchangeRate> getRates() {
+        return rates;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExchangeRatePageDTO)) return false;
+        ExchangeRatePageDTO that = (ExchangeRatePageDTO) o;
+        return Objects.equals(rates, that.rates) &&
+               Objects.equals(nextCursor, that.nextCursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rates, nextCursor);
+    }
+
+    @Override
+    public String toString() {
+        return "ExchangeRatePageDTO{" +
+               "rates=" + rates.size() +
+               ", nextCursor='" + nextCursor + '\'' +
+               '}';
+    }
+}
@@ -0,0 +1,55 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The EUR exchange rates of every currency published on one date, keyed by currency code.
+ */
+public final class RateSnapshotDTO {
+    private final LocalDate date;
+    private final Map<String, BigDecimal> rates;
+
+    @JsonCreator
+    public RateSnapshotDTO(@JsonProperty("date") LocalDate date,
+            @JsonProperty("rates") Map<String, BigDecimal> rates) {
+        this.date = Objects.requireNonNull(date, "Date must not be null");
+        this.rates = Collections.unmodifiableMap(Objects.requireNonNull(rates, "Rates must not be null"));
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Map<String, BigDecimal> getRates() {
+        return rates;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RateSnapshotDTO)) return false;
+        RateSnapshotDTO that = (RateSnapshotDTO) o;
+        return Objects.equals(date, that.date) &&
+               Objects.equals(rates, that.rates);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, rates);
+    }
+
+    @Override
+    public String toString() {
+        return "RateSnapshotDTO{" +
+               "date=" + date +
+               ", rates=" + rates.size() +
+               '}';
+    }
+}
@@ -0,0 +1,124 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Summary statistics of a currency's EUR exchange rates over a date range. {@code from} and
+ * {@code to} are the dates of the first and last observation in the range, whose rates are
+ * {@code first} and {@code last}.
+ */
+public final class RateStatisticsDTO {
+    private final String currency;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final int count;
+    private final BigDecimal first;
+    private final BigDecimal last;
+    private final BigDecimal min;
+    private final BigDecimal max;
+    private final BigDecimal mean;
+    private final BigDecimal standardDeviation;
+
+    @JsonCreator
+    public RateStatisticsDTO(@JsonProperty("currency") String currency,
+            @JsonProperty("from") LocalDate from,
+            @JsonProperty("to") LocalDate to,
+            @JsonProperty("count") int count,
+            @JsonProperty("first") BigDecimal first,
+            @JsonProperty("last") BigDecimal last,
+            @JsonProperty("min") BigDecimal min,
+            @JsonProperty("max") BigDecimal max,
+            @JsonProperty("mean") BigDecimal mean,
+            @JsonProperty("standardDeviation") BigDecimal standardDeviation) {
+        this.currency = Objects.requireNonNull(currency, "Currency must not be null");
+        this.from = Objects.requireNonNull(from, "From date must not be null");
+        this.to = Objects.requireNonNull(to, "To date must not be null");
+        this.count = count;
+        this.first = Objects.requireNonNull(first, "First rate must not be null");
+        this.last = Objects.requireNonNull(last, "Last rate must not be null");
+        this.min = Objects.requireNonNull(min, "Minimum must not be null");
+        this.max = Objects.requireNonNull(max, "Maximum must not be null");
+        this.mean = Objects.requireNonNull(mean, "Mean must not be null");
+        this.standardDeviation = Objects.requireNonNull(standardDeviation, "Standard deviation must not be null");
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public BigDecimal getFirst() {
+        return first;
+    }
+
+    public BigDecimal getLast() {
+        return last;
+    }
+
+    public BigDecimal getMin() {
+        return min;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    public BigDecimal getMean() {
+        return mean;
+    }
+
+    public BigDecimal getStandardDeviation() {
+        return standardDeviation;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RateStatisticsDTO)) return false;
+        RateStatisticsDTO that = (RateStatisticsDTO) o;
+        return count == that.count &&
+               Objects.equals(currency, that.currency) &&
+               Objects.equals(from, that.from) &&
+               Objects.equals(to, that.to) &&
+               Objects.equals(first, that.first) &&
+               Objects.equals(last, that.last) &&
+               Objects.equals(min, that.min) &&
+               Objects.equals(max, that.max) &&
+               Objects.equals(mean, that.mean) &&
+               Objects.equals(standardDeviation, that.standardDeviation);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(currency, from, to, count, first, last, min, max, mean, standardDeviation);
+    }
+
+    @Override
+    public String toString() {
+        return "RateStatisticsDTO{" +
+               "currency='" + currency + '\'' +
+               ", from=" + from +
+               ", to=" + to +
+               ", count=" + count +
+               ", min=" + min +
+               ", max=" + max +
+               ", mean=" + mean +
+               '}';
+    }
+}
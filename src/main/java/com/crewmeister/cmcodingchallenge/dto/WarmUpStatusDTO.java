@@ -0,0 +1,95 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import com.crewmeister.cmcodingchallenge.service.WarmUpService;
+
+import java.util.Objects;
+
+public final class WarmUpStatusDTO {
+    private final WarmUpService.Phase phase;
+    private final boolean ready;
+    private final int attempts;
+    private final int currenciesCompleted;
+    private final int currenciesTotal;
+    private final long ratesWritten;
+    private final long elapsedMillis;
+    private final String lastError;
+
+    public WarmUpStatusDTO(WarmUpService.Phase phase, boolean ready, int attempts, int currenciesCompleted,
+            int currenciesTotal, long ratesWritten, long elapsedMillis, String lastError) {
+        this.phase = Objects.requireNonNull(phase, "Phase must not be null");
+        this.ready = ready;
+        this.attempts = attempts;
+        this.currenciesCompleted = currenciesCompleted;
+        this.currenciesTotal = currenciesTotal;
+        this.ratesWritten = ratesWritten;
+        this.elapsedMillis = elapsedMillis;
+        this.lastError = lastError;
+    }
+
+    public WarmUpService.Phase getPhase() {
+        return phase;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int getCurrenciesCompleted() {
+        return currenciesCompleted;
+    }
+
+    public int getCurrenciesTotal() {
+        return currenciesTotal;
+    }
+
+    public long getRatesWritten() {
+        return ratesWritten;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WarmUpStatusDTO)) return false;
+        WarmUpStatusDTO that = (WarmUpStatusDTO) o;
+        return ready == that.ready &&
+               attempts == that.attempts &&
+               currenciesCompleted == that.currenciesCompleted &&
+               currenciesTotal == that.currenciesTotal &&
+               ratesWritten == that.ratesWritten &&
+               elapsedMillis == that.elapsedMillis &&
+               phase == that.phase &&
+               Objects.equals(lastError, that.lastError);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(phase, ready, attempts, currenciesCompleted, currenciesTotal, ratesWritten,
+                elapsedMillis, lastError);
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpStatusDTO{" +
+               "phase=" + phase +
+               ", ready=" + ready +
+               ", attempts=" + attempts +
+               ", currenciesCompleted=" + currenciesCompleted +
+               ", currenciesTotal=" + currenciesTotal +
+               ", ratesWritten=" + ratesWritten +
+               ", elapsedMillis=" + elapsedMillis +
+               ", lastError='" + lastError + '\'' +
+               '}';
+    }
+}
@@ -1,11 +1,18 @@
 package com.crewmeister.cmcodingchallenge.facade;
 
 import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.dto.BatchConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.ConversionRequestDTO;
 import com.crewmeister.cmcodingchallenge.dto.ConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.CrossConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRatePageDTO;
+import com.crewmeister.cmcodingchallenge.dto.RateStatisticsDTO;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateExportService;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CurrencyFacade {
     /**
@@ -21,6 +28,28 @@ public interface CurrencyFacade {
      */
     List<ExchangeRate> getExchangeRatesForCurrency(String currency);
 
+    /**
+     * Get one page of exchange rates for a currency, newest first
+     * @param currency The currency code
+     * @param from The earliest date to include, or null
+     * @param to The latest date to include, or null
+     * @param limit The page size, or null for the default
+     * @param cursor The cursor returned with the previous page, or null
+     * @return The page and the cursor for the next one
+     */
+    ExchangeRatePageDTO getExchangeRatesPage(String currency, LocalDate from, LocalDate to, Integer limit, String cursor);
+
+    /**
+     * Prepare a streaming export of exchange rates for a currency, newest first
+     * @param currency The currency code
+     * @param from The earliest date to include, or null
+     * @param to The latest date to include, or null
+     * @param format The output format
+     * @return The validated export, written when the response body is
+     */
+    ExchangeRateExportService.Export exportExchangeRates(String currency, LocalDate from, LocalDate to,
+                                                         ExchangeRateExportService.Format format);
+
     /**
      * Get exchange rate for a specific currency and date
      * @param currency The currency code
@@ -29,6 +58,36 @@ public interface CurrencyFacade {
      */
     ExchangeRate getExchangeRateForDate(String currency, LocalDate date);
 
+    /**
+     * Get the latest exchange rate on or before a date
+     * @param currency The currency code
+     * @param date The date
+     * @return The exchange rate, carrying the date it was observed on
+     */
+    ExchangeRate getExchangeRateAsOf(String currency, LocalDate date);
+
+    /**
+     * Get summary statistics of the exchange rates for a currency over a date range
+     * @param currency The currency code
+     * @param from The earliest date to include, or null
+     * @param to The latest date to include, or null
+     * @return The statistics, or null if no rate was published in the range
+     */
+    RateStatisticsDTO getRateStatistics(String currency, LocalDate from, LocalDate to);
+
+    /**
+     * Get the exchange rates of all currencies on a date
+     * @param date The date
+     * @return The snapshot serialized as JSON, or null if no rate was published on the date
+     */
+    byte[] getRateSnapshot(LocalDate date);
+
+    /**
+     * Get the exchange rates of all currencies on the latest date with published rates
+     * @return The snapshot serialized as JSON, or null if there are no rates
+     */
+    byte[] getLatestRateSnapshot();
+
     /**
      * Convert an amount from a currency to EUR
      * @param currency The source currency
@@ -37,4 +96,30 @@ public interface CurrencyFacade {
      * @return The conversion result
      */
     ConversionResultDTO convertToEur(String currency, BigDecimal amount, LocalDate date);
+
+    /**
+     * Convert an amount from a currency to EUR using the latest rate on or before a date
+     * @param currency The source currency
+     * @param amount The amount to convert
+     * @param date The date for the conversion
+     * @return The conversion result, including the date of the rate used
+     */
+    ConversionResultDTO convertToEurAsOf(String currency, BigDecimal amount, LocalDate date);
+
+    /**
+     * Convert an amount between two currencies
+     * @param from The source currency
+     * @param to The target currency
+     * @param amount The amount to convert
+     * @param date The date for the conversion
+     * @return The conversion result
+     */
+    CrossConversionResultDTO convert(String from, String to, BigDecimal amount, LocalDate date);
+
+    /**
+     * Convert a batch of amounts to EUR
+     * @param requests The items to convert
+     * @return One result or error per item, lazily and in request order
+     */
+    Stream<BatchConversionResultDTO> convertBatchToEur(List<ConversionRequestDTO> requests);
 } 
\ No newline at end of file
@@ -1,9 +1,17 @@
 package com.crewmeister.cmcodingchallenge.facade;
 
 import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.dto.BatchConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.ConversionRequestDTO;
 import com.crewmeister.cmcodingchallenge.dto.ConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.CrossConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRatePageDTO;
+import com.crewmeister.cmcodingchallenge.dto.RateStatisticsDTO;
 import com.crewmeister.cmcodingchallenge.service.CurrencyService;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateExportService;
 import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import com.crewmeister.cmcodingchallenge.service.RateSnapshotService;
+import com.crewmeister.cmcodingchallenge.service.RateStatisticsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -11,6 +19,7 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class CurrencyFacadeImpl implements CurrencyFacade {
@@ -18,10 +27,18 @@ public class CurrencyFacadeImpl implements CurrencyFacade {
     
     private final ExchangeRateService exchangeRateService;
     private final CurrencyService currencyService;
+    private final ExchangeRateExportService exportService;
+    private final RateSnapshotService snapshotService;
+    private final RateStatisticsService statisticsService;
 
-    public CurrencyFacadeImpl(ExchangeRateService exchangeRateService, CurrencyService currencyService) {
+    public CurrencyFacadeImpl(ExchangeRateService exchangeRateService, CurrencyService currencyService,
+                              ExchangeRateExportService exportService, RateSnapshotService snapshotService,
+                              RateStatisticsService statisticsService) {
         this.exchangeRateService = exchangeRateService;
         this.currencyService = currencyService;
+        this.exportService = exportService;
+        this.snapshotService = snapshotService;
+        this.statisticsService = statisticsService;
         logger.info("CurrencyFacade initialized");
     }
 
@@ -37,15 +54,70 @@ public class CurrencyFacadeImpl implements CurrencyFacade {
         return exchangeRateService.getExchangeRatesForCurrency(currency);
     }
 
+    @Override
+    public ExchangeRatePageDTO getExchangeRatesPage(String currency, LocalDate from, LocalDate to, Integer limit, String cursor) {
+        logger.debug("Getting exchange rate page for currency: {} from {} to {}", currency, from, to);
+        return exchangeRateService.getExchangeRatesPage(currency, from, to, limit, cursor);
+    }
+
+    @Override
+    public ExchangeRateExportService.Export exportExchangeRates(String currency, LocalDate from, LocalDate to,
+                                                                ExchangeRateExportService.Format format) {
+        logger.debug("Exporting exchange rates for currency: {} from {} to {} as {}", currency, from, to, format);
+        return exportService.export(currency, from, to, format);
+    }
+
     @Override
     public ExchangeRate getExchangeRateForDate(String currency, LocalDate date) {
         logger.debug("Getting exchange rate for currency: {} on date: {}", currency, date);
         return exchangeRateService.getExchangeRateForDate(currency, date);
     }
 
+    @Override
+    public ExchangeRate getExchangeRateAsOf(String currency, LocalDate date) {
+        logger.debug("Getting exchange rate for currency: {} as of date: {}", currency, date);
+        return exchangeRateService.getExchangeRateAsOf(currency, date);
+    }
+
+    @Override
+    public RateStatisticsDTO getRateStatistics(String currency, LocalDate from, LocalDate to) {
+        logger.debug("Getting rate statistics for currency: {} from {} to {}", currency, from, to);
+        return statisticsService.getStatistics(currency, from, to);
+    }
+
+    @Override
+    public byte[] getRateSnapshot(LocalDate date) {
+        logger.debug("Getting rate snapshot for date: {}", date);
+        return snapshotService.getSnapshotJson(date);
+    }
+
+    @Override
+    public byte[] getLatestRateSnapshot() {
+        logger.debug("Getting latest rate snapshot");
+        return snapshotService.getLatestSnapshotJson();
+    }
+
     @Override
     public ConversionResultDTO convertToEur(String currency, BigDecimal amount, LocalDate date) {
         logger.debug("Converting {} {} to EUR on date: {}", amount, currency, date);
         return exchangeRateService.convertCurrency(currency, amount, date);
     }
-} 
\ No newline at end of file
+
+    @Override
+    public ConversionResultDTO convertToEurAsOf(String currency, BigDecimal amount, LocalDate date) {
+        logger.debug("Converting {} {} to EUR as of date: {}", amount, currency, date);
+        return exchangeRateService.convertCurrency(currency, amount, date, true);
+    }
+
+    @Override
+    public CrossConversionResultDTO convert(String from, String to, BigDecimal amount, LocalDate date) {
+        logger.debug("Converting {} {} to {} on date: {}", amount, from, to, date);
+        return exchangeRateService.convertCrossCurrency(from, to, amount, date);
+    }
+
+    @Override
+    public Stream<BatchConversionResultDTO> convertBatchToEur(List<ConversionRequestDTO> requests) {
+        logger.debug("Converting batch of {} items to EUR", requests.size());
+        return exchangeRateService.convertBatch(requests);
+    }
+}
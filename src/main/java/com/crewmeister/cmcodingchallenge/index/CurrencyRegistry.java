@@ -0,0 +1,112 @@
+package com.crewmeister.cmcodingchallenge.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * In-memory set of supported currency codes, so validating a code costs a few character checks
+ * and one array read instead of a regex and a database query.
+ *
+ * A three-letter code maps to a slot in a table of 26³ entries. Each registered code also gets a
+ * small id, its position in alphabetical order. Tables are immutable; {@link #replace} builds a new
+ * one and swaps it in, so readers never lock and never see a partly updated registry.
+ */
+@Component
+public class CurrencyRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(CurrencyRegistry.class);
+
+    /** Returned by {@link #idOf} for codes that are not registered. */
+    public static final int NOT_REGISTERED = -1;
+
+    private static final int LETTERS = 26;
+    static final int CAPACITY = LETTERS * LETTERS * LETTERS;
+
+    private volatile Table table = Table.EMPTY;
+
+    private static final class Table {
+        static final Table EMPTY = new Table(new short[CAPACITY], new String[0]);
+
+        final short[] ids; // id + 1 per slot, 0 for unregistered codes
+        final String[] codes; // by id
+
+        Table(short[] ids, String[] codes) {
+            this.ids = ids;
+            this.codes = codes;
+        }
+    }
+
+    /**
+     * @return the table slot of a code of exactly three uppercase ASCII letters, otherwise -1
+     */
+    static int slot(String code) {
+        if (code == null || code.length() != 3) {
+            return -1;
+        }
+        int slot = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = code.charAt(i) - 'A';
+            if (letter < 0 || letter >= LETTERS) {
+                return -1;
+            }
+            slot = slot * LETTERS + letter;
+        }
+        return slot;
+    }
+
+    /**
+     * @return true if the code is exactly three uppercase letters, whether registered or not
+     */
+    public static boolean isWellFormed(String code) {
+        return slot(code) >= 0;
+    }
+
+    /**
+     * Replaces the registered codes. Codes that are not well-formed are skipped.
+     */
+    public void replace(Collection<String> codes) {
+        String[] sorted = codes.stream()
+                .filter(CurrencyRegistry::isWellFormed)
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+        short[] ids = new short[CAPACITY];
+        for (int id = 0; id < sorted.length; id++) {
+            ids[slot(sorted[id])] = (short) (id + 1);
+        }
+        table = new Table(ids, sorted);
+        logger.info("Currency registry now holds {} currencies", sorted.length);
+    }
+
+    public boolean contains(String code) {
+        return idOf(code) != NOT_REGISTERED;
+    }
+
+    /**
+     * @return the id of a registered code, or {@link #NOT_REGISTERED}
+     */
+    public int idOf(String code) {
+        int slot = slot(code);
+        return slot < 0 ? NOT_REGISTERED : table.ids[slot] - 1;
+    }
+
+    public String codeOf(int id) {
+        return table.codes[id];
+    }
+
+    /**
+     * @return the registered codes in alphabetical order, i.e. by id
+     */
+    public List<String> codes() {
+        return Collections.unmodifiableList(Arrays.asList(table.codes));
+    }
+
+    public int size() {
+        return table.codes.length;
+    }
+}
@@ -0,0 +1,355 @@
+package com.crewmeister.cmcodingchallenge.index;
+
+import com.crewmeister.cmcodingchallenge.domain.FixedPointRate;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-optimized, in-memory copy of all exchange rates.
+ *
+ * Each currency is held as a pair of parallel primitive columns: epoch days sorted ascending and the
+ * matching fixed-point rates (see {@link FixedPointRate}). Columns are heap arrays after a rebuild or
+ * merge, or slices of a memory-mapped {@link IndexSnapshotFile} when loaded from one. Lookups are a
+ * hash lookup plus a binary search and allocate nothing. Writers never mutate published columns; they
+ * build new ones and swap the whole map, so readers always see a consistent snapshot without locking.
+ */
+@Component
+public class ExchangeRateIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateIndex.class);
+
+    /** Returned by lookups when there is no observation for the requested day. */
+    public static final long NOT_FOUND = Long.MIN_VALUE;
+
+    /** Returned by {@link #floorDay} when there is no observation on or before the requested day. */
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    private final ExchangeRateRepository repository;
+    private volatile Map<String, Series> series = Collections.emptyMap();
+    // Derived from series; null while stale after a merge, rebuilt on next use
+    private volatile RateMatrix matrix = RateMatrix.EMPTY;
+
+    public ExchangeRateIndex(ExchangeRateRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * The observations of one currency, sorted by day.
+     */
+    abstract static class Series {
+        // Built on the first statistics query, then carried forward by merges that only append days
+        private volatile SeriesStatistics statistics;
+
+        abstract int size();
+
+        abstract int dayAt(int position);
+
+        abstract long rateAt(int position);
+
+        /**
+         * @return the position of the day, or {@code -(insertion point) - 1} as {@link Arrays#binarySearch}
+         */
+        int search(int epochDay) {
+            int low = 0;
+            int high = size() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int day = dayAt(middle);
+                if (day < epochDay) {
+                    low = middle + 1;
+                } else if (day > epochDay) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        SeriesStatistics statistics() {
+            SeriesStatistics current = statistics;
+            if (current != null) {
+                return current;
+            }
+            synchronized (this) {
+                if (statistics == null) {
+                    statistics = SeriesStatistics.of(this);
+                }
+                return statistics;
+            }
+        }
+    }
+
+    static final class HeapSeries extends Series {
+        final int[] epochDays;
+        final long[] scaledRates;
+
+        HeapSeries(int[] epochDays, long[] scaledRates) {
+            this.epochDays = epochDays;
+            this.scaledRates = scaledRates;
+        }
+
+        @Override
+        int size() {
+            return epochDays.length;
+        }
+
+        @Override
+        int dayAt(int position) {
+            return epochDays[position];
+        }
+
+        @Override
+        long rateAt(int position) {
+            return scaledRates[position];
+        }
+
+        @Override
+        int search(int epochDay) {
+            return Arrays.binarySearch(epochDays, epochDay);
+        }
+    }
+
+    /**
+     * Replaces the index contents with everything currently stored in the database.
+     */
+    public synchronized void rebuild() {
+        long startTime = System.currentTimeMillis();
+        List<Object[]> rows = repository.findAllRatesOrderByCurrencyAndDate();
+        Map<String, Series> rebuilt = new HashMap<>();
+
+        int start = 0;
+        while (start < rows.size()) {
+            String currency = (String) rows.get(start)[0];
+            int end = start;
+            while (end < rows.size() && currency.equals(rows.get(end)[0])) {
+                end++;
+            }
+            int[] epochDays = new int[end - start];
+            long[] scaledRates = new long[end - start];
+            for (int i = start; i < end; i++) {
+                Object[] row = rows.get(i);
+                epochDays[i - start] = (int) ((LocalDate) row[1]).toEpochDay();
+                scaledRates[i - start] = FixedPointRate.toScaled((BigDecimal) row[2]);
+            }
+            rebuilt.put(currency, new HeapSeries(epochDays, scaledRates));
+            start = end;
+        }
+
+        series = Collections.unmodifiableMap(rebuilt);
+        matrix = buildMatrix();
+        logger.info("Exchange rate index rebuilt with {} rates for {} currencies in {} ms",
+                rows.size(), rebuilt.size(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * The current contents, for writing them to an {@link IndexSnapshotFile}.
+     */
+    Map<String, Series> contents() {
+        return series;
+    }
+
+    /**
+     * Replaces the contents with series read from a snapshot, unless the index changed since
+     * {@code expected} was taken from {@link #contents()}; pass {@code null} to replace unconditionally.
+     *
+     * @return false if the index changed in between and was left as it is
+     */
+    synchronized boolean replace(Map<String, Series> expected, Map<String, Series> replacement) {
+        if (expected != null && expected != series) {
+            return false;
+        }
+        if (expected == null) {
+            series = Collections.unmodifiableMap(replacement);
+            matrix = buildMatrix();
+            return true;
+        }
+        // Same observations, so the matrix and the statistics built so far still apply
+        replacement.forEach((currency, s) -> {
+            Series previous = expected.get(currency);
+            if (previous != null && previous.statistics != null && previous.size() == s.size()) {
+                s.statistics = previous.statistics;
+            }
+        });
+        series = Collections.unmodifiableMap(replacement);
+        return true;
+    }
+
+    /**
+     * Merges observations for one currency into the index. The input must be sorted by day;
+     * existing days are overwritten. Readers switch to the merged series atomically.
+     */
+    public synchronized void merge(String currency, int[] epochDays, long[] scaledRates, int length) {
+        if (length == 0) {
+            return;
+        }
+        Series existing = series.get(currency);
+        Series merged = existing == null
+                ? new HeapSeries(Arrays.copyOf(epochDays, length), Arrays.copyOf(scaledRates, length))
+                : mergeSorted(existing, epochDays, scaledRates, length);
+        if (existing != null && existing.statistics != null && epochDays[0] > existing.dayAt(existing.size() - 1)) {
+            // Ingestion usually only adds days after the last one, so extend the statistics in place
+            merged.statistics = existing.statistics.append(merged);
+        }
+
+        Map<String, Series> updated = new HashMap<>(series);
+        updated.put(currency, merged);
+        series = Collections.unmodifiableMap(updated);
+        matrix = null;
+        logger.debug("Merged {} rates into index for currency {} ({} total)", length, currency, merged.size());
+    }
+
+    /**
+     * Returns the cross-rate matrix for the current contents. Ingestion calls this once after its
+     * merges so the matrix is rebuilt there, not on the first request.
+     */
+    public RateMatrix rateMatrix() {
+        RateMatrix current = matrix;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (matrix == null) {
+                matrix = buildMatrix();
+            }
+            return matrix;
+        }
+    }
+
+    private RateMatrix buildMatrix() {
+        long startTime = System.currentTimeMillis();
+        RateMatrix built = RateMatrix.of(series);
+        logger.info("Rate matrix built for {} currencies over {} days in {} ms",
+                built.currencyCount(), built.dayCount(), System.currentTimeMillis() - startTime);
+        return built;
+    }
+
+    /**
+     * Merges a freshly ingested series, sorting it first if needed.
+     */
+    public void merge(RateSeries rates) {
+        merge(rates, rates.size());
+    }
+
+    /**
+     * Merges the earliest {@code length} observations of a freshly ingested series, e.g. the part
+     * that was committed before a write failed.
+     */
+    public void merge(RateSeries rates, int length) {
+        rates.sortByDay();
+        merge(rates.getCurrency(), rates.epochDays(), rates.scaledRates(), length);
+    }
+
+    private static Series mergeSorted(Series existing, int[] epochDays, long[] scaledRates, int length) {
+        int[] days = new int[existing.size() + length];
+        long[] rates = new long[existing.size() + length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < existing.size() || j < length) {
+            if (j == length || (i < existing.size() && existing.dayAt(i) < epochDays[j])) {
+                days[k] = existing.dayAt(i);
+                rates[k++] = existing.rateAt(i++);
+            } else {
+                if (i < existing.size() && existing.dayAt(i) == epochDays[j]) {
+                    i++; // newer observation for the same day wins
+                }
+                days[k] = epochDays[j];
+                rates[k++] = scaledRates[j++];
+            }
+        }
+        return new HeapSeries(Arrays.copyOf(days, k), Arrays.copyOf(rates, k));
+    }
+
+    /**
+     * @return true if the index holds a series for the currency, i.e. it is authoritative for it
+     */
+    public boolean contains(String currency) {
+        return series.containsKey(currency);
+    }
+
+    /**
+     * @return the fixed-point rate observed on the given day, or {@link #NOT_FOUND}
+     */
+    public long rateOn(String currency, LocalDate date) {
+        Series s = series.get(currency);
+        if (s == null) {
+            return NOT_FOUND;
+        }
+        int position = s.search((int) date.toEpochDay());
+        return position >= 0 ? s.rateAt(position) : NOT_FOUND;
+    }
+
+    /**
+     * Finds the latest observation on or before the given day with one binary search. Days are
+     * never removed from a series, so {@link #rateOn} is always found for the returned day.
+     *
+     * @return the epoch day of that observation, or {@link #NO_DAY}
+     */
+    public int floorDay(String currency, LocalDate date) {
+        Series s = series.get(currency);
+        if (s == null) {
+            return NO_DAY;
+        }
+        int position = s.search((int) date.toEpochDay());
+        int floor = position >= 0 ? position : -position - 2;
+        return floor >= 0 ? s.dayAt(floor) : NO_DAY;
+    }
+
+    /**
+     * Copies the observations between two days, both inclusive, newest first, stopping once the
+     * target arrays are full. Finding the range costs one binary search, so a page costs its own
+     * length rather than the length of the series.
+     *
+     * @return the number of observations copied
+     */
+    public int copyDescending(String currency, int fromDay, int toDay, int[] epochDays, long[] scaledRates) {
+        Series s = series.get(currency);
+        if (s == null || fromDay > toDay) {
+            return 0;
+        }
+        int position = s.search(toDay);
+        int last = position >= 0 ? position : -position - 2; // greatest day <= toDay
+        int copied = 0;
+        for (int i = last; i >= 0 && s.dayAt(i) >= fromDay && copied < epochDays.length; i--) {
+            epochDays[copied] = s.dayAt(i);
+            scaledRates[copied++] = s.rateAt(i);
+        }
+        return copied;
+    }
+
+    /**
+     * Summarizes the observations between two days, both inclusive. Two binary searches find the
+     * range and {@link SeriesStatistics} answers it in constant time, however many days it spans.
+     *
+     * @return the statistics, or null if there is no observation in the range
+     */
+    public RangeStatistics statistics(String currency, int fromDay, int toDay) {
+        Series s = series.get(currency);
+        if (s == null || fromDay > toDay) {
+            return null;
+        }
+        int position = s.search(fromDay);
+        int first = position >= 0 ? position : -position - 1; // least day >= fromDay
+        position = s.search(toDay);
+        int last = position >= 0 ? position : -position - 2; // greatest day <= toDay
+        if (first > last) {
+            return null;
+        }
+        return s.statistics().summarize(s, first, last);
+    }
+
+    public int size(String currency) {
+        Series s = series.get(currency);
+        return s == null ? 0 : s.size();
+    }
+}
@@ -0,0 +1,221 @@
+package com.crewmeister.cmcodingchallenge.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary file format holding every series of the {@link ExchangeRateIndex}, read through a
+ * memory mapping so lookups go straight to the page cache and the rates take no heap.
+ *
+ * Little-endian, fixed width, with every section starting on an 8-byte boundary:
+ * <pre>
+ *   header   magic "CMXR" (int), format version (short), currency count (short), row count (int),
+ *            database fingerprint (int), written at (epoch millis, long),
+ *            CRC32C of everything after the header (long)
+ *   index    per currency, sorted by code: ISO code (3 ASCII bytes and 1 padding byte),
+ *            first row (int), row count (int)
+ *   columns  currency id (short per row, the currency's position in the index),
+ *            epoch day (int per row), scaled rate (long per row, see FixedPointRate)
+ * </pre>
+ * Rows are grouped by currency and sorted by day, so a currency's days and rates are contiguous
+ * slices of their columns and are binary searched in place.
+ */
+final class IndexSnapshotFile {
+
+    static final int MAGIC = 0x52584D43; // bytes "CMXR" when written little-endian
+    static final short FORMAT_VERSION = 2;
+    static final int HEADER_SIZE = 32;
+    static final int INDEX_ENTRY_SIZE = 12;
+
+    private static final int FINGERPRINT_OFFSET = 12;
+    private static final int CHECKSUM_OFFSET = 24;
+
+    private IndexSnapshotFile() {
+    }
+
+    /**
+     * Byte offsets of the sections for a given number of currencies and rows.
+     */
+    private static final class Layout {
+        final int idsOffset;
+        final int daysOffset;
+        final int ratesOffset;
+        final long size;
+
+        Layout(int currencyCount, int rowCount) {
+            idsOffset = align(HEADER_SIZE + (long) currencyCount * INDEX_ENTRY_SIZE);
+            daysOffset = align(idsOffset + 2L * rowCount);
+            ratesOffset = align(daysOffset + 4L * rowCount);
+            size = ratesOffset + 8L * rowCount;
+        }
+
+        private static int align(long offset) {
+            long aligned = (offset + 7) & ~7L;
+            if (aligned > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Index snapshot would exceed 2 GB");
+            }
+            return (int) aligned;
+        }
+    }
+
+    /**
+     * A currency's observations, read from slices of the mapped day and rate columns.
+     */
+    static final class MappedSeries extends ExchangeRateIndex.Series {
+        private final ByteBuffer buffer;
+        private final int daysOffset;
+        private final int ratesOffset;
+        private final int size;
+
+        MappedSeries(ByteBuffer buffer, int daysOffset, int ratesOffset, int size) {
+            this.buffer = buffer;
+            this.daysOffset = daysOffset;
+            this.ratesOffset = ratesOffset;
+            this.size = size;
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        int dayAt(int position) {
+            return buffer.getInt(daysOffset + (position << 2));
+        }
+
+        @Override
+        long rateAt(int position) {
+            return buffer.getLong(ratesOffset + (position << 3));
+        }
+    }
+
+    /**
+     * Writes the series to the file, replacing its contents. Callers write to a temporary file and
+     * move it into place, so readers never map a partially written snapshot.
+     *
+     * @param fingerprint identifies the database the series were read from
+     */
+    static void write(Path file, Map<String, ExchangeRateIndex.Series> series, int fingerprint) throws IOException {
+        String[] currencies = series.keySet().toArray(new String[0]);
+        Arrays.sort(currencies);
+        if (currencies.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many currencies for an index snapshot: " + currencies.length);
+        }
+        long totalRows = 0;
+        for (ExchangeRateIndex.Series s : series.values()) {
+            totalRows += s.size();
+        }
+        if (totalRows > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many rates for an index snapshot: " + totalRows);
+        }
+        int rowCount = (int) totalRows;
+        Layout layout = new Layout(currencies.length, rowCount);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, layout.size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC);
+            buffer.putShort(4, FORMAT_VERSION);
+            buffer.putShort(6, (short) currencies.length);
+            buffer.putInt(8, rowCount);
+            buffer.putInt(FINGERPRINT_OFFSET, fingerprint);
+            buffer.putLong(16, System.currentTimeMillis());
+
+            int row = 0;
+            for (int id = 0; id < currencies.length; id++) {
+                ExchangeRateIndex.Series s = series.get(currencies[id]);
+                int entry = HEADER_SIZE + id * INDEX_ENTRY_SIZE;
+                byte[] code = currencies[id].getBytes(StandardCharsets.US_ASCII);
+                if (code.length != 3) {
+                    throw new IllegalArgumentException("Not an ISO currency code: " + currencies[id]);
+                }
+                buffer.put(entry, code[0]).put(entry + 1, code[1]).put(entry + 2, code[2]).put(entry + 3, (byte) 0);
+                buffer.putInt(entry + 4, row);
+                buffer.putInt(entry + 8, s.size());
+                for (int i = 0; i < s.size(); i++, row++) {
+                    buffer.putShort(layout.idsOffset + (row << 1), (short) id);
+                    buffer.putInt(layout.daysOffset + (row << 2), s.dayAt(i));
+                    buffer.putLong(layout.ratesOffset + (row << 3), s.rateAt(i));
+                }
+            }
+            buffer.putLong(CHECKSUM_OFFSET, checksum(buffer));
+            buffer.force();
+        }
+    }
+
+    /**
+     * Maps the file and returns its series, backed by the mapping. The checksum is verified first,
+     * which reads the file once; the mapping stays valid after the file is replaced or deleted.
+     *
+     * @param fingerprint the fingerprint of the database the snapshot must have been written from
+     * @throws IOException if the file cannot be read, is not a snapshot of this format version, was
+     *         written from another database or is corrupt
+     */
+    static Map<String, ExchangeRateIndex.Series> map(Path file, int fingerprint) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not an index snapshot: " + file + " has " + size + " bytes");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an index snapshot: " + file);
+        }
+        if (buffer.getShort(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported index snapshot version " + buffer.getShort(4) + " in " + file);
+        }
+        if (buffer.getInt(FINGERPRINT_OFFSET) != fingerprint) {
+            throw new IOException("Index snapshot " + file + " was written from a different database state");
+        }
+        int currencyCount = buffer.getShort(6);
+        int rowCount = buffer.getInt(8);
+        if (currencyCount < 0 || rowCount < 0) {
+            throw new IOException("Corrupt index snapshot header in " + file);
+        }
+        Layout layout = new Layout(currencyCount, rowCount);
+        if (layout.size != buffer.capacity()) {
+            throw new IOException("Index snapshot " + file + " is truncated or has trailing data");
+        }
+        if (buffer.getLong(CHECKSUM_OFFSET) != checksum(buffer)) {
+            throw new IOException("Index snapshot checksum mismatch in " + file);
+        }
+
+        Map<String, ExchangeRateIndex.Series> series = new HashMap<>();
+        for (int id = 0; id < currencyCount; id++) {
+            int entry = HEADER_SIZE + id * INDEX_ENTRY_SIZE;
+            String currency = new String(new byte[]{buffer.get(entry), buffer.get(entry + 1), buffer.get(entry + 2)},
+                    StandardCharsets.US_ASCII);
+            int firstRow = buffer.getInt(entry + 4);
+            int size = buffer.getInt(entry + 8);
+            if (firstRow < 0 || size < 0 || (long) firstRow + size > rowCount) {
+                throw new IOException("Corrupt index entry for " + currency + " in " + file);
+            }
+            series.put(currency, new MappedSeries(buffer,
+                    layout.daysOffset + (firstRow << 2), layout.ratesOffset + (firstRow << 3), size));
+        }
+        return series;
+    }
+
+    private static long checksum(ByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_SIZE);
+        crc.update(body);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,161 @@
+package com.crewmeister.cmcodingchallenge.index;
+
+import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the {@link ExchangeRateIndex} in a memory-mapped {@link IndexSnapshotFile}.
+ *
+ * After each ingestion the index is written to a new snapshot that replaces the previous one, and
+ * the index switches to the mapped copy, moving the rates off the heap. At startup a snapshot
+ * holding as many rates as the database is mapped instead of rebuilding the index with a full table
+ * scan. So that one left over from a different or restored database with the same number of rates
+ * is not mistaken for current, each snapshot records the highest row id it was written after, and
+ * the newest day of every currency must still match the database. Both are index probes, one into
+ * the primary key and one into idx_currency_date per currency, so the check grows with the number
+ * of currencies rather than rates. Rates overwritten in place keep their id and day and are not
+ * detected. A snapshot that is missing, stale or corrupt is ignored and the caller rebuilds from
+ * the database as before.
+ */
+@Component
+public class IndexSnapshotStore {
+    private static final Logger logger = LoggerFactory.getLogger(IndexSnapshotStore.class);
+
+    private final ExchangeRateIndex index;
+    private final ExchangeRateRepository repository;
+    private final Path file;
+    private final boolean enabled;
+
+    public IndexSnapshotStore(
+            ExchangeRateIndex index,
+            ExchangeRateRepository repository,
+            @Value("${index.snapshot.file:./java-coding-challenge/index/exchange-rates.snapshot}") String file,
+            @Value("${index.snapshot.enabled:true}") boolean enabled) {
+        this.index = index;
+        this.repository = repository;
+        this.file = Paths.get(file);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Maps the snapshot into the index if it is intact, holds exactly {@code expectedRates} rates,
+     * was written after the newest row of the database and ends on the same day for every currency.
+     *
+     * @return false if there is no usable snapshot and the index was left unchanged
+     */
+    public boolean load(long expectedRates) {
+        if (!enabled || !Files.exists(file)) {
+            return false;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            Map<String, ExchangeRateIndex.Series> series = IndexSnapshotFile.map(file, databaseFingerprint());
+            long rates = countRates(series);
+            if (rates != expectedRates) {
+                logger.info("Index snapshot {} holds {} rates but the database {}, rebuilding instead",
+                        file, rates, expectedRates);
+                return false;
+            }
+            String stale = staleCurrency(series);
+            if (stale != null) {
+                logger.info("Index snapshot {} does not end on the newest stored day of {}, rebuilding instead",
+                        file, stale);
+                return false;
+            }
+            index.replace(null, series);
+            logger.info("Index mapped from snapshot {} with {} rates for {} currencies in {} ms",
+                    file, rates, series.size(), System.currentTimeMillis() - startTime);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unusable index snapshot {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes the current index to the snapshot, then serves the index from the new mapping. A
+     * failure is logged and leaves the index on the heap; the next ingestion tries again.
+     */
+    public synchronized void save() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        Path temp = null;
+        try {
+            int fingerprint = databaseFingerprint();
+            Map<String, ExchangeRateIndex.Series> contents = index.contents();
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            IndexSnapshotFile.write(temp, contents, fingerprint);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+
+            Map<String, ExchangeRateIndex.Series> mapped = IndexSnapshotFile.map(file, fingerprint);
+            if (index.replace(contents, mapped)) {
+                logger.info("Index snapshot {} written with {} rates in {} ms",
+                        file, countRates(mapped), System.currentTimeMillis() - startTime);
+            } else {
+                logger.debug("Index changed while writing snapshot {}, keeping the in-heap copy", file);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to write index snapshot {}: {}", file, e.getMessage(), e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    logger.warn("Could not delete temporary snapshot {}: {}", temp, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * The highest row id, read from the end of the primary key. Ids only grow, so it changes with
+     * every insert after the snapshot was written.
+     */
+    private int databaseFingerprint() {
+        Long maxId = repository.findMaxId();
+        return maxId == null ? 0 : Long.hashCode(maxId);
+    }
+
+    /**
+     * @return a currency whose newest stored day differs from the last day of its series, or null
+     */
+    private String staleCurrency(Map<String, ExchangeRateIndex.Series> series) {
+        for (Map.Entry<String, ExchangeRateIndex.Series> entry : series.entrySet()) {
+            ExchangeRateIndex.Series s = entry.getValue();
+            LocalDate lastDay = s.size() == 0 ? null : LocalDate.ofEpochDay(s.dayAt(s.size() - 1));
+            LocalDate stored = repository.findFirstByCurrencyOrderByDateDesc(entry.getKey())
+                    .map(ExchangeRate::getDate)
+                    .orElse(null);
+            if (!Objects.equals(lastDay, stored)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private static long countRates(Map<String, ExchangeRateIndex.Series> series) {
+        long rates = 0;
+        for (ExchangeRateIndex.Series s : series.values()) {
+            rates += s.size();
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,82 @@
+package com.crewmeister.cmcodingchallenge.index;
+
+/**
+ * Summary of one currency's observations between two days, as returned by
+ * {@link ExchangeRateIndex#statistics}. Rates, mean and standard deviation are in the fixed-point
+ * units of {@link com.crewmeister.cmcodingchallenge.domain.FixedPointRate}; the standard deviation
+ * is the sample standard deviation, zero for a single observation.
+ */
+public final class RangeStatistics {
+    private final int count;
+    private final int firstDay;
+    private final int lastDay;
+    private final long first;
+    private final long last;
+    private final long min;
+    private final long max;
+    private final double mean;
+    private final double standardDeviation;
+
+    RangeStatistics(int count, int firstDay, int lastDay, long first, long last, long min, long max,
+                    double mean, double standardDeviation) {
+        this.count = count;
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.first = first;
+        this.last = last;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.standardDeviation = standardDeviation;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /** Epoch day of the earliest observation in the range. */
+    public int getFirstDay() {
+        return firstDay;
+    }
+
+    /** Epoch day of the latest observation in the range. */
+    public int getLastDay() {
+        return lastDay;
+    }
+
+    public long getFirst() {
+        return first;
+    }
+
+    public long getLast() {
+        return last;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getStandardDeviation() {
+        return standardDeviation;
+    }
+
+    @Override
+    public String toString() {
+        return "RangeStatistics{" +
+               "count=" + count +
+               ", firstDay=" + firstDay +
+               ", lastDay=" + lastDay +
+               ", min=" + min +
+               ", max=" + max +
+               ", mean=" + mean +
+               '}';
+    }
+}
@@ -0,0 +1,173 @@
+package com.crewmeister.cmcodingchallenge.index;
+
+import com.crewmeister.cmcodingchallenge.domain.FixedPointRate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dense, date-major matrix of every indexed currency's EUR rate and its inverse, for converting
+ * between any two currencies by triangulating through EUR.
+ *
+ * Row {@code d} holds the rates of all currencies on {@code firstDay + d}, one column per
+ * currency, so a pair lookup reads two adjacent cells of the same row. Rates are fixed-point
+ * with {@link FixedPointRate#SCALE} decimals; inverses (EUR per unit) are precomputed with
+ * {@link #INVERSE_SCALE} decimals, so a cross rate is one multiplication and never a division.
+ * The same row layout makes a whole day's snapshot one contiguous read.
+ * Days without an observation hold 0. Instances are immutable.
+ */
+public final class RateMatrix {
+
+    public static final int INVERSE_SCALE = 12;
+    /** Scale of cross rates: rate decimals plus inverse decimals. */
+    public static final int CROSS_SCALE = FixedPointRate.SCALE + INVERSE_SCALE;
+
+    private static final long INVERSE_NUMERATOR = 10_000_000_000_000_000L; // 10^(SCALE + INVERSE_SCALE)
+    private static final String BASE_CURRENCY = "EUR";
+
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    static final RateMatrix EMPTY = new RateMatrix(new String[0], 0, 0, new long[0], new long[0]);
+
+    private final long generation;
+
+    private final String[] currencies;
+    private final Map<String, Integer> columns;
+    private final int firstDay;
+    private final int dayCount;
+    private final long[] rates;
+    private final long[] inverses;
+
+    private RateMatrix(String[] currencies, int firstDay, int dayCount, long[] rates, long[] inverses) {
+        this.generation = GENERATIONS.incrementAndGet();
+        this.currencies = currencies;
+        this.columns = new HashMap<>();
+        for (int i = 0; i < currencies.length; i++) {
+            columns.put(currencies[i], i);
+        }
+        this.firstDay = firstDay;
+        this.dayCount = dayCount;
+        this.rates = rates;
+        this.inverses = inverses;
+    }
+
+    /**
+     * Lays out the given series in a matrix spanning every day from the earliest to the latest
+     * observation of any currency.
+     */
+    static RateMatrix of(Map<String, ExchangeRateIndex.Series> series) {
+        String[] currencies = series.keySet().toArray(new String[0]);
+        Arrays.sort(currencies);
+        int firstDay = Integer.MAX_VALUE;
+        int lastDay = Integer.MIN_VALUE;
+        for (ExchangeRateIndex.Series s : series.values()) {
+            if (s.size() > 0) {
+                firstDay = Math.min(firstDay, s.dayAt(0));
+                lastDay = Math.max(lastDay, s.dayAt(s.size() - 1));
+            }
+        }
+        if (firstDay > lastDay) {
+            return EMPTY;
+        }
+
+        int width = currencies.length;
+        int dayCount = lastDay - firstDay + 1;
+        long[] rates = new long[Math.multiplyExact(dayCount, width)];
+        long[] inverses = new long[rates.length];
+        for (int column = 0; column < width; column++) {
+            ExchangeRateIndex.Series s = series.get(currencies[column]);
+            for (int i = 0; i < s.size(); i++) {
+                long rate = s.rateAt(i);
+                if (rate <= 0) {
+                    continue; // not a usable rate; leave the cell empty
+                }
+                int cell = (s.dayAt(i) - firstDay) * width + column;
+                rates[cell] = rate;
+                inverses[cell] = (INVERSE_NUMERATOR + rate / 2) / rate;
+            }
+        }
+        return new RateMatrix(currencies, firstDay, dayCount, rates, inverses);
+    }
+
+    /**
+     * @return true if the matrix has a column for the currency; EUR is always present
+     */
+    public boolean contains(String currency) {
+        return BASE_CURRENCY.equals(currency) || columns.containsKey(currency);
+    }
+
+    /**
+     * Units of {@code to} per unit of {@code from} on the given day, with {@link #CROSS_SCALE}
+     * decimals.
+     *
+     * @return the cross rate, or null if either currency has no observation on that day
+     */
+    public BigDecimal crossRate(String from, String to, LocalDate date) {
+        int row = (int) date.toEpochDay() - firstDay;
+        long inverse = BASE_CURRENCY.equals(from) ? INVERSE_NUMERATOR / FixedPointRate.SCALE_FACTOR : cell(inverses, from, row);
+        long rate = BASE_CURRENCY.equals(to) ? FixedPointRate.SCALE_FACTOR : cell(rates, to, row);
+        if (inverse == 0 || rate == 0) {
+            return null;
+        }
+        // The product can exceed a long for very weak against very strong currencies
+        return BigDecimal.valueOf(rate).multiply(BigDecimal.valueOf(inverse)).movePointLeft(CROSS_SCALE);
+    }
+
+    /**
+     * Every currency's EUR rate on the given day, read from that day's row.
+     *
+     * @return rates by currency code in alphabetical order; empty if nothing was observed that day
+     */
+    public Map<String, BigDecimal> ratesOn(LocalDate date) {
+        int row = (int) date.toEpochDay() - firstDay;
+        if (row < 0 || row >= dayCount) {
+            return Collections.emptyMap();
+        }
+        Map<String, BigDecimal> snapshot = new LinkedHashMap<>();
+        int offset = row * currencies.length;
+        for (int column = 0; column < currencies.length; column++) {
+            long rate = rates[offset + column];
+            if (rate != 0) {
+                snapshot.put(currencies[column], FixedPointRate.toBigDecimal(rate));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the latest day any currency has an observation for, or null if the matrix is empty
+     */
+    public LocalDate lastDate() {
+        return dayCount == 0 ? null : LocalDate.ofEpochDay(firstDay + dayCount - 1L);
+    }
+
+    private long cell(long[] values, String currency, int row) {
+        Integer column = columns.get(currency);
+        if (column == null || row < 0 || row >= dayCount) {
+            return 0;
+        }
+        return values[row * columns.size() + column];
+    }
+
+    /**
+     * Identifies this matrix among all built in the process, so values derived from it can be
+     * checked for staleness without holding on to the matrix itself.
+     */
+    public long generation() {
+        return generation;
+    }
+
+    public int currencyCount() {
+        return columns.size();
+    }
+
+    public int dayCount() {
+        return dayCount;
+    }
+}
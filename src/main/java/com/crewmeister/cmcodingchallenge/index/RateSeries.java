@@ -0,0 +1,96 @@
+package com.crewmeister.cmcodingchallenge.index;
+
+import java.util.Arrays;
+
+/**
+ * Growable, primitive column buffer of one currency's observations, used to carry freshly
+ * ingested rates from the parser to persistence and the {@link ExchangeRateIndex} without
+ * materializing an object per row.
+ */
+public final class RateSeries {
+    private final String currency;
+    private int[] epochDays;
+    private long[] scaledRates;
+    private int size;
+    private boolean sorted = true;
+
+    public RateSeries(String currency) {
+        this(currency, 256);
+    }
+
+    public RateSeries(String currency, int initialCapacity) {
+        this.currency = currency;
+        this.epochDays = new int[Math.max(1, initialCapacity)];
+        this.scaledRates = new long[Math.max(1, initialCapacity)];
+    }
+
+    public void add(int epochDay, long scaledRate) {
+        if (size == epochDays.length) {
+            epochDays = Arrays.copyOf(epochDays, size * 2);
+            scaledRates = Arrays.copyOf(scaledRates, size * 2);
+        }
+        if (size > 0 && epochDay <= epochDays[size - 1]) {
+            sorted = false;
+        }
+        epochDays[size] = epochDay;
+        scaledRates[size++] = scaledRate;
+    }
+
+    /**
+     * Sorts the buffer by day if observations arrived out of order. Duplicate days keep the
+     * observation that was added last.
+     */
+    public void sortByDay() {
+        if (sorted) {
+            return;
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        // Stable sort, so the last of several observations for the same day ends up last
+        Arrays.sort(order, (a, b) -> Integer.compare(epochDays[a], epochDays[b]));
+        int[] days = new int[size];
+        long[] rates = new long[size];
+        int length = 0;
+        for (Integer i : order) {
+            if (length > 0 && days[length - 1] == epochDays[i]) {
+                length--;
+            }
+            days[length] = epochDays[i];
+            rates[length++] = scaledRates[i];
+        }
+        epochDays = days;
+        scaledRates = rates;
+        size = length;
+        sorted = true;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int epochDayAt(int i) {
+        return epochDays[i];
+    }
+
+    public long scaledRateAt(int i) {
+        return scaledRates[i];
+    }
+
+    int[] epochDays() {
+        return epochDays;
+    }
+
+    long[] scaledRates() {
+        return scaledRates;
+    }
+}
@@ -0,0 +1,187 @@
+package com.crewmeister.cmcodingchallenge.index;
+
+import java.util.Arrays;
+
+/**
+ * Range statistics over one currency's series. Count, mean and variance come from two prefix-sum
+ * lookups. Minimum and maximum come from a sparse table over blocks of {@link #BLOCK_SIZE}
+ * observations, which answers any run of whole blocks with two reads, plus a scan of the partial
+ * blocks at either end of the range. Keeping the table per block rather than per observation cuts
+ * its size by the block size.
+ *
+ * Sums of rates are exact longs, but sums of squares are doubles. Over decades of high-valued
+ * rates such as IDR or KRW they pass 2^53, and a difference of two prefixes then carries a rounding
+ * error of about 2^-53 times the larger prefix. That is negligible against the spread of a long
+ * range but not of a short one, where it cancels away most digits, so ranges of up to
+ * {@link #SCAN_LIMIT} observations are summarized by scanning them twice instead.
+ *
+ * Instances are immutable views of the first {@link #size()} observations. {@link #append} extends
+ * a view with observations added at the end of the series. It writes past the end of the arrays it
+ * shares with the previous view, where that view never reads, and copies an array only when it is
+ * full. Only the index writer appends, and only to the view of the current series, so no two views
+ * ever write to the same slot.
+ */
+final class SeriesStatistics {
+
+    static final int BLOCK_SHIFT = 3;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    static final int SCAN_LIMIT = 64;
+
+    private final int size;
+    // Rates are summed relative to the first one, which keeps the sums of squares small
+    private final long origin;
+    private final long[] sums; // sums[i]: sum of the first i rates
+    private final double[] squares; // squares[i]: sum of their squares
+    private final long[][] minima; // minima[k][b]: lowest rate in blocks b to b + 2^k - 1
+    private final long[][] maxima;
+
+    private SeriesStatistics(int size, long origin, long[] sums, double[] squares, long[][] minima, long[][] maxima) {
+        this.size = size;
+        this.origin = origin;
+        this.sums = sums;
+        this.squares = squares;
+        this.minima = minima;
+        this.maxima = maxima;
+    }
+
+    static SeriesStatistics of(ExchangeRateIndex.Series series) {
+        long origin = series.size() == 0 ? 0 : series.rateAt(0);
+        return new SeriesStatistics(0, origin, new long[1], new double[1], new long[0][], new long[0][])
+                .append(series);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Extends the statistics to every observation of {@code series}, whose first {@link #size()}
+     * observations must be the ones these statistics were built from.
+     */
+    SeriesStatistics append(ExchangeRateIndex.Series series) {
+        int newSize = series.size();
+        long[] newSums = ensureCapacity(sums, newSize + 1);
+        double[] newSquares = ensureCapacity(squares, newSize + 1);
+        for (int i = size; i < newSize; i++) {
+            long delta = series.rateAt(i) - origin;
+            newSums[i + 1] = newSums[i] + delta;
+            newSquares[i + 1] = newSquares[i] + (double) delta * delta;
+        }
+
+        int blocks = newSize >> BLOCK_SHIFT;
+        long[][] newMinima = levels(minima, blocks);
+        long[][] newMaxima = levels(maxima, blocks);
+        for (int block = size >> BLOCK_SHIFT; block < blocks; block++) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = block << BLOCK_SHIFT, end = i + BLOCK_SIZE; i < end; i++) {
+                long rate = series.rateAt(i);
+                min = Math.min(min, rate);
+                max = Math.max(max, rate);
+            }
+            newMinima[0][block] = min;
+            newMaxima[0][block] = max;
+            // The new block completes one run of 2^k blocks on every level
+            for (int k = 1; (1 << k) <= block + 1; k++) {
+                int start = block - (1 << k) + 1;
+                int half = start + (1 << (k - 1));
+                newMinima[k][start] = Math.min(newMinima[k - 1][start], newMinima[k - 1][half]);
+                newMaxima[k][start] = Math.max(newMaxima[k - 1][start], newMaxima[k - 1][half]);
+            }
+        }
+        return new SeriesStatistics(newSize, origin, newSums, newSquares, newMinima, newMaxima);
+    }
+
+    /**
+     * Summarizes the observations at positions {@code from} to {@code to}, both inclusive.
+     */
+    RangeStatistics summarize(ExchangeRateIndex.Series series, int from, int to) {
+        int count = to - from + 1;
+        if (count <= SCAN_LIMIT) {
+            return scan(series, from, to);
+        }
+        long sum = sums[to + 1] - sums[from];
+        double squareSum = squares[to + 1] - squares[from];
+        double mean = (double) sum / count;
+        double variance = count > 1 ? Math.max(0, (squareSum - mean * sum) / (count - 1)) : 0;
+
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        int firstBlock = from >> BLOCK_SHIFT;
+        int lastBlock = to >> BLOCK_SHIFT;
+        if (firstBlock == lastBlock) {
+            for (int i = from; i <= to; i++) {
+                min = Math.min(min, series.rateAt(i));
+                max = Math.max(max, series.rateAt(i));
+            }
+        } else {
+            for (int i = from, end = (firstBlock + 1) << BLOCK_SHIFT; i < end; i++) {
+                min = Math.min(min, series.rateAt(i));
+                max = Math.max(max, series.rateAt(i));
+            }
+            for (int i = lastBlock << BLOCK_SHIFT; i <= to; i++) {
+                min = Math.min(min, series.rateAt(i));
+                max = Math.max(max, series.rateAt(i));
+            }
+            // Blocks before the one holding 'to' are complete, so the table covers them
+            if (firstBlock + 1 < lastBlock) {
+                int low = firstBlock + 1;
+                int high = lastBlock - 1;
+                int k = 31 - Integer.numberOfLeadingZeros(high - low + 1);
+                int second = high - (1 << k) + 1;
+                min = Math.min(min, Math.min(minima[k][low], minima[k][second]));
+                max = Math.max(max, Math.max(maxima[k][low], maxima[k][second]));
+            }
+        }
+        return new RangeStatistics(count, series.dayAt(from), series.dayAt(to), series.rateAt(from), series.rateAt(to),
+                min, max, origin + mean, Math.sqrt(variance));
+    }
+
+    /**
+     * Summarizes a short range directly: the mean from an exact sum, then the variance from the
+     * deviations from it, which avoids the cancellation of the prefix sums of squares.
+     */
+    private static RangeStatistics scan(ExchangeRateIndex.Series series, int from, int to) {
+        int count = to - from + 1;
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = from; i <= to; i++) {
+            long rate = series.rateAt(i);
+            sum += rate;
+            min = Math.min(min, rate);
+            max = Math.max(max, rate);
+        }
+        double mean = (double) sum / count;
+        double squares = 0;
+        for (int i = from; i <= to; i++) {
+            double deviation = series.rateAt(i) - mean;
+            squares += deviation * deviation;
+        }
+        double variance = count > 1 ? squares / (count - 1) : 0;
+        return new RangeStatistics(count, series.dayAt(from), series.dayAt(to), series.rateAt(from), series.rateAt(to),
+                min, max, mean, Math.sqrt(variance));
+    }
+
+    /**
+     * Returns the sparse-table levels for the given number of complete blocks, reusing the arrays
+     * of {@code levels} where they are large enough.
+     */
+    private static long[][] levels(long[][] levels, int blocks) {
+        int count = blocks == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(blocks);
+        long[][] grown = Arrays.copyOf(levels, Math.max(count, levels.length));
+        for (int k = 0; k < count; k++) {
+            int needed = blocks - (1 << k) + 1;
+            grown[k] = grown[k] == null ? new long[needed] : ensureCapacity(grown[k], needed);
+        }
+        return grown;
+    }
+
+    private static long[] ensureCapacity(long[] array, int needed) {
+        return array.length >= needed ? array : Arrays.copyOf(array, Math.max(needed, array.length + (array.length >> 1)));
+    }
+
+    private static double[] ensureCapacity(double[] array, int needed) {
+        return array.length >= needed ? array : Arrays.copyOf(array, Math.max(needed, array.length + (array.length >> 1)));
+    }
+}
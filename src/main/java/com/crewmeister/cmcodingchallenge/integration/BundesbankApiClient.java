@@ -1,110 +1,197 @@
 package com.crewmeister.cmcodingchallenge.integration;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.math.BigDecimal;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class BundesbankApiClient {
     private static final Logger logger = LoggerFactory.getLogger(BundesbankApiClient.class);
-    
-    private final RestTemplate restTemplate;
+
+    // Parsers hold reusable buffers; body-reading threads each get their own
+    private static final ThreadLocal<BundesbankCsvParser> PARSER = ThreadLocal.withInitial(BundesbankCsvParser::new);
+
+    private static final String ALL_CURRENCIES_SERIES_KEY = "D..EUR.BB.AC.000";
+    /** Currency tag of meters recorded for the wildcard request. */
+    static final String ALL_CURRENCIES_TAG = "ALL";
+
+    private final BundesbankResponseCache responseCache;
     private final String baseUrl;
+    private final MeterRegistry meterRegistry;
 
-    public static class ExchangeRateData {
-        private final LocalDate date;
-        private final BigDecimal rate;
+    public BundesbankApiClient(
+            BundesbankResponseCache responseCache,
+            @Value("${bundesbank.api.base-url:https://api.statistiken.bundesbank.de/rest}") String baseUrl,
+            MeterRegistry meterRegistry) {
+        this.responseCache = responseCache;
+        this.baseUrl = baseUrl;
+        this.meterRegistry = meterRegistry;
+    }
 
-        public ExchangeRateData(LocalDate date, BigDecimal rate) {
-            this.date = date;
-            this.rate = rate;
-        }
+    /**
+     * Streams the daily series of a currency straight from the HTTP response into the handler.
+     * If the series is unchanged since the last download of the same URL the handler is not called,
+     * unless the full history is requested: the caller then holds none of it, so the stored copy of
+     * the unchanged response is replayed into the handler.
+     *
+     * @param startPeriod first day to request, or null for the full history
+     * @return the number of observations passed to the handler
+     */
+    public CompletableFuture<Integer> fetchExchangeRates(String currency, LocalDate startPeriod, RateObservationHandler handler) {
+        String seriesKey = seriesKey(currency);
+        String url = seriesUrl(seriesKey, startPeriod);
+
+        logger.info("Fetching exchange rates from Bundesbank API for currency: {} starting {}", currency,
+                startPeriod == null ? "from the beginning" : startPeriod);
+        return timed(currency, responseCache.fetch(seriesKey, url, startPeriod == null,
+                measured(currency, body -> PARSER.get().parse(body, handler))));
+    }
 
-        public LocalDate getDate() {
-            return date;
-        }
+    /**
+     * Streams the daily series of every currency from a single wildcard request into the handler,
+     * demultiplexing the per-currency columns in one pass. If nothing changed since the last
+     * download of the same URL the handler is not called, unless the full history is requested,
+     * in which case the stored copy is replayed as for {@link #fetchExchangeRates}.
+     *
+     * @param startPeriod first day to request, or null for the full history
+     * @return the number of observations passed to the handler
+     */
+    public CompletableFuture<Integer> fetchAllExchangeRates(LocalDate startPeriod, SeriesObservationHandler handler) {
+        String url = seriesUrl(ALL_CURRENCIES_SERIES_KEY, startPeriod);
+
+        logger.info("Fetching exchange rates from Bundesbank API for all currencies starting {}",
+                startPeriod == null ? "from the beginning" : startPeriod);
+        return timed(ALL_CURRENCIES_TAG, responseCache.fetch(ALL_CURRENCIES_SERIES_KEY, url, startPeriod == null,
+                measured(ALL_CURRENCIES_TAG, body -> PARSER.get().parseMultiSeries(body, handler))));
+    }
 
-        public BigDecimal getRate() {
-            return rate;
-        }
+    /**
+     * Makes the next download of the currency's series unconditional, for when its rates could not be stored.
+     */
+    public void invalidateCachedResponse(String currency) {
+        responseCache.invalidate(seriesKey(currency));
     }
 
-    public BundesbankApiClient(
-            @Value("${bundesbank.api.base-url:https://api.statistiken.bundesbank.de/rest}") String baseUrl) {
-        this.restTemplate = new RestTemplate();
-        this.baseUrl = baseUrl;
+    /**
+     * Makes the next download of all currencies unconditional, for when their rates could not be stored.
+     */
+    public void invalidateCachedBulkResponse() {
+        responseCache.invalidate(ALL_CURRENCIES_SERIES_KEY);
     }
 
-    public List<ExchangeRateData> fetchExchangeRates(String currency) {
-        String url = UriComponentsBuilder.fromHttpUrl(baseUrl)
-                .path("/data/BBEX3/D.{currency}.EUR.BB.AC.000")
-                .queryParam("format", "csv")
-                .queryParam("lang", "en")
-                .queryParam("detail", "dataonly")
-                .buildAndExpand(currency)
-                .toUriString();
+    /**
+     * Maps "not modified" to zero observations. Failing the returned future, for example through a
+     * timeout, abandons the download: a body being read is closed at once, while a request still
+     * waiting for its headers runs on until they arrive or the request timeout, as described on
+     * {@link BundesbankHttpClient}.
+     */
+    private static CompletableFuture<Integer> countOf(CompletableFuture<Optional<Integer>> response) {
+        CompletableFuture<Integer> count = response.thenApply(observations -> observations.orElse(0));
+        count.whenComplete((observations, error) -> {
+            if (error != null) {
+                response.cancel(true);
+            }
+        });
+        return count;
+    }
+
+    /**
+     * Records a {@code bundesbank.fetch} timer from queueing the request until the body has been
+     * parsed, tagged with the currency and whether the series was new, unchanged or failed.
+     */
+    private CompletableFuture<Integer> timed(String currency, CompletableFuture<Optional<Integer>> response) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        response.whenComplete((observations, error) -> sample.stop(Timer.builder("bundesbank.fetch")
+                .description("Latency of Bundesbank downloads, including parsing the streamed body")
+                .tag("currency", currency)
+                .tag("outcome", error != null ? "error" : observations.isPresent() ? "success" : "not_modified")
+                .publishPercentileHistogram()
+                .register(meterRegistry)));
+        return countOf(response);
+    }
+
+    /**
+     * Records how long reading and parsing the body took and how many (decompressed) bytes it had.
+     */
+    private ResponseBodyReader<Integer> measured(String currency, ResponseBodyReader<Integer> reader) {
+        return body -> {
+            CountingInputStream counted = new CountingInputStream(body);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                return reader.read(counted);
+            } finally {
+                sample.stop(Timer.builder("bundesbank.parse")
+                        .description("Time spent reading and parsing Bundesbank response bodies")
+                        .tag("currency", currency)
+                        .register(meterRegistry));
+                DistributionSummary.builder("bundesbank.payload.size")
+                        .description("Decompressed size of Bundesbank response bodies")
+                        .baseUnit("bytes")
+                        .tag("currency", currency)
+                        .register(meterRegistry)
+                        .record(counted.count);
+            }
+        };
+    }
 
-        logger.info("Fetching exchange rates from Bundesbank API for currency: {}", currency);
-        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-        return parseCSVResponse(response.getBody());
+    private static String seriesKey(String currency) {
+        return "D." + currency + ".EUR.BB.AC.000";
     }
 
-    private List<ExchangeRateData> parseCSVResponse(String csvContent) {
-        List<ExchangeRateData> rates = new ArrayList<>();
-        if (csvContent == null || csvContent.isEmpty()) {
-            return rates;
+    private String seriesUrl(String seriesKey, LocalDate startPeriod) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(baseUrl)
+                .path("/data/BBEX3/{seriesKey}")
+                .queryParam("format", "csv")
+                .queryParam("lang", "en")
+                .queryParam("detail", "dataonly");
+        if (startPeriod != null) {
+            builder.queryParam("startPeriod", startPeriod);
         }
+        return builder.buildAndExpand(seriesKey).toUriString();
+    }
 
-        String[] lines = csvContent.split("\n");
-        // Skip the first two lines (header and last update)
-        for (int i = 2; i < lines.length; i++) {
-            String line = lines[i].trim();
-            if (line.isEmpty()) continue;
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
 
-            String[] parts = line.split(",", -1); // -1 to keep empty trailing fields
-            if (parts.length < 2) continue;
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
 
-            // Skip comment lines (they start with empty date field)
-            if (parts[0].equals("\"\"") || parts[0].contains("Comment")) {
-                logger.debug("Skipping comment line: {}", line);
-                continue;
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
             }
+            return b;
+        }
 
-            try {
-                String dateStr = parts[0].replace("\"", "").trim();
-                String rateStr = parts[1].replace("\"", "").trim();
-
-                // Skip if rate is not available (marked as ".")
-                if (".".equals(rateStr)) {
-                    continue;
-                }
-
-                try {
-                    LocalDate date = LocalDate.parse(dateStr);
-                    BigDecimal rate = new BigDecimal(rateStr);
-                    rates.add(new ExchangeRateData(date, rate));
-                } catch (DateTimeParseException e) {
-                    logger.debug("Skipping invalid date format: {}", dateStr);
-                } catch (NumberFormatException e) {
-                    logger.debug("Skipping invalid rate format: {}", rateStr);
-                }
-            } catch (Exception e) {
-                logger.debug("Failed to parse line: {}", line);
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
             }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
         }
-        
-        logger.debug("Parsed {} exchange rates from CSV", rates.size());
-        return rates;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,343 @@
+package com.crewmeister.cmcodingchallenge.integration;
+
+import com.crewmeister.cmcodingchallenge.domain.FixedPointRate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming parser for Bundesbank SDMX CSV responses.
+ *
+ * Reads the response bytes through a reusable buffer and decodes the date and rate columns in
+ * place, so no line strings, split arrays, {@code LocalDate}s or {@code BigDecimal}s are created
+ * per row. Header, metadata and comment lines are recognised by not starting with an ISO date and
+ * are skipped, as are days without a value ({@code "."}).
+ *
+ * {@link #parse} reads a single-series response. {@link #parseMultiSeries} reads a wildcard
+ * response with one value and one flags column per series, mapping columns to currencies from the
+ * {@code BBEX3.D.XXX.EUR.BB.AC.000} keys in the header row.
+ *
+ * Instances keep mutable buffers and must not be shared between threads.
+ */
+public final class BundesbankCsvParser {
+    private static final Logger logger = LoggerFactory.getLogger(BundesbankCsvParser.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int DAYS_0000_TO_1970 = 719528;
+    private static final int MAX_INTEGER_DIGITS = 14;
+    private static final byte[] SERIES_KEY_PREFIX = "BBEX3.D.".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SERIES_KEY_SUFFIX = ".EUR.BB.AC.000".getBytes(StandardCharsets.US_ASCII);
+    private static final int SERIES_KEY_LENGTH = SERIES_KEY_PREFIX.length + 3 + SERIES_KEY_SUFFIX.length;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private byte[] line = new byte[256];
+    private String[] columnCurrencies = new String[0];
+
+    @FunctionalInterface
+    private interface LineParser {
+        int parseLine(int length);
+    }
+
+    /**
+     * Parses the stream to its end, emitting every valid observation in file order.
+     *
+     * @return the number of observations passed to the handler
+     */
+    public int parse(InputStream in, RateObservationHandler handler) throws IOException {
+        int count = readLines(in, length -> parseLine(length, handler) ? 1 : 0);
+        logger.debug("Parsed {} exchange rates from CSV", count);
+        return count;
+    }
+
+    /**
+     * Parses a multi-series response to its end, emitting every valid observation row by row.
+     * Columns whose header is not a daily EUR reference rate key, including the flags columns,
+     * are ignored.
+     *
+     * @return the number of observations passed to the handler
+     */
+    public int parseMultiSeries(InputStream in, SeriesObservationHandler handler) throws IOException {
+        columnCurrencies = new String[0];
+        int count = readLines(in, length -> parseMultiSeriesLine(length, handler));
+        logger.debug("Parsed {} exchange rates for {} series from CSV", count, seriesCount());
+        return count;
+    }
+
+    private int readLines(InputStream in, LineParser lineParser) throws IOException {
+        int count = 0;
+        int lineLength = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                byte b = buffer[i];
+                if (b == '\n') {
+                    count += lineParser.parseLine(lineLength);
+                    lineLength = 0;
+                } else {
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, line.length * 2);
+                    }
+                    line[lineLength++] = b;
+                }
+            }
+        }
+        if (lineLength > 0) {
+            count += lineParser.parseLine(lineLength);
+        }
+        return count;
+    }
+
+    private boolean parseLine(int length, RateObservationHandler handler) {
+        int pos = 0;
+        if (pos < length && line[pos] == '"') {
+            pos++;
+        }
+        if (pos + 10 > length) {
+            return false;
+        }
+        int epochDay = parseEpochDay(pos);
+        if (epochDay == Integer.MIN_VALUE) {
+            return false;
+        }
+        pos += 10;
+        if (pos < length && line[pos] == '"') {
+            pos++;
+        }
+        if (pos >= length || (line[pos] != ',' && line[pos] != ';')) {
+            return false;
+        }
+        pos++;
+        if (pos < length && line[pos] == '"') {
+            pos++;
+        }
+
+        long scaledRate = parseScaledRate(pos, length);
+        if (scaledRate < 0) {
+            if (logger.isDebugEnabled() && !isMissingValue(pos, length)) {
+                logger.debug("Skipping invalid rate format: {}", new String(line, 0, length, StandardCharsets.UTF_8));
+            }
+            return false;
+        }
+        handler.onObservation(epochDay, scaledRate);
+        return true;
+    }
+
+    private int parseMultiSeriesLine(int length, SeriesObservationHandler handler) {
+        int pos = length > 0 && line[0] == '"' ? 1 : 0;
+        int epochDay = pos + 10 <= length ? parseEpochDay(pos) : Integer.MIN_VALUE;
+        if (epochDay == Integer.MIN_VALUE) {
+            readHeader(length);
+            return 0;
+        }
+
+        int count = 0;
+        int column = 0;
+        pos = 0;
+        while (pos <= length) {
+            int end = fieldEnd(pos, length);
+            String currency = column < columnCurrencies.length ? columnCurrencies[column] : null;
+            if (currency != null) {
+                int start = pos < end && line[pos] == '"' ? pos + 1 : pos;
+                long scaledRate = parseScaledRate(start, end);
+                if (scaledRate >= 0) {
+                    handler.onObservation(currency, epochDay, scaledRate);
+                    count++;
+                }
+            }
+            column++;
+            pos = end + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Replaces the column mapping if the line carries series keys; other non-data lines leave it
+     * untouched.
+     */
+    private void readHeader(int length) {
+        String[] currencies = new String[16];
+        boolean found = false;
+        int column = 0;
+        int pos = 0;
+        while (pos <= length) {
+            int end = fieldEnd(pos, length);
+            int start = pos < end && line[pos] == '"' ? pos + 1 : pos;
+            int contentEnd = end;
+            while (contentEnd > start && (line[contentEnd - 1] == '"' || line[contentEnd - 1] == '\r')) {
+                contentEnd--;
+            }
+            if (isSeriesKey(start, contentEnd)) {
+                if (column >= currencies.length) {
+                    currencies = Arrays.copyOf(currencies, Math.max(column + 1, currencies.length * 2));
+                }
+                currencies[column] = new String(line, start + SERIES_KEY_PREFIX.length, 3, StandardCharsets.US_ASCII);
+                found = true;
+            }
+            column++;
+            pos = end + 1;
+        }
+        if (found) {
+            columnCurrencies = Arrays.copyOf(currencies, column);
+        }
+    }
+
+    private boolean isSeriesKey(int start, int end) {
+        if (end - start != SERIES_KEY_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < SERIES_KEY_PREFIX.length; i++) {
+            if (line[start + i] != SERIES_KEY_PREFIX[i]) {
+                return false;
+            }
+        }
+        int code = start + SERIES_KEY_PREFIX.length;
+        for (int i = code; i < code + 3; i++) {
+            if (line[i] < 'A' || line[i] > 'Z') {
+                return false;
+            }
+        }
+        int suffix = code + 3;
+        for (int i = 0; i < SERIES_KEY_SUFFIX.length; i++) {
+            if (line[suffix + i] != SERIES_KEY_SUFFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the separator ending the field at {@code pos}, or {@code length}.
+     */
+    private int fieldEnd(int pos, int length) {
+        boolean quoted = false;
+        while (pos < length) {
+            byte b = line[pos];
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (b == ',' || b == ';')) {
+                return pos;
+            }
+            pos++;
+        }
+        return length;
+    }
+
+    private int seriesCount() {
+        int count = 0;
+        for (String currency : columnCurrencies) {
+            if (currency != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Decodes {@code yyyy-MM-dd} starting at {@code pos}, or returns {@link Integer#MIN_VALUE}.
+     */
+    private int parseEpochDay(int pos) {
+        if (line[pos + 4] != '-' || line[pos + 7] != '-') {
+            return Integer.MIN_VALUE;
+        }
+        int year = digits(pos, 4);
+        int month = digits(pos + 5, 2);
+        int day = digits(pos + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return Integer.MIN_VALUE;
+        }
+        // Same arithmetic as LocalDate.toEpochDay()
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return (int) (total - DAYS_0000_TO_1970);
+    }
+
+    private int digits(int pos, int count) {
+        int value = 0;
+        for (int i = pos; i < pos + count; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Decodes a non-negative decimal into {@link FixedPointRate} units, rounding half up beyond the
+     * fourth decimal. Returns -1 for anything that is not a plain decimal number.
+     */
+    private long parseScaledRate(int pos, int length) {
+        long integerPart = 0;
+        int integerDigits = 0;
+        while (pos < length && isDigit(line[pos])) {
+            if (++integerDigits > MAX_INTEGER_DIGITS) {
+                return -1;
+            }
+            integerPart = integerPart * 10 + (line[pos++] - '0');
+        }
+
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        if (pos < length && line[pos] == '.') {
+            pos++;
+            while (pos < length && isDigit(line[pos])) {
+                int digit = line[pos++] - '0';
+                if (fractionDigits < FixedPointRate.SCALE) {
+                    fraction = fraction * 10 + digit;
+                } else if (fractionDigits == FixedPointRate.SCALE) {
+                    roundUp = digit >= 5;
+                }
+                fractionDigits++;
+            }
+        }
+        if (integerDigits == 0 && fractionDigits == 0) {
+            return -1;
+        }
+        if (pos < length && line[pos] != '"' && line[pos] != ',' && line[pos] != ';' && line[pos] != '\r') {
+            return -1;
+        }
+        for (int i = Math.min(fractionDigits, FixedPointRate.SCALE); i < FixedPointRate.SCALE; i++) {
+            fraction *= 10;
+        }
+        return integerPart * FixedPointRate.SCALE_FACTOR + fraction + (roundUp ? 1 : 0);
+    }
+
+    private boolean isMissingValue(int pos, int length) {
+        return pos < length && line[pos] == '.' && (pos + 1 == length || !isDigit(line[pos + 1]));
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
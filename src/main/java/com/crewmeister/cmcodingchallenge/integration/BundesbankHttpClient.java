@@ -0,0 +1,169 @@
+package com.crewmeister.cmcodingchallenge.integration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Shared non-blocking HTTP client for all Bundesbank calls.
+ *
+ * One {@link HttpClient} keeps pooled connections (multiplexed over HTTP/2 where the server
+ * supports it) and asks for gzip-compressed bodies. No thread waits for a response: requests
+ * beyond {@code bundesbank.http.max-in-flight} are queued rather than blocked on, and a response
+ * body is only read once its headers have arrived, on the {@code exchangeRateTaskExecutor}.
+ *
+ * Completing the returned future early, for example through {@link CompletableFuture#orTimeout},
+ * closes the body stream, which ends a download that is being read. Before the headers arrive
+ * nothing can be aborted: on Java 11 cancelling the future of {@link HttpClient#sendAsync} only
+ * completes that future, while the request runs on until its response or
+ * {@code bundesbank.http.request-timeout}. An abandoned request therefore keeps its in-flight slot
+ * until then, and its body is closed unread once the headers arrive, so no more than
+ * {@code bundesbank.http.max-in-flight} requests ever reach the server at once.
+ */
+@Component
+public class BundesbankHttpClient {
+    private static final Logger logger = LoggerFactory.getLogger(BundesbankHttpClient.class);
+
+    /**
+     * Reads a response whose headers have arrived; the body is already decompressed.
+     */
+    @FunctionalInterface
+    public interface ResponseHandler<T> {
+        T handle(int statusCode, HttpHeaders headers, InputStream body) throws IOException;
+    }
+
+    private final HttpClient httpClient;
+    private final Executor bodyExecutor;
+    private final Duration requestTimeout;
+    private final Semaphore inFlight;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    public BundesbankHttpClient(
+            @Qualifier("exchangeRateTaskExecutor") Executor bodyExecutor,
+            @Value("${bundesbank.http.connect-timeout:PT10S}") Duration connectTimeout,
+            @Value("${bundesbank.http.request-timeout:PT60S}") Duration requestTimeout,
+            @Value("${bundesbank.http.max-in-flight:8}") int maxInFlight) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.bodyExecutor = bodyExecutor;
+        this.requestTimeout = requestTimeout;
+        this.inFlight = new Semaphore(maxInFlight);
+        logger.info("BundesbankHttpClient initialized with at most {} requests in flight", maxInFlight);
+    }
+
+    /**
+     * Sends a GET request once fewer than the configured number of requests are in flight.
+     *
+     * @param headers extra request headers
+     * @return the handler's result; the request counts as in flight until the handler returns or,
+     *         if the result was completed before the headers arrived, until the exchange ends
+     */
+    public <T> CompletableFuture<T> get(String url, Map<String, String> headers, ResponseHandler<T> handler) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        waiting.add(() -> send(url, headers, handler, result));
+        dispatch();
+        return result;
+    }
+
+    private void dispatch() {
+        while (inFlight.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                inFlight.release();
+                // A request queued between poll and release would otherwise wait for the next completion
+                if (waiting.isEmpty()) {
+                    return;
+                }
+            } else {
+                next.run();
+            }
+        }
+    }
+
+    private <T> void send(String url, Map<String, String> headers, ResponseHandler<T> handler, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            release();
+            return;
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Accept-Encoding", "gzip")
+                .GET();
+        headers.forEach(request::header);
+
+        // Not cancelled when the result is abandoned: that would free the slot of a request still running
+        httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofInputStream())
+                .thenAcceptAsync(response -> handle(response, handler, result), bodyExecutor)
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(unwrap(error));
+                    }
+                    release();
+                });
+    }
+
+    private <T> void handle(HttpResponse<InputStream> response, ResponseHandler<T> handler, CompletableFuture<T> result) {
+        InputStream body = response.body();
+        if (result.isDone()) {
+            // Abandoned while waiting for the headers; closing the body ends the exchange
+            closeQuietly(body);
+            return;
+        }
+        try {
+            if (isGzip(response.headers())) {
+                body = new GZIPInputStream(body);
+            }
+            InputStream stream = body;
+            result.whenComplete((value, error) -> closeQuietly(stream));
+            if (!result.isDone()) {
+                result.complete(handler.handle(response.statusCode(), response.headers(), stream));
+            }
+        } catch (Throwable e) {
+            closeQuietly(body);
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void release() {
+        inFlight.release();
+        dispatch();
+    }
+
+    private static boolean isGzip(HttpHeaders headers) {
+        return headers.firstValue("Content-Encoding").map("gzip"::equalsIgnoreCase).orElse(false);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close response body: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.crewmeister.cmcodingchallenge.integration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Conditional GET support for Bundesbank downloads, backed by a directory on local disk.
+ *
+ * For every cache key the last successful response is kept as {@code <key>.csv.gz} next to a
+ * {@code <key>.properties} file holding its URL, {@code ETag} and {@code Last-Modified}. A new
+ * request for the same URL carries {@code If-None-Match}/{@code If-Modified-Since}; on
+ * {@code 304 Not Modified} the body reader is never called. The body is copied to disk while the
+ * reader consumes it, so responses are still parsed in a single streaming pass.
+ *
+ * The cache lives apart from the database, which can be reset on its own. A caller that no longer
+ * holds what the last response produced asks for a replay: a 304 is then answered by reading the
+ * stored copy, and validators are only sent while there is a copy to read.
+ *
+ * Validators are only stored once the reader has finished, but callers that fail to persist what
+ * they read must {@link #invalidate} the key, or the next run would be answered with a 304 and
+ * the data would never be retried.
+ */
+@Component
+public class BundesbankResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(BundesbankResponseCache.class);
+
+    private static final String URL = "url";
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+
+    private final BundesbankHttpClient httpClient;
+    private final Path directory;
+    private final boolean enabled;
+
+    public BundesbankResponseCache(
+            BundesbankHttpClient httpClient,
+            @Value("${bundesbank.response-cache.directory:./java-coding-challenge/http-cache}") String directory,
+            @Value("${bundesbank.response-cache.enabled:true}") boolean enabled) {
+        this.httpClient = httpClient;
+        this.directory = Paths.get(directory);
+        this.enabled = enabled;
+        logger.info("BundesbankResponseCache initialized ({})", enabled ? this.directory.toAbsolutePath() : "disabled");
+    }
+
+    /**
+     * Downloads {@code url}, sending the stored validators if the last response for {@code key}
+     * came from the same URL.
+     *
+     * @param replay true if the caller no longer holds what the last response produced, for
+     *        example because its table is empty, so an unchanged response must be read again
+     * @return the reader's result, or empty if the server answered {@code 304 Not Modified} and
+     *         no replay was asked for
+     */
+    public <T> CompletableFuture<Optional<T>> fetch(String key, String url, boolean replay, ResponseBodyReader<T> reader) {
+        Properties validators = enabled ? readValidators(key) : null;
+        Map<String, String> headers = new HashMap<>();
+        if (validators != null && url.equals(validators.getProperty(URL)) && (!replay || Files.exists(bodyPath(key)))) {
+            String etag = validators.getProperty(ETAG);
+            String lastModified = validators.getProperty(LAST_MODIFIED);
+            if (etag != null) {
+                headers.put("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                headers.put("If-Modified-Since", lastModified);
+            }
+        }
+        return httpClient.get(url, headers, (statusCode, responseHeaders, body) -> {
+            if (statusCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                logger.info("Bundesbank response for {} not modified since last download", key);
+                return replay ? Optional.of(readStored(key, reader)) : Optional.empty();
+            }
+            if (statusCode < 200 || statusCode >= 300) {
+                throw new IOException("Bundesbank API answered " + statusCode + " for " + url);
+            }
+            if (!enabled) {
+                return Optional.of(reader.read(body));
+            }
+            return Optional.of(readAndStore(key, url, responseHeaders, body, reader));
+        });
+    }
+
+    /**
+     * Opens the stored copy of the last response for {@code key}, decompressed.
+     */
+    public Optional<InputStream> openStoredResponse(String key) throws IOException {
+        Path body = bodyPath(key);
+        if (!Files.exists(body)) {
+            return Optional.empty();
+        }
+        return Optional.of(new GZIPInputStream(Files.newInputStream(body)));
+    }
+
+    private <T> T readStored(String key, ResponseBodyReader<T> reader) throws IOException {
+        Optional<InputStream> stored;
+        try {
+            stored = openStoredResponse(key);
+        } catch (IOException e) {
+            stored = Optional.empty();
+        }
+        if (stored.isEmpty()) {
+            // Deleted since the request was sent; the next download must bring the body again
+            invalidate(key);
+            throw new IOException("Stored response for " + key + " is gone, cannot replay 304 Not Modified");
+        }
+        logger.info("Replaying stored Bundesbank response for {}", key);
+        try (InputStream body = stored.get()) {
+            return reader.read(body);
+        }
+    }
+
+    /**
+     * Forgets the validators of {@code key} so the next download is unconditional.
+     */
+    public void invalidate(String key) {
+        try {
+            Files.deleteIfExists(validatorsPath(key));
+        } catch (IOException e) {
+            logger.warn("Could not invalidate cached response for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private <T> T readAndStore(String key, String url, HttpHeaders headers, InputStream body,
+                               ResponseBodyReader<T> reader) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        T result;
+        try {
+            try (OutputStream copy = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                InputStream tee = new TeeInputStream(body, copy);
+                result = reader.read(tee);
+                // Keep the stored copy complete even if the reader stopped early
+                tee.transferTo(OutputStream.nullOutputStream());
+            }
+            Files.move(temp, bodyPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        writeValidators(key, url, headers.firstValue("ETag").orElse(null),
+                headers.firstValue("Last-Modified").orElse(null));
+        return result;
+    }
+
+    private Properties readValidators(String key) {
+        Path path = validatorsPath(key);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        Properties validators = new Properties();
+        try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            validators.load(in);
+            return validators;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable cached validators for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeValidators(String key, String url, String etag, String lastModified) throws IOException {
+        if (etag == null && lastModified == null) {
+            Files.deleteIfExists(validatorsPath(key));
+            return;
+        }
+        Properties validators = new Properties();
+        validators.setProperty(URL, url);
+        if (etag != null) {
+            validators.setProperty(ETAG, etag);
+        }
+        if (lastModified != null) {
+            validators.setProperty(LAST_MODIFIED, lastModified);
+        }
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            validators.store(out, null);
+        }
+        Files.move(temp, validatorsPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path bodyPath(String key) {
+        return directory.resolve(key + ".csv.gz");
+    }
+
+    private Path validatorsPath(String key) {
+        return directory.resolve(key + ".properties");
+    }
+
+    /**
+     * Copies every byte handed to the reader into {@code copy}.
+     */
+    private static final class TeeInputStream extends FilterInputStream {
+        private final OutputStream copy;
+
+        TeeInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                copy.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                copy.write(b, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] skipped = new byte[(int) Math.min(n, 8192)];
+            int read = read(skipped, 0, skipped.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
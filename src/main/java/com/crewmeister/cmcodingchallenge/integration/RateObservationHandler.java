@@ -0,0 +1,13 @@
+package com.crewmeister.cmcodingchallenge.integration;
+
+/**
+ * Receives parsed observations of a single exchange rate series, one call per day.
+ */
+@FunctionalInterface
+public interface RateObservationHandler {
+    /**
+     * @param epochDay the observation date as {@link java.time.LocalDate#toEpochDay()}
+     * @param scaledRate the rate in {@link com.crewmeister.cmcodingchallenge.domain.FixedPointRate} units
+     */
+    void onObservation(int epochDay, long scaledRate);
+}
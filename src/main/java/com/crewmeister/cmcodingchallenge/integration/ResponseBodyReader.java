@@ -0,0 +1,15 @@
+package com.crewmeister.cmcodingchallenge.integration;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Consumes a response body as it is downloaded.
+ */
+@FunctionalInterface
+public interface ResponseBodyReader<T> {
+    /**
+     * @return the result of reading the body; must not be null
+     */
+    T read(InputStream body) throws IOException;
+}
@@ -0,0 +1,14 @@
+package com.crewmeister.cmcodingchallenge.integration;
+
+/**
+ * Receives parsed observations of a multi-series response, one call per currency and day.
+ */
+@FunctionalInterface
+public interface SeriesObservationHandler {
+    /**
+     * @param currency the currency of the series column; the same instance is passed for every row
+     * @param epochDay the observation date as {@link java.time.LocalDate#toEpochDay()}
+     * @param scaledRate the rate in {@link com.crewmeister.cmcodingchallenge.domain.FixedPointRate} units
+     */
+    void onObservation(String currency, int epochDay, long scaledRate);
+}
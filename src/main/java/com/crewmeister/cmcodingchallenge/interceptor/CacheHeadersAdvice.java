@@ -0,0 +1,54 @@
+package com.crewmeister.cmcodingchallenge.interceptor;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+
+/**
+ * Adds the validators prepared by {@link ConditionalRequestInterceptor} to successful responses.
+ * Error responses are left alone so that they are never cached as if they were data.
+ */
+@ControllerAdvice
+public class CacheHeadersAdvice implements ResponseBodyAdvice<Object> {
+
+    private final ConditionalRequestInterceptor conditionalRequestInterceptor;
+
+    public CacheHeadersAdvice(ConditionalRequestInterceptor conditionalRequestInterceptor) {
+        this.conditionalRequestInterceptor = conditionalRequestInterceptor;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest) || !(response instanceof ServletServerHttpResponse)) {
+            return body;
+        }
+        HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+        Object etag = servletRequest.getAttribute(ConditionalRequestInterceptor.ETAG_ATTRIBUTE);
+        int status = ((ServletServerHttpResponse) response).getServletResponse().getStatus();
+        if (etag != null && status == HttpStatus.OK.value()) {
+            HttpHeaders headers = response.getHeaders();
+            headers.setETag((String) etag);
+            headers.setCacheControl(conditionalRequestInterceptor.cacheControl(servletRequest));
+            headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,130 @@
+package com.crewmeister.cmcodingchallenge.interceptor;
+
+import com.crewmeister.cmcodingchallenge.service.DatasetVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * HTTP validators for read endpoints. Every GET is tagged with the {@link DatasetVersion}; a request
+ * whose {@code If-None-Match} carries the current tag is answered {@code 304 Not Modified} here,
+ * before any controller or service runs. {@link CacheHeadersAdvice} adds the tag and
+ * {@code Cache-Control} to successful responses.
+ *
+ * Rates for a date never change once published, so responses about a date that is older than
+ * {@code http-cache.settled-after} are {@code immutable} with a long {@code max-age}. Everything
+ * else must be revalidated, which costs a 304 while the data is unchanged.
+ */
+@Component
+public class ConditionalRequestInterceptor implements HandlerInterceptor {
+
+    /** Request attribute holding the entity tag, set for requests the validators apply to. */
+    static final String ETAG_ATTRIBUTE = ConditionalRequestInterceptor.class.getName() + ".etag";
+
+    private final DatasetVersion datasetVersion;
+    private final Duration settledAfter;
+    private final String immutableCacheControl;
+
+    public ConditionalRequestInterceptor(
+            DatasetVersion datasetVersion,
+            @Value("${http-cache.settled-after:P2D}") Duration settledAfter,
+            @Value("${http-cache.max-age:P365D}") Duration maxAge) {
+        this.datasetVersion = datasetVersion;
+        this.settledAfter = settledAfter;
+        this.immutableCacheControl = CacheControl.maxAge(maxAge).cachePublic().getHeaderValue() + ", immutable";
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!appliesTo(request, handler)) {
+            return true;
+        }
+        String etag = '"' + datasetVersion.current() + '"';
+        request.setAttribute(ETAG_ATTRIBUTE, etag);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl(request));
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the {@code Cache-Control} value for a successful response to the request
+     */
+    String cacheControl(HttpServletRequest request) {
+        LocalDate date = resourceDate(request);
+        if (date != null && date.isBefore(LocalDate.now().minusDays(settledAfter.toDays()))) {
+            return immutableCacheControl;
+        }
+        return CacheControl.noCache().getHeaderValue();
+    }
+
+    private static boolean appliesTo(HttpServletRequest request, Object handler) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return false;
+        }
+        if (!(handler instanceof HandlerMethod)) {
+            return false;
+        }
+        // Streamed exports bypass response body advice and carry no validators
+        Class<?> body = ResolvableType.forMethodReturnType(((HandlerMethod) handler).getMethod()).getGeneric(0).resolve();
+        return body == null || !StreamingResponseBody.class.isAssignableFrom(body);
+    }
+
+    /**
+     * The date a response is about: the {@code date} path variable or parameter, or the upper
+     * bound {@code to} of a range. Null if the response is open-ended.
+     */
+    @SuppressWarnings("unchecked")
+    private static LocalDate resourceDate(HttpServletRequest request) {
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String value = pathVariables != null ? pathVariables.get("date") : null;
+        if (value == null) {
+            value = request.getParameter("date");
+        }
+        if (value == null) {
+            value = request.getParameter("to");
+        }
+        try {
+            return value == null ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2); // weak comparison is allowed for GET
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
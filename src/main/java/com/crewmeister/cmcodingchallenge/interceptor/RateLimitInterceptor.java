@@ -2,18 +2,26 @@ package com.crewmeister.cmcodingchallenge.interceptor;
 
 import com.crewmeister.cmcodingchallenge.config.RateLimitConfig;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
 
 public class RateLimitInterceptor implements HandlerInterceptor {
 
     private final RateLimitConfig rateLimitConfig;
+    private final Counter rejections;
 
-    public RateLimitInterceptor(RateLimitConfig rateLimitConfig) {
+    public RateLimitInterceptor(RateLimitConfig rateLimitConfig, MeterRegistry meterRegistry) {
         this.rateLimitConfig = rateLimitConfig;
+        this.rejections = Counter.builder("ratelimit.rejections")
+                .description("Requests rejected with 429 Too Many Requests")
+                .register(meterRegistry);
     }
 
     @Override
@@ -23,12 +31,17 @@ public class RateLimitInterceptor implements HandlerInterceptor {
             apiKey = "anonymous"; // Default bucket for unauthorized requests
         }
 
+        // One call reports the remaining tokens too, so a distributed bucket is not queried twice
         Bucket bucket = rateLimitConfig.resolveBucket(apiKey);
-        if (bucket.tryConsume(1)) {
-            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(bucket.getAvailableTokens()));
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+        if (probe.isConsumed()) {
+            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
             return true;
         }
 
+        rejections.increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill()));
+        response.addHeader("Retry-After", String.valueOf(retryAfterSeconds));
         response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
         response.getWriter().write("Too many requests - please try again later");
         return false;
@@ -0,0 +1,34 @@
+package com.crewmeister.cmcodingchallenge.interceptor;
+
+import com.crewmeister.cmcodingchallenge.service.WarmUpService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Turns API requests away with 503 Service Unavailable until the startup warm-up has loaded the
+ * data, instead of answering them from an empty index.
+ */
+public class WarmUpInterceptor implements HandlerInterceptor {
+
+    static final String RETRY_AFTER_SECONDS = "5";
+
+    private final WarmUpService warmUpService;
+
+    public WarmUpInterceptor(WarmUpService warmUpService) {
+        this.warmUpService = warmUpService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (warmUpService.isReady()) {
+            return true;
+        }
+        response.addHeader("Retry-After", RETRY_AFTER_SECONDS);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.getWriter().write("Exchange rate data is still loading - please try again later");
+        return false;
+    }
+}
@@ -2,8 +2,14 @@ package com.crewmeister.cmcodingchallenge.repository;
 
 import com.crewmeister.cmcodingchallenge.domain.Currency;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Set;
+
 @Repository
 public interface CurrencyRepository extends JpaRepository<Currency, String> {
-} 
\ No newline at end of file
+
+    @Query("SELECT c.code FROM Currency c")
+    Set<String> findAllCodes();
+} 
@@ -0,0 +1,106 @@
+package com.crewmeister.cmcodingchallenge.repository;
+
+import com.crewmeister.cmcodingchallenge.domain.FixedPointRate;
+import com.crewmeister.cmcodingchallenge.index.RateSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Write path for ingestion. {@code ExchangeRate} uses IDENTITY ids, which makes Hibernate insert
+ * row by row, so rates are written here with JDBC batches of {@code MERGE ... KEY (currency, date)}
+ * instead. The unique {@code idx_currency_date} index does the de-duplication, and each chunk is
+ * committed in its own transaction so a failure only loses the chunk in flight. The chunks committed
+ * before it are reported through {@link PartialWriteException}.
+ */
+@Repository
+public class ExchangeRateBulkWriter {
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateBulkWriter.class);
+
+    private static final String UPSERT_SQL =
+            "MERGE INTO exchange_rates (currency, date, rate) KEY (currency, date) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    /**
+     * Thrown by {@link #write} when a chunk fails. The first {@link #getRowsWritten()} observations
+     * of the series were committed before it and stay in the database.
+     */
+    public static class PartialWriteException extends RuntimeException {
+        private final int rowsWritten;
+
+        public PartialWriteException(String currency, int rowsWritten, Throwable cause) {
+            super(String.format("Writing rates for %s failed after %d rows: %s", currency, rowsWritten,
+                    cause.getMessage()), cause);
+            this.rowsWritten = rowsWritten;
+        }
+
+        public int getRowsWritten() {
+            return rowsWritten;
+        }
+    }
+
+    public ExchangeRateBulkWriter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${ingestion.write-chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("ingestion.write-chunk-size must be positive, was " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Inserts or updates every observation of the series, in order.
+     *
+     * @return the number of rows written
+     * @throws PartialWriteException if a chunk fails, carrying the number of leading rows committed
+     */
+    public int write(RateSeries rates) {
+        long startTime = System.currentTimeMillis();
+        for (int from = 0; from < rates.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, rates.size());
+            try {
+                writeChunk(rates, from, to);
+            } catch (RuntimeException e) {
+                throw new PartialWriteException(rates.getCurrency(), from, e);
+            }
+        }
+        logger.debug("Upserted {} rates for currency {} in {} ms", rates.size(), rates.getCurrency(),
+                System.currentTimeMillis() - startTime);
+        return rates.size();
+    }
+
+    private void writeChunk(RateSeries rates, int from, int to) {
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setString(1, rates.getCurrency());
+                    ps.setDate(2, Date.valueOf(LocalDate.ofEpochDay(rates.epochDayAt(from + i))));
+                    ps.setBigDecimal(3, FixedPointRate.toBigDecimal(rates.scaledRateAt(from + i)));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return to - from;
+                }
+            }));
+    }
+}
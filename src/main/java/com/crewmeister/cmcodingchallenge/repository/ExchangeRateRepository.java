@@ -1,24 +1,59 @@
 package com.crewmeister.cmcodingchallenge.repository;
 
 import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
     List<ExchangeRate> findByCurrencyOrderByDateDesc(String currency);
     
     Optional<ExchangeRate> findByCurrencyAndDate(String currency, LocalDate date);
+
+    /** Latest observation on or before the date: one backward probe into idx_currency_date. */
+    Optional<ExchangeRate> findFirstByCurrencyAndDateLessThanEqualOrderByDateDesc(String currency, LocalDate date);
+
+    /**
+     * Range scan over idx_currency_date, newest first. Pass a {@link Pageable} sized to the page
+     * so only that many rows are read; no count query is issued for a List result.
+     */
+    List<ExchangeRate> findByCurrencyAndDateBetweenOrderByDateDesc(String currency, LocalDate from, LocalDate to, Pageable pageable);
     
-    List<ExchangeRate> findByCurrency(String currency);
-    
+    /**
+     * Streams a range newest first from a database cursor, {@code HINT_FETCH_SIZE} rows per round trip.
+     * Rows are unmanaged DTOs, so the persistence context does not grow with the export. Must be
+     * consumed and closed inside a transaction.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("SELECT new com.crewmeister.cmcodingchallenge.dto.ExchangeRateDTO(e.currency, e.date, e.rate) " +
+           "FROM ExchangeRate e WHERE e.currency = :currency AND e.date BETWEEN :from AND :to ORDER BY e.date DESC")
+    Stream<ExchangeRateDTO> streamByCurrencyAndDateBetween(@Param("currency") String currency,
+                                                          @Param("from") LocalDate from,
+                                                          @Param("to") LocalDate to);
+
     @Query("SELECT DISTINCT e.currency FROM ExchangeRate e")
     List<String> findDistinctCurrencies();
     
     Optional<ExchangeRate> findFirstByCurrencyOrderByDateDesc(String currency);
+
+    @Query("SELECT e.currency, e.date, e.rate FROM ExchangeRate e ORDER BY e.currency, e.date")
+    List<Object[]> findAllRatesOrderByCurrencyAndDate();
+
+    /** Highest row id, read from the end of the primary key; null while the table is empty. */
+    @Query("SELECT MAX(e.id) FROM ExchangeRate e")
+    Long findMaxId();
 } 
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.crewmeister.cmcodingchallenge.service;
 
 import com.crewmeister.cmcodingchallenge.domain.Currency;
 import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
+import com.crewmeister.cmcodingchallenge.index.CurrencyRegistry;
+import com.crewmeister.cmcodingchallenge.integration.BundesbankResponseCache;
 import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,14 +11,16 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.util.StreamUtils;
 
-import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -26,8 +30,9 @@ import java.util.Set;
 @Service
 public class CurrencyService {
     private static final Logger logger = LoggerFactory.getLogger(CurrencyService.class);
-    private static final String BUNDESBANK_CURRENCY_URL = 
-        "https://api.statistiken.bundesbank.de/rest/data/BBEX3/D..EUR.BB.AC.000?detail=serieskeyonly&format=csv";
+    private static final String DEFAULT_BASE_URL = "https://api.statistiken.bundesbank.de/rest";
+    private static final String CURRENCY_LIST_PATH = "/data/BBEX3/D..EUR.BB.AC.000?detail=serieskeyonly&format=csv";
+    private static final String CURRENCY_RESPONSE_CACHE_KEY = "currencies";
     
     // Pattern to match currency codes in the format BBEX3.D.XXX.EUR.BB.AC.000
     private static final Pattern CURRENCY_PATTERN = Pattern.compile("BBEX3\\.D\\.(\\w{3})\\.EUR\\.BB\\.AC\\.000");
@@ -36,19 +41,36 @@ public class CurrencyService {
     private CurrencyRepository currencyRepository;
     
     @Autowired
-    private RestTemplate restTemplate;
+    private BundesbankResponseCache responseCache;
+
+    @Autowired
+    private DatasetVersion datasetVersion;
+
+    @Autowired
+    private CurrencyRegistry currencyRegistry;
+
+    @Value("${bundesbank.api.base-url:" + DEFAULT_BASE_URL + "}")
+    private String baseUrl = DEFAULT_BASE_URL;
 
     public CurrencyService() {
     }
 
-    @PostConstruct
-    @Transactional
-    @Profile("!test") // This method will not run when the "test" profile is active
+    /**
+     * Downloads the currency list on an empty database and loads the registry. Run once by
+     * {@link WarmUpService} after startup, off the main thread.
+     *
+     * @throws IllegalStateException if there are still no currencies, e.g. because the download
+     *         failed, so the warm-up retries instead of serving an empty registry
+     */
     public void initializeCurrencies() {
         if (currencyRepository.count() == 0) {
             logger.info("Initializing currency data...");
             updateCurrencies();
         }
+        currencyRegistry.replace(currencyRepository.findAllCodes());
+        if (currencyRegistry.size() == 0) {
+            throw new IllegalStateException("No currencies available, the currency list could not be downloaded");
+        }
     }
 
     @Scheduled(cron = "0 0 0 * * *") // Run at midnight every day
@@ -57,12 +79,30 @@ public class CurrencyService {
     @CacheEvict(cacheNames = "currencies", allEntries = true)
     public void updateCurrencies() {
         try {
-            String csvResponse = restTemplate.getForObject(BUNDESBANK_CURRENCY_URL, String.class);
-            List<Currency> currencies = parseCSVResponse(csvResponse);
-            currencyRepository.saveAll(currencies);
-            logger.info("Successfully updated {} currencies", currencies.size());
+            // An emptied table must be refilled even if the list is unchanged, so replay the stored copy
+            boolean replay = currencyRepository.count() == 0;
+            Optional<List<Currency>> fetched = responseCache.fetch(CURRENCY_RESPONSE_CACHE_KEY, baseUrl + CURRENCY_LIST_PATH,
+                replay, body -> parseCSVResponse(StreamUtils.copyToString(body, StandardCharsets.UTF_8))).join();
+            if (fetched.isEmpty()) {
+                logger.info("Currencies unchanged since last update");
+                return;
+            }
+            List<Currency> currencies = fetched.get();
+            // Only insert what is missing; currencies no longer listed keep their history queryable
+            Set<String> codes = new HashSet<>(currencyRepository.findAllCodes());
+            List<Currency> added = currencies.stream()
+                .filter(currency -> !codes.contains(currency.getCode()))
+                .collect(Collectors.toList());
+            if (!added.isEmpty()) {
+                currencyRepository.saveAll(added);
+                datasetVersion.bump();
+            }
+            codes.addAll(currencies.stream().map(Currency::getCode).collect(Collectors.toList()));
+            currencyRegistry.replace(codes);
+            logger.info("Successfully synchronized {} currencies ({} new)", currencies.size(), added.size());
         } catch (Exception e) {
             logger.error("Failed to update currencies: {}", e.getMessage());
+            responseCache.invalidate(CURRENCY_RESPONSE_CACHE_KEY);
         }
     }
 
@@ -96,10 +136,11 @@ public class CurrencyService {
 
     boolean isValidCurrencyFormat(String currencyCode) {
         // Currency code must be exactly 3 uppercase letters
-        return currencyCode != null && currencyCode.matches("[A-Z]{3}");
+        return CurrencyRegistry.isWellFormed(currencyCode);
     }
 
-    @Cacheable(value = "currencies")
+    // Not cached while empty, so a list read before the first download does not stick for a day
+    @Cacheable(value = "currencies", unless = "#result.isEmpty()")
     public List<String> getAllCurrencies() {
         logger.debug("Fetching all currencies");
         List<String> currencies = currencyRepository.findAll().stream()
@@ -118,7 +159,7 @@ public class CurrencyService {
             throw new ExchangeRateException("INVALID_CURRENCY_FORMAT", 
                 "Currency code must be exactly 3 uppercase letters");
         }
-        if (!currencyRepository.existsById(currencyCode)) {
+        if (!currencyRegistry.contains(currencyCode)) {
             throw new ExchangeRateException("INVALID_CURRENCY",
                 String.format("Currency code '%s' is not supported", currencyCode));
         }
@@ -0,0 +1,29 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the data served by the API, used as the HTTP entity tag. Writers bump it after
+ * changing rates or currencies. The start time is part of the version so that tags issued
+ * before a restart, when the data may have changed, are never mistaken for current ones.
+ */
+@Component
+public class DatasetVersion {
+    private static final Logger logger = LoggerFactory.getLogger(DatasetVersion.class);
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong revision = new AtomicLong();
+
+    public String current() {
+        return epoch + "." + revision.get();
+    }
+
+    public void bump() {
+        long updated = revision.incrementAndGet();
+        logger.debug("Dataset version bumped to {}.{}", epoch, updated);
+    }
+}
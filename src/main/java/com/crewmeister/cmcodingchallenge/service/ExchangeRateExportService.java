@@ -0,0 +1,135 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDTO;
+import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a currency's history row by row straight from a database cursor, so memory stays flat
+ * however long the history is. Nothing is collected into a list and no entity is managed.
+ */
+@Service
+public class ExchangeRateExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateExportService.class);
+
+    public enum Format { NDJSON, CSV }
+
+    /**
+     * A validated export, ready to be written to a response body.
+     */
+    @FunctionalInterface
+    public interface Export {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private final ExchangeRateRepository repository;
+    private final CurrencyService currencyService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter rowWriter;
+
+    public ExchangeRateExportService(
+            ExchangeRateRepository repository,
+            CurrencyService currencyService,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.currencyService = currencyService;
+        // The cursor only lives as long as its transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.rowWriter = objectMapper.writerFor(ExchangeRateDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        logger.info("ExchangeRateExportService initialized");
+    }
+
+    /**
+     * Validates the request and returns the export. Validation happens here, before anything is
+     * written, so bad requests can still be answered with an error status.
+     *
+     * @param from earliest date to include, or null
+     * @param to latest date to include, or null
+     */
+    public Export export(String currency, LocalDate from, LocalDate to, Format format) {
+        RequestValidation.validateCurrency(currencyService, currency);
+        LocalDate lower = from == null ? ExchangeRateService.EARLIEST_DATE : from;
+        LocalDate upper = to == null ? LocalDate.now() : to;
+        if (lower.isAfter(upper)) {
+            throw new ExchangeRateException("INVALID_DATE_RANGE",
+                String.format("Start date %s is after end date %s", lower, upper));
+        }
+        return out -> {
+            long start = System.currentTimeMillis();
+            long rows;
+            try {
+                rows = transactionTemplate.execute(status -> {
+                    try (Stream<ExchangeRateDTO> rates = repository.streamByCurrencyAndDateBetween(currency, lower, upper)) {
+                        return format == Format.CSV ? writeCsv(rates.iterator(), out) : writeNdjson(rates.iterator(), out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // Typically the client went away; the cursor and transaction are already closed
+                throw e.getCause();
+            }
+            logger.info("Exported {} rates for currency {} as {} in {} ms", rows, currency, format,
+                    System.currentTimeMillis() - start);
+        };
+    }
+
+    private long writeNdjson(Iterator<ExchangeRateDTO> rates, OutputStream out) throws IOException {
+        JsonGenerator generator = rowWriter.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        long rows = 0;
+        while (rates.hasNext()) {
+            rowWriter.writeValue(generator, rates.next());
+            rows++;
+        }
+        if (rows > 0) {
+            generator.writeRaw('\n');
+        }
+        generator.close();
+        return rows;
+    }
+
+    private long writeCsv(Iterator<ExchangeRateDTO> rates, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("currency,date,rate\n");
+        long rows = 0;
+        while (rates.hasNext()) {
+            ExchangeRateDTO rate = rates.next();
+            writer.write(rate.getCurrency());
+            writer.write(',');
+            writer.write(rate.getDate().toString());
+            writer.write(',');
+            writer.write(rate.getRate().toPlainString());
+            writer.write('\n');
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+}
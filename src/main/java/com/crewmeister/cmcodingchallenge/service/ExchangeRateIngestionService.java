@@ -0,0 +1,322 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.crewmeister.cmcodingchallenge.index.RateSeries;
+import com.crewmeister.cmcodingchallenge.integration.BundesbankApiClient;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBulkWriter;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Downloads and stores new exchange rates for a set of currencies.
+ *
+ * The work is split into two stages. Downloads are started as non-blocking requests through
+ * {@link BundesbankApiClient}, which parses each response while it is read; no thread waits on
+ * the network. The calling thread is the single persist stage: it takes finished series from a
+ * hand-off queue and writes them to the database and the in-memory index. At most
+ * {@code ingestion.max-outstanding-fetches} downloads are running or waiting to be persisted at a
+ * time, so downloads never outrun the writer, and a download exceeding the per-currency timeout
+ * is given up. Its body stops being read, though a request still waiting for its headers keeps
+ * its HTTP slot until it ends (see {@link com.crewmeister.cmcodingchallenge.integration.BundesbankHttpClient}).
+ *
+ * In {@link FetchMode#BULK} mode a single wildcard request replaces the per-currency downloads;
+ * its columns are demultiplexed into one series per currency, which then go through the same
+ * persist stage.
+ */
+@Service
+public class ExchangeRateIngestionService {
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateIngestionService.class);
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    public enum FetchMode {
+        /** One request per currency, several in flight at once. */
+        PER_CURRENCY,
+        /** One wildcard request covering every currency. */
+        BULK
+    }
+
+    private final ExchangeRateRepository repository;
+    private final BundesbankApiClient bundesbankApiClient;
+    private final ExchangeRateBulkWriter bulkWriter;
+    private final ExchangeRateIndex exchangeRateIndex;
+    private final int maxOutstandingFetches;
+    private final Duration currencyTimeout;
+    private final FetchMode fetchMode;
+    private final MeterRegistry meterRegistry;
+    private final Timer runTimer;
+    private final DistributionSummary rowsPerRun;
+
+    public ExchangeRateIngestionService(
+            ExchangeRateRepository repository,
+            BundesbankApiClient bundesbankApiClient,
+            ExchangeRateBulkWriter bulkWriter,
+            ExchangeRateIndex exchangeRateIndex,
+            @Value("${ingestion.max-outstanding-fetches:8}") int maxOutstandingFetches,
+            @Value("${ingestion.currency-timeout:PT2M}") Duration currencyTimeout,
+            @Value("${ingestion.fetch-mode:PER_CURRENCY}") FetchMode fetchMode,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.bundesbankApiClient = bundesbankApiClient;
+        this.bulkWriter = bulkWriter;
+        this.exchangeRateIndex = exchangeRateIndex;
+        this.maxOutstandingFetches = maxOutstandingFetches;
+        this.currencyTimeout = currencyTimeout;
+        this.fetchMode = fetchMode;
+        this.meterRegistry = meterRegistry;
+        this.runTimer = Timer.builder("ingestion.run")
+                .description("Duration of ingestion runs, from the first download to the last write")
+                .register(meterRegistry);
+        this.rowsPerRun = DistributionSummary.builder("ingestion.rows.written")
+                .description("Rows written per ingestion run")
+                .baseUnit("rows")
+                .register(meterRegistry);
+        logger.info("ExchangeRateIngestionService initialized in {} mode", fetchMode);
+    }
+
+    /**
+     * Fetches and persists new rates for every currency, returning once all of them have been
+     * stored, have failed or have timed out.
+     *
+     * @return the number of rows written per currency
+     */
+    public Map<String, Integer> ingest(List<String> currencies) {
+        return ingest(currencies, IngestionProgress.NONE);
+    }
+
+    /**
+     * Like {@link #ingest(List)}, reporting each currency to {@code progress} as soon as it is done.
+     */
+    public Map<String, Integer> ingest(List<String> currencies, IngestionProgress progress) {
+        Timer.Sample run = Timer.start(meterRegistry);
+        Deque<String> pending = new ArrayDeque<>(currencies);
+        BlockingQueue<List<RateSeries>> fetched = new LinkedBlockingQueue<>();
+        List<CompletableFuture<Integer>> downloads = new ArrayList<>();
+        Map<String, Integer> written = new LinkedHashMap<>();
+        int outstanding = 0;
+        try {
+            if (fetchMode == FetchMode.BULK) {
+                if (!currencies.isEmpty() && startBulkFetch(currencies, fetched, downloads, progress)) {
+                    outstanding++;
+                }
+                pending.clear();
+            }
+            while (!pending.isEmpty() || outstanding > 0) {
+                while (!pending.isEmpty() && outstanding < maxOutstandingFetches) {
+                    if (startFetch(pending.poll(), fetched, downloads, progress)) {
+                        outstanding++;
+                    }
+                }
+                List<RateSeries> completed = fetched.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (completed != null) {
+                    outstanding--;
+                    for (RateSeries rates : completed) {
+                        int rows = persist(rates);
+                        written.put(rates.getCurrency(), rows);
+                        progress.currencyCompleted(rates.getCurrency(), rows);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Ingestion interrupted, cancelling {} pending fetches", outstanding);
+            downloads.forEach(download -> download.cancel(true));
+            // Series already handed over were downloaded but never stored
+            fetched.forEach(completed -> completed.forEach(rates -> invalidateCachedResponse(rates.getCurrency())));
+        }
+        run.stop(runTimer);
+        rowsPerRun.record(written.values().stream().mapToInt(Integer::intValue).sum());
+        return written;
+    }
+
+    /**
+     * @return false if the currency is up to date and nothing was requested
+     */
+    private boolean startFetch(String currency, BlockingQueue<List<RateSeries>> fetched,
+                               List<CompletableFuture<Integer>> downloads, IngestionProgress progress) {
+        try {
+            logger.debug("Processing currency: {}", currency);
+            // Only ask for days after the newest stored observation; old rows never leave the database
+            LocalDate highWatermark = highWatermark(currency);
+            LocalDate startPeriod = highWatermark == null ? null : highWatermark.plusDays(1);
+            if (startPeriod != null && startPeriod.isAfter(LocalDate.now())) {
+                logger.debug("Rates for currency {} are up to date as of {}", currency, highWatermark);
+                progress.currencyCompleted(currency, 0);
+                return false;
+            }
+
+            int watermarkDay = highWatermark == null ? Integer.MIN_VALUE : (int) highWatermark.toEpochDay();
+            RateSeries newRates = new RateSeries(currency);
+            CompletableFuture<Integer> download = bundesbankApiClient
+                .fetchExchangeRates(currency, startPeriod, (epochDay, scaledRate) -> {
+                    if (epochDay > watermarkDay) {
+                        newRates.add(epochDay, scaledRate);
+                    }
+                })
+                .orTimeout(currencyTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            downloads.add(download);
+            download.whenComplete((count, error) -> {
+                if (error != null) {
+                    logFetchFailure(currency, error);
+                    bundesbankApiClient.invalidateCachedResponse(currency);
+                    progress.currencyCompleted(currency, 0);
+                    fetched.add(Collections.emptyList());
+                } else {
+                    logger.debug("Fetched {} rates for currency: {}", count, currency);
+                    if (newRates.isEmpty()) {
+                        progress.currencyCompleted(currency, 0);
+                    }
+                    fetched.add(newRates.isEmpty() ? Collections.emptyList() : Collections.singletonList(newRates));
+                }
+            });
+            return true;
+        } catch (Exception e) {
+            logger.error("Error processing rates for {}: {}", currency, e.getMessage(), e);
+            progress.currencyCompleted(currency, 0);
+            return false;
+        }
+    }
+
+    /**
+     * @return false if every currency is up to date and nothing was requested
+     */
+    private boolean startBulkFetch(List<String> currencies, BlockingQueue<List<RateSeries>> fetched,
+                                   List<CompletableFuture<Integer>> downloads, IngestionProgress progress) {
+        try {
+            // The wildcard request starts at the oldest high-watermark; newer currencies drop the overlap
+            Map<String, Integer> watermarkDays = new HashMap<>();
+            Map<String, RateSeries> newRates = new LinkedHashMap<>();
+            LocalDate startPeriod = LocalDate.MAX;
+            for (String currency : currencies) {
+                LocalDate highWatermark = highWatermark(currency);
+                if (highWatermark == null) {
+                    watermarkDays.put(currency, Integer.MIN_VALUE);
+                    startPeriod = null;
+                } else {
+                    watermarkDays.put(currency, (int) highWatermark.toEpochDay());
+                    if (startPeriod != null && highWatermark.plusDays(1).isBefore(startPeriod)) {
+                        startPeriod = highWatermark.plusDays(1);
+                    }
+                }
+                newRates.put(currency, new RateSeries(currency));
+            }
+            if (startPeriod != null && startPeriod.isAfter(LocalDate.now())) {
+                logger.debug("Rates for all {} currencies are up to date", currencies.size());
+                currencies.forEach(currency -> progress.currencyCompleted(currency, 0));
+                return false;
+            }
+
+            CompletableFuture<Integer> download = bundesbankApiClient
+                .fetchAllExchangeRates(startPeriod, (currency, epochDay, scaledRate) -> {
+                    RateSeries series = newRates.get(currency);
+                    if (series != null && epochDay > watermarkDays.get(currency)) {
+                        series.add(epochDay, scaledRate);
+                    }
+                })
+                .orTimeout(currencyTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            downloads.add(download);
+            download.whenComplete((count, error) -> {
+                if (error != null) {
+                    logFetchFailure("all currencies", error);
+                    bundesbankApiClient.invalidateCachedBulkResponse();
+                    currencies.forEach(currency -> progress.currencyCompleted(currency, 0));
+                    fetched.add(Collections.emptyList());
+                } else {
+                    logger.debug("Fetched {} rates for {} currencies in one request", count, currencies.size());
+                    List<RateSeries> nonEmpty = new ArrayList<>();
+                    for (RateSeries series : newRates.values()) {
+                        if (series.isEmpty()) {
+                            progress.currencyCompleted(series.getCurrency(), 0);
+                        } else {
+                            nonEmpty.add(series);
+                        }
+                    }
+                    fetched.add(nonEmpty);
+                }
+            });
+            return true;
+        } catch (Exception e) {
+            logger.error("Error processing rates for all currencies: {}", e.getMessage(), e);
+            currencies.forEach(currency -> progress.currencyCompleted(currency, 0));
+            return false;
+        }
+    }
+
+    private void logFetchFailure(String what, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            logger.error("Fetching rates for {} exceeded {} and was cancelled", what, currencyTimeout);
+        } else {
+            logger.error("Error processing rates for {}: {}", what, cause.getMessage(), cause);
+        }
+    }
+
+    private LocalDate highWatermark(String currency) {
+        return repository.findFirstByCurrencyOrderByDateDesc(currency)
+            .map(ExchangeRate::getDate)
+            .orElse(null);
+    }
+
+    private int persist(RateSeries rates) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Sorted first, so a partial write commits the earliest days and the high-watermark stays valid
+        rates.sortByDay();
+        try {
+            int written = bulkWriter.write(rates);
+            exchangeRateIndex.merge(rates);
+            logger.info("Saved {} rates for currency {}", written, rates.getCurrency());
+            return written;
+        } catch (ExchangeRateBulkWriter.PartialWriteException e) {
+            // The index is authoritative for the currency, so it must hold every committed row
+            int written = e.getRowsWritten();
+            exchangeRateIndex.merge(rates, written);
+            logger.error("Error persisting rates for {}, kept {} of {}: {}",
+                    rates.getCurrency(), written, rates.size(), e.getMessage(), e);
+            invalidateCachedResponse(rates.getCurrency());
+            return written;
+        } catch (Exception e) {
+            logger.error("Error persisting rates for {}: {}", rates.getCurrency(), e.getMessage(), e);
+            invalidateCachedResponse(rates.getCurrency());
+            return 0;
+        } finally {
+            sample.stop(Timer.builder("ingestion.persist")
+                    .description("Time to write a series to the database and the in-memory index")
+                    .tag("currency", rates.getCurrency())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Makes sure a currency whose rates were lost is downloaded again rather than answered with a 304.
+     */
+    private void invalidateCachedResponse(String currency) {
+        if (fetchMode == FetchMode.BULK) {
+            bundesbankApiClient.invalidateCachedBulkResponse();
+        } else {
+            bundesbankApiClient.invalidateCachedResponse(currency);
+        }
+    }
+}
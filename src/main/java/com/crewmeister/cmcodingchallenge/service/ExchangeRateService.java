@@ -1,61 +1,98 @@
 package com.crewmeister.cmcodingchallenge.service;
 
 import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.domain.FixedPointRate;
+import com.crewmeister.cmcodingchallenge.dto.BatchConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.ConversionRequestDTO;
 import com.crewmeister.cmcodingchallenge.dto.ConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.CrossConversionResultDTO;
 import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDTO;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRatePageDTO;
 import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
-import com.crewmeister.cmcodingchallenge.integration.BundesbankApiClient;
-import com.crewmeister.cmcodingchallenge.integration.BundesbankApiClient.ExchangeRateData;
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.crewmeister.cmcodingchallenge.index.IndexSnapshotStore;
+import com.crewmeister.cmcodingchallenge.index.RateMatrix;
 import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import javax.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 public class ExchangeRateService {
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateService.class);
-    private static final int BATCH_SIZE = 1000;
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int CROSS_RATE_SCALE = 10;
+    // Open lower bound for range queries; earlier than any published observation
+    static final LocalDate EARLIEST_DATE = LocalDate.of(1, 1, 1);
     
     private final ExchangeRateRepository repository;
-    private final BundesbankApiClient bundesbankApiClient;
+    private final ExchangeRateIngestionService ingestionService;
     private final CurrencyService currencyService;
+    private final ExchangeRateIndex exchangeRateIndex;
+    private final DatasetVersion datasetVersion;
+    private final IndexSnapshotStore indexSnapshotStore;
 
     public ExchangeRateService(
             ExchangeRateRepository repository, 
-            BundesbankApiClient bundesbankApiClient,
-            CurrencyService currencyService) {
+            ExchangeRateIngestionService ingestionService,
+            CurrencyService currencyService,
+            ExchangeRateIndex exchangeRateIndex,
+            DatasetVersion datasetVersion,
+            IndexSnapshotStore indexSnapshotStore) {
         this.repository = repository;
-        this.bundesbankApiClient = bundesbankApiClient;
+        this.ingestionService = ingestionService;
         this.currencyService = currencyService;
+        this.exchangeRateIndex = exchangeRateIndex;
+        this.datasetVersion = datasetVersion;
+        this.indexSnapshotStore = indexSnapshotStore;
         logger.info("ExchangeRateService initialized");
     }
 
-    @PostConstruct
-    @Transactional
-    public void initializeData() {
-        if (repository.count() == 0) {
+    /**
+     * Loads the full history on an empty database, which fills the in-memory index as it goes.
+     * Otherwise maps the index snapshot, falling back to building the index from the database when
+     * the snapshot is missing or out of date. Run once by {@link WarmUpService} after startup, off
+     * the main thread.
+     *
+     * @throws IllegalStateException if the database is still empty afterwards, e.g. because the
+     *         Bundesbank API could not be reached, so the warm-up retries
+     */
+    public void initializeData(IngestionProgress progress) {
+        long storedRates = repository.count();
+        if (storedRates == 0) {
             logger.info("Initializing exchange rate data...");
-            updateExchangeRatesParallel();
-        } else {
-            logger.info("Exchange rate data already exists in database");
+            updateExchangeRatesParallel(progress);
+            if (repository.count() == 0) {
+                throw new IllegalStateException("No exchange rates could be loaded");
+            }
+            return;
+        }
+        logger.info("Exchange rate data already exists in database");
+        if (!indexSnapshotStore.load(storedRates)) {
+            exchangeRateIndex.rebuild();
+            indexSnapshotStore.save();
         }
     }
 
     @Scheduled(cron = "0 0 16 * * MON-FRI")
-    @Transactional
     @CacheEvict(cacheNames = {"exchangeRates", "exchangeRate"}, allEntries = true)
     public void updateExchangeRates() {
         logger.info("Starting scheduled exchange rates update");
@@ -63,46 +100,30 @@ public class ExchangeRateService {
     }
 
     public void updateExchangeRatesParallel() {
+        updateExchangeRatesParallel(IngestionProgress.NONE);
+    }
+
+    public void updateExchangeRatesParallel(IngestionProgress progress) {
         logger.info("Starting parallel exchange rates update");
         long startTime = System.currentTimeMillis();
 
         List<String> currencies = currencyService.getAllCurrencies();
-        logger.info("Processing {} currencies in parallel", currencies.size());
-        
-        // Process currencies in parallel
-        currencies.parallelStream()
-            .forEach(currency -> {
-                try {
-                    logger.debug("Processing currency: {}", currency);
-                    List<ExchangeRateData> rates = bundesbankApiClient.fetchExchangeRates(currency);
-                    logger.debug("Fetched {} rates for currency: {}", rates.size(), currency);
-                    
-                    Set<LocalDate> existingDates = repository.findByCurrency(currency).stream()
-                        .map(ExchangeRate::getDate)
-                        .collect(Collectors.toSet());
-
-                    // Process rates in parallel
-                    List<ExchangeRate> newRates = rates.parallelStream()
-                        .filter(rate -> !existingDates.contains(rate.getDate()))
-                        .map(rate -> new ExchangeRate(currency, rate.getDate(), rate.getRate()))
-                        .collect(Collectors.toList());
-
-                    if (!newRates.isEmpty()) {
-                        repository.saveAll(newRates);
-                        logger.info("Saved {} rates for currency {}", newRates.size(), currency);
-                    } else {
-                        logger.debug("No new rates for currency: {}", currency);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error processing rates for {}: {}", currency, e.getMessage(), e);
-                }
-            });
+        logger.info("Processing {} currencies on the ingestion executor", currencies.size());
         
+        Map<String, Integer> written = ingestionService.ingest(currencies, progress);
+        int total = written.values().stream().mapToInt(Integer::intValue).sum();
+        logger.info("Stored {} new rates across {} currencies", total, written.size());
+        exchangeRateIndex.rateMatrix(); // derive cross rates now rather than on the first request
+        if (total > 0) {
+            datasetVersion.bump(); // invalidates ETags handed out for the previous data
+            indexSnapshotStore.save();
+        }
+
         long duration = System.currentTimeMillis() - startTime;
         logger.info("Exchange rates update completed in {} seconds", duration / 1000.0);
     }
 
-    @Cacheable(value = "exchangeRates", key = "#currency")
+    @Cacheable(value = "exchangeRates", key = "#currency", sync = true)
     public List<ExchangeRateDTO> getAllExchangeRates(String currency) {
         logger.debug("Fetching all exchange rates for currency: {}", currency);
         List<ExchangeRateDTO> rates = repository.findByCurrencyOrderByDateDesc(currency).stream()
@@ -112,7 +133,7 @@ public class ExchangeRateService {
         return rates;
     }
 
-    @Cacheable(value = "exchangeRate", key = "#currency + '_' + #date")
+    @Cacheable(value = "exchangeRate", key = "#currency + '_' + #date", sync = true)
     public ExchangeRateDTO getExchangeRate(String currency, LocalDate date) {
         logger.debug("Fetching exchange rate for currency: {} on date: {}", currency, date);
         return repository.findByCurrencyAndDate(currency, date)
@@ -131,13 +152,22 @@ public class ExchangeRateService {
      * @return ConversionResultDTO containing the conversion details
      */
     public ConversionResultDTO convertCurrency(String currency, BigDecimal amount, LocalDate date) {
-        logger.debug("Converting {} {} to EUR on date: {}", amount, currency, date);
+        return convertCurrency(currency, amount, date, false);
+    }
+
+    /**
+     * Like {@link #convertCurrency(String, BigDecimal, LocalDate)}, but with {@code asOf} set uses the
+     * latest rate published on or before the date, so weekends and holidays convert at the previous
+     * business day's rate. The result reports the date of the rate used.
+     */
+    public ConversionResultDTO convertCurrency(String currency, BigDecimal amount, LocalDate date, boolean asOf) {
+        logger.debug("Converting {} {} to EUR on date: {} (as of: {})", amount, currency, date, asOf);
         validateDate(date);  // Check for future date first
         validateCurrency(currency);
         validateAmount(amount);
 
-        ExchangeRate rate = getExchangeRateForDate(currency, date);
-        logger.debug("Using exchange rate: 1 EUR = {} {}", rate.getRate(), currency);
+        ExchangeRate rate = asOf ? findRateAsOf(currency, date) : findRate(currency, date);
+        logger.debug("Using exchange rate: 1 EUR = {} {} from {}", rate.getRate(), currency, rate.getDate());
         
         // Convert to EUR (divide by rate since rate represents foreign currency per EUR)
         BigDecimal result = amount.divide(rate.getRate(), 2, RoundingMode.HALF_UP);
@@ -148,10 +178,47 @@ public class ExchangeRateService {
                 amount,
                 rate.getRate(),
                 result,
-                date
+                date,
+                rate.getDate()
         );
     }
 
+    /**
+     * Converts an amount between two currencies by triangulating through their EUR rates on the date.
+     * Indexed currencies are served from the precomputed {@link RateMatrix}: two array reads and one
+     * multiplication, without touching the database. A currency the index does not hold falls back
+     * to looking up its EUR rate.
+     *
+     * @return the conversion, with {@code rate} rounded to {@link #CROSS_RATE_SCALE} decimals
+     */
+    public CrossConversionResultDTO convertCrossCurrency(String from, String to, BigDecimal amount, LocalDate date) {
+        logger.debug("Converting {} {} to {} on date: {}", amount, from, to, date);
+        validateDate(date);
+        validateCurrency(from);
+        validateCurrency(to);
+        validateAmount(amount);
+
+        RateMatrix matrix = exchangeRateIndex.rateMatrix();
+        BigDecimal crossRate;
+        if (matrix.contains(from) && matrix.contains(to)) {
+            crossRate = matrix.crossRate(from, to, date);
+            if (crossRate == null) {
+                logger.error("No exchange rate found for {} to {} on date {}", from, to, date);
+                throw new ExchangeRateException("RATE_NOT_FOUND",
+                    String.format("No exchange rate found for %s to %s on date %s", from, to, date));
+            }
+        } else {
+            BigDecimal fromRate = "EUR".equals(from) ? BigDecimal.ONE : findRate(from, date).getRate();
+            BigDecimal toRate = "EUR".equals(to) ? BigDecimal.ONE : findRate(to, date).getRate();
+            crossRate = toRate.divide(fromRate, RateMatrix.CROSS_SCALE, RoundingMode.HALF_UP);
+        }
+
+        BigDecimal result = amount.multiply(crossRate).setScale(2, RoundingMode.HALF_UP);
+        logger.debug("Conversion result: {} {} = {} {} (rate: {})", amount, from, result, to, crossRate);
+        return new CrossConversionResultDTO(from, to, amount,
+                crossRate.setScale(CROSS_RATE_SCALE, RoundingMode.HALF_UP), result, date);
+    }
+
     public List<ExchangeRate> getExchangeRatesForCurrency(String currency) {
         logger.debug("Fetching exchange rates for currency: {}", currency);
         validateCurrency(currency);
@@ -165,11 +232,128 @@ public class ExchangeRateService {
         return rates;
     }
 
+    /**
+     * Returns one page of a currency's history, newest first, restricted to {@code from..to}
+     * (both inclusive, either may be null). Pages are keyed on (currency, date): the cursor
+     * carries the last date served, and the next page starts strictly before it, so paging
+     * never skips or repeats rows while new dates are being ingested.
+     *
+     * @param cursor the {@code nextCursor} of the previous page, or null for the first page
+     * @param limit page size, or null for {@link #DEFAULT_PAGE_SIZE}
+     */
+    public ExchangeRatePageDTO getExchangeRatesPage(String currency, LocalDate from, LocalDate to,
+                                                    Integer limit, String cursor) {
+        logger.debug("Fetching exchange rate page for currency: {} from {} to {} (limit {}, cursor {})",
+                currency, from, to, limit, cursor);
+        validateCurrency(currency);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                String.format("Limit must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        LocalDate lower = from == null ? EARLIEST_DATE : from;
+        LocalDate upper = to == null ? LocalDate.now() : to;
+        if (lower.isAfter(upper)) {
+            throw new ExchangeRateException("INVALID_DATE_RANGE",
+                String.format("Start date %s is after end date %s", lower, upper));
+        }
+        if (cursor != null) {
+            LocalDate lastServed = decodeCursor(currency, cursor);
+            if (!lastServed.isAfter(upper)) {
+                upper = lastServed.minusDays(1);
+            }
+        }
+
+        // Fetch one row more than the page to learn whether another page exists
+        List<ExchangeRate> rates = lower.isAfter(upper)
+                ? Collections.emptyList()
+                : findRange(currency, lower, upper, pageSize + 1);
+        String nextCursor = null;
+        if (rates.size() > pageSize) {
+            rates = rates.subList(0, pageSize);
+            nextCursor = encodeCursor(currency, rates.get(pageSize - 1).getDate());
+        }
+        logger.debug("Returning {} exchange rates for currency: {} (more: {})", rates.size(), currency, nextCursor != null);
+        return new ExchangeRatePageDTO(rates, nextCursor);
+    }
+
+    private List<ExchangeRate> findRange(String currency, LocalDate from, LocalDate to, int maxRows) {
+        if (exchangeRateIndex.contains(currency)) {
+            int[] epochDays = new int[maxRows];
+            long[] scaledRates = new long[maxRows];
+            int count = exchangeRateIndex.copyDescending(currency,
+                    (int) from.toEpochDay(), (int) to.toEpochDay(), epochDays, scaledRates);
+            List<ExchangeRate> rates = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                rates.add(new ExchangeRate(currency, LocalDate.ofEpochDay(epochDays[i]),
+                        FixedPointRate.toBigDecimal(scaledRates[i])));
+            }
+            return rates;
+        }
+        return repository.findByCurrencyAndDateBetweenOrderByDateDesc(currency, from, to, PageRequest.of(0, maxRows));
+    }
+
+    private static String encodeCursor(String currency, LocalDate lastServed) {
+        String key = currency + ':' + lastServed;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static LocalDate decodeCursor(String currency, String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = key.indexOf(':');
+            if (separator > 0 && key.substring(0, separator).equals(currency)) {
+                return LocalDate.parse(key.substring(separator + 1));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor for currency " + currency);
+    }
+
     public ExchangeRate getExchangeRateForDate(String currency, LocalDate date) {
         logger.debug("Fetching exchange rate for currency: {} on date: {}", currency, date);
         validateDate(date);  // Check for future date first
         validateCurrency(currency);
-        
+
+        return findRate(currency, date);
+    }
+
+    /**
+     * Returns the latest rate published on or before the date, e.g. the Friday rate for a Sunday.
+     * The returned rate carries the date it was observed on.
+     */
+    public ExchangeRate getExchangeRateAsOf(String currency, LocalDate date) {
+        logger.debug("Fetching exchange rate for currency: {} as of date: {}", currency, date);
+        validateDate(date);
+        validateCurrency(currency);
+
+        return findRateAsOf(currency, date);
+    }
+
+    /**
+     * Converts a batch of amounts to EUR, lazily and in request order. Within a batch every distinct
+     * currency is validated once and every distinct currency and date is looked up once, however
+     * many items share them. A failing item yields an error entry instead of failing the batch.
+     */
+    public Stream<BatchConversionResultDTO> convertBatch(List<ConversionRequestDTO> requests) {
+        BatchConversion batch = new BatchConversion();
+        return IntStream.range(0, requests.size())
+                .mapToObj(index -> batch.convert(index, requests.get(index)));
+    }
+
+    private ExchangeRate findRate(String currency, LocalDate date) {
+        // The index is authoritative for every currency it holds; only unindexed ones go to the database
+        if (exchangeRateIndex.contains(currency)) {
+            long scaledRate = exchangeRateIndex.rateOn(currency, date);
+            if (scaledRate == ExchangeRateIndex.NOT_FOUND) {
+                logger.error("No exchange rate found for currency {} on date {}", currency, date);
+                throw new ExchangeRateException("RATE_NOT_FOUND",
+                    String.format("No exchange rate found for currency %s on date %s", currency, date));
+            }
+            return new ExchangeRate(currency, date, FixedPointRate.toBigDecimal(scaledRate));
+        }
+
         Optional<ExchangeRate> rate = repository.findByCurrencyAndDate(currency, date);
         if (rate.isEmpty()) {
             logger.error("No exchange rate found for currency {} on date {}", currency, date);
@@ -179,31 +363,93 @@ public class ExchangeRateService {
         return rate.get();
     }
 
-    private void validateCurrency(String currency) {
-        if (currency == null || currency.length() != 3) {
-            logger.error("Invalid currency code format: {}", currency);
-            throw new IllegalArgumentException("Currency code must be 3 characters long");
-        }
-        // EUR is always valid as it's our base currency
-        if (!"EUR".equals(currency) && !currencyService.isValidCurrency(currency)) {
-            logger.error("Invalid currency code: {}", currency);
-            throw new ExchangeRateException("INVALID_CURRENCY", 
-                String.format("Invalid currency code: %s", currency));
+    private ExchangeRate findRateAsOf(String currency, LocalDate date) {
+        // One floor search instead of the client probing date-1, date-2, ... until a rate exists
+        if (exchangeRateIndex.contains(currency)) {
+            int day = exchangeRateIndex.floorDay(currency, date);
+            if (day != ExchangeRateIndex.NO_DAY) {
+                LocalDate observed = LocalDate.ofEpochDay(day);
+                return new ExchangeRate(currency, observed,
+                        FixedPointRate.toBigDecimal(exchangeRateIndex.rateOn(currency, observed)));
+            }
+        } else {
+            Optional<ExchangeRate> rate = repository.findFirstByCurrencyAndDateLessThanEqualOrderByDateDesc(currency, date);
+            if (rate.isPresent()) {
+                return rate.get();
+            }
         }
+        logger.error("No exchange rate found for currency {} on or before date {}", currency, date);
+        throw new ExchangeRateException("RATE_NOT_FOUND",
+            String.format("No exchange rate found for currency %s on or before date %s", currency, date));
     }
 
-    private void validateDate(LocalDate date) {
-        if (date == null) {
-            logger.error("Date cannot be null");
-            throw new IllegalArgumentException("Date cannot be null");
+    /**
+     * Per-batch memo of currency checks and rate lookups, including their failures.
+     * Confined to the thread consuming the batch stream.
+     */
+    private final class BatchConversion {
+        private final Map<String, RuntimeException> currencyChecks = new HashMap<>();
+        private final Map<String, Map<LocalDate, Object>> rates = new HashMap<>();
+
+        BatchConversionResultDTO convert(int index, ConversionRequestDTO request) {
+            try {
+                String currency = request.getCurrency();
+                BigDecimal amount = request.getAmount();
+                LocalDate date = request.getDate();
+                validateDate(date);
+                checkCurrency(currency);
+                validateAmount(amount);
+
+                BigDecimal rate = rate(currency, date);
+                BigDecimal result = amount.divide(rate, 2, RoundingMode.HALF_UP);
+                return BatchConversionResultDTO.success(index, new ConversionResultDTO(currency, amount, rate, result, date));
+            } catch (ExchangeRateException e) {
+                return BatchConversionResultDTO.failure(index, e.getErrorCode(), e.getErrorMessage());
+            } catch (IllegalArgumentException e) {
+                return BatchConversionResultDTO.failure(index, "INVALID_REQUEST", e.getMessage());
+            }
+        }
+
+        private void checkCurrency(String currency) {
+            if (!currencyChecks.containsKey(currency)) {
+                RuntimeException failure = null;
+                try {
+                    validateCurrency(currency);
+                } catch (ExchangeRateException | IllegalArgumentException e) {
+                    failure = e;
+                }
+                currencyChecks.put(currency, failure);
+            }
+            RuntimeException failure = currencyChecks.get(currency);
+            if (failure != null) {
+                throw failure;
+            }
         }
-        if (date.isAfter(LocalDate.now())) {
-            logger.error("Cannot fetch exchange rate for future date: {}", date);
-            throw new ExchangeRateException("FUTURE_DATE",
-                String.format("Cannot fetch exchange rate for future date: %s", date));
+
+        private BigDecimal rate(String currency, LocalDate date) {
+            Object rate = rates.computeIfAbsent(currency, code -> new HashMap<>())
+                    .computeIfAbsent(date, day -> {
+                        try {
+                            return findRate(currency, day).getRate();
+                        } catch (ExchangeRateException e) {
+                            return e;
+                        }
+                    });
+            if (rate instanceof ExchangeRateException) {
+                throw (ExchangeRateException) rate;
+            }
+            return (BigDecimal) rate;
         }
     }
 
+    private void validateCurrency(String currency) {
+        RequestValidation.validateCurrency(currencyService, currency);
+    }
+
+    private void validateDate(LocalDate date) {
+        RequestValidation.validateDate(date);
+    }
+
     private void validateAmount(BigDecimal amount) {
         if (amount == null) {
             logger.error("Amount cannot be null");
@@ -0,0 +1,13 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+/**
+ * Notified once per currency when an ingestion run is done with it: its new rates are stored, it
+ * was already up to date, or its download failed. May be called from download threads.
+ */
+@FunctionalInterface
+public interface IngestionProgress {
+
+    IngestionProgress NONE = (currency, rowsWritten) -> { };
+
+    void currencyCompleted(String currency, int rowsWritten);
+}
@@ -0,0 +1,102 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.dto.RateSnapshotDTO;
+import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.crewmeister.cmcodingchallenge.index.RateMatrix;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Serves every currency's rate for one date in a single response. Snapshots are read from a row of
+ * the date-major {@link RateMatrix} built at ingestion, and the serialized JSON is cached per date
+ * so repeated dashboard requests cost a cache lookup and a byte copy.
+ *
+ * Cached payloads remember the generation of the matrix they were built from, not the matrix itself,
+ * so they keep no stale matrix alive; once ingestion replaces the matrix they no longer match and
+ * are rebuilt on next use, so no explicit eviction is needed.
+ */
+@Service
+public class RateSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(RateSnapshotService.class);
+
+    static final String CACHE_NAME = "rateSnapshots";
+
+    private final ExchangeRateIndex exchangeRateIndex;
+    private final ObjectWriter snapshotWriter;
+    private final Cache cache;
+
+    public RateSnapshotService(ExchangeRateIndex exchangeRateIndex, ObjectMapper objectMapper,
+                               CacheManager cacheManager) {
+        this.exchangeRateIndex = exchangeRateIndex;
+        this.snapshotWriter = objectMapper.writerFor(RateSnapshotDTO.class);
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), "Snapshot cache must exist");
+        logger.info("RateSnapshotService initialized");
+    }
+
+    private static final class Payload {
+        final long generation;
+        final byte[] json; // null when nothing was published on the date
+
+        Payload(long generation, byte[] json) {
+            this.generation = generation;
+            this.json = json;
+        }
+    }
+
+    /**
+     * @return the serialized {@link RateSnapshotDTO} for the date, or null if no rate was published on it
+     */
+    public byte[] getSnapshotJson(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        if (date.isAfter(LocalDate.now())) {
+            logger.error("Cannot fetch exchange rates for future date: {}", date);
+            throw new ExchangeRateException("FUTURE_DATE",
+                String.format("Cannot fetch exchange rates for future date: %s", date));
+        }
+        return snapshot(exchangeRateIndex.rateMatrix(), date);
+    }
+
+    /**
+     * @return the serialized snapshot of the latest date with any published rate, or null if there is none
+     */
+    public byte[] getLatestSnapshotJson() {
+        RateMatrix matrix = exchangeRateIndex.rateMatrix();
+        LocalDate latest = matrix.lastDate();
+        return latest == null ? null : snapshot(matrix, latest);
+    }
+
+    private byte[] snapshot(RateMatrix matrix, LocalDate date) {
+        Payload cached = cache.get(date, Payload.class);
+        if (cached != null && cached.generation == matrix.generation()) {
+            return cached.json;
+        }
+        Map<String, BigDecimal> rates = matrix.ratesOn(date);
+        byte[] json = rates.isEmpty() ? null : serialize(new RateSnapshotDTO(date, rates));
+        cache.put(date, new Payload(matrix.generation(), json));
+        logger.debug("Built snapshot of {} rates for date: {}", rates.size(), date);
+        return json;
+    }
+
+    private byte[] serialize(RateSnapshotDTO snapshot) {
+        try {
+            return snapshotWriter.writeValueAsBytes(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.domain.FixedPointRate;
+import com.crewmeister.cmcodingchallenge.dto.RateStatisticsDTO;
+import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.crewmeister.cmcodingchallenge.index.RangeStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Summarizes a currency's rates over a date range. The work is done by the
+ * {@link ExchangeRateIndex}, which keeps prefix sums and sparse tables per currency, so a request
+ * costs two binary searches and a few array reads whether it spans a week or the whole history.
+ */
+@Service
+public class RateStatisticsService {
+    private static final Logger logger = LoggerFactory.getLogger(RateStatisticsService.class);
+
+    // Mean and standard deviation keep two digits more than the rates they summarize
+    static final int STATISTICS_SCALE = FixedPointRate.SCALE + 2;
+
+    private final ExchangeRateIndex exchangeRateIndex;
+    private final CurrencyService currencyService;
+
+    public RateStatisticsService(ExchangeRateIndex exchangeRateIndex, CurrencyService currencyService) {
+        this.exchangeRateIndex = exchangeRateIndex;
+        this.currencyService = currencyService;
+        logger.info("RateStatisticsService initialized");
+    }
+
+    /**
+     * @param from the earliest date to include, or null for the start of the history
+     * @param to the latest date to include, or null for today; must not be in the future
+     * @return the statistics, or null if no rate was published in the range
+     */
+    public RateStatisticsDTO getStatistics(String currency, LocalDate from, LocalDate to) {
+        if (to != null) {
+            RequestValidation.validateDate(to);
+        }
+        RequestValidation.validateCurrency(currencyService, currency);
+        LocalDate upper = to == null ? LocalDate.now() : to;
+        if (from != null && from.isAfter(upper)) {
+            throw new ExchangeRateException("INVALID_DATE_RANGE",
+                String.format("Start date %s is after end date %s", from, upper));
+        }
+        int fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        RangeStatistics statistics = exchangeRateIndex.statistics(currency, fromDay, (int) upper.toEpochDay());
+        if (statistics == null) {
+            logger.debug("No exchange rates for currency: {} between {} and {}", currency, from, upper);
+            return null;
+        }
+        return new RateStatisticsDTO(currency,
+            LocalDate.ofEpochDay(statistics.getFirstDay()),
+            LocalDate.ofEpochDay(statistics.getLastDay()),
+            statistics.getCount(),
+            FixedPointRate.toBigDecimal(statistics.getFirst()),
+            FixedPointRate.toBigDecimal(statistics.getLast()),
+            FixedPointRate.toBigDecimal(statistics.getMin()),
+            FixedPointRate.toBigDecimal(statistics.getMax()),
+            toRate(statistics.getMean()),
+            toRate(statistics.getStandardDeviation()));
+    }
+
+    private static BigDecimal toRate(double scaled) {
+        return BigDecimal.valueOf(scaled).movePointLeft(FixedPointRate.SCALE)
+            .setScale(STATISTICS_SCALE, RoundingMode.HALF_UP);
+    }
+}
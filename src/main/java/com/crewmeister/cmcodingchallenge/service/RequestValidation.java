@@ -0,0 +1,43 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+
+/**
+ * Argument checks shared by the services behind the rate endpoints, so every endpoint answers a
+ * bad currency or date with the same error code and message.
+ */
+final class RequestValidation {
+    private static final Logger logger = LoggerFactory.getLogger(RequestValidation.class);
+
+    private RequestValidation() {
+    }
+
+    static void validateCurrency(CurrencyService currencyService, String currency) {
+        if (currency == null || currency.length() != 3) {
+            logger.error("Invalid currency code format: {}", currency);
+            throw new IllegalArgumentException("Currency code must be 3 characters long");
+        }
+        // EUR is always valid as it's our base currency
+        if (!"EUR".equals(currency) && !currencyService.isValidCurrency(currency)) {
+            logger.error("Invalid currency code: {}", currency);
+            throw new ExchangeRateException("INVALID_CURRENCY",
+                String.format("Invalid currency code: %s", currency));
+        }
+    }
+
+    static void validateDate(LocalDate date) {
+        if (date == null) {
+            logger.error("Date cannot be null");
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        if (date.isAfter(LocalDate.now())) {
+            logger.error("Cannot fetch exchange rate for future date: {}", date);
+            throw new ExchangeRateException("FUTURE_DATE",
+                String.format("Cannot fetch exchange rate for future date: %s", date));
+        }
+    }
+}
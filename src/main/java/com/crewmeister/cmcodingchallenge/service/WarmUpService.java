@@ -0,0 +1,154 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.dto.WarmUpStatusDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads currencies and exchange rates in the background once the application has started, so
+ * startup does not wait for the Bundesbank download and the web server comes up at once.
+ *
+ * Until the data is loaded the service is not ready: {@code /health/readiness} answers 503 with
+ * the progress so far and API requests are turned away with 503 and a {@code Retry-After} header.
+ * If loading fails it is retried after {@code warm-up.retry-delay}. With {@code warm-up.enabled=false}
+ * nothing is loaded at startup and the service is ready immediately.
+ */
+@Service
+public class WarmUpService {
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpService.class);
+
+    public enum Phase {
+        /** The application has not finished starting yet. */
+        PENDING,
+        /** Synchronizing the currency list. */
+        CURRENCIES,
+        /** Loading exchange rates and building the in-memory index. */
+        EXCHANGE_RATES,
+        /** Data is loaded and requests are served. */
+        READY,
+        /** The last attempt failed; another follows after the retry delay. */
+        FAILED
+    }
+
+    private final CurrencyService currencyService;
+    private final ExchangeRateService exchangeRateService;
+    private final TaskExecutor executor;
+    private final boolean enabled;
+    private final Duration retryDelay;
+
+    private volatile Phase phase = Phase.PENDING;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String lastError;
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AtomicInteger currenciesTotal = new AtomicInteger();
+    private final AtomicInteger currenciesCompleted = new AtomicInteger();
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    public WarmUpService(CurrencyService currencyService,
+                         ExchangeRateService exchangeRateService,
+                         @Qualifier("warmUpTaskExecutor") TaskExecutor executor,
+                         @Value("${warm-up.enabled:true}") boolean enabled,
+                         @Value("${warm-up.retry-delay:PT30S}") Duration retryDelay,
+                         MeterRegistry meterRegistry) {
+        this.currencyService = currencyService;
+        this.exchangeRateService = exchangeRateService;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.retryDelay = retryDelay;
+        Gauge.builder("warmup.ready", this, warmUp -> warmUp.isReady() ? 1 : 0)
+                .description("1 once startup data is loaded and requests are served")
+                .register(meterRegistry);
+        Gauge.builder("warmup.currencies.completed", currenciesCompleted, AtomicInteger::get)
+                .description("Currencies loaded by the startup warm-up so far")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void onApplicationStarted() {
+        startedAt = Instant.now();
+        if (!enabled) {
+            logger.info("Warm-up disabled, serving requests without loading data first");
+            finish();
+            return;
+        }
+        executor.execute(this::run);
+    }
+
+    /**
+     * Loads the data, retrying after a failure until it succeeds or the thread is interrupted.
+     */
+    void run() {
+        while (true) {
+            try {
+                warmUp();
+                return;
+            } catch (RuntimeException e) {
+                phase = Phase.FAILED;
+                lastError = e.getMessage();
+                logger.error("Warm-up attempt {} failed, retrying in {}: {}", attempts.get(), retryDelay, e.getMessage(), e);
+            }
+            try {
+                Thread.sleep(retryDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Warm-up interrupted before the data was loaded");
+                return;
+            }
+        }
+    }
+
+    private void warmUp() {
+        logger.info("Warm-up attempt {} started", attempts.incrementAndGet());
+        currenciesCompleted.set(0);
+        rowsWritten.set(0);
+
+        phase = Phase.CURRENCIES;
+        currencyService.initializeCurrencies();
+
+        phase = Phase.EXCHANGE_RATES;
+        currenciesTotal.set(currencyService.getAllCurrencies().size());
+        exchangeRateService.initializeData((currency, rows) -> {
+            int completed = currenciesCompleted.incrementAndGet();
+            rowsWritten.addAndGet(rows);
+            logger.info("Warm-up: {} of {} currencies loaded ({}: {} rates)", completed, currenciesTotal.get(), currency, rows);
+        });
+        if (Thread.currentThread().isInterrupted()) {
+            logger.warn("Warm-up interrupted before the data was loaded");
+            return;
+        }
+        finish();
+    }
+
+    private void finish() {
+        finishedAt = Instant.now();
+        lastError = null;
+        phase = Phase.READY;
+        logger.info("Warm-up completed in {} ms, ready to serve requests",
+                Duration.between(startedAt, finishedAt).toMillis());
+    }
+
+    public boolean isReady() {
+        return phase == Phase.READY;
+    }
+
+    public WarmUpStatusDTO getStatus() {
+        Instant start = startedAt;
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        return new WarmUpStatusDTO(phase, isReady(), attempts.get(), currenciesCompleted.get(), currenciesTotal.get(),
+                rowsWritten.get(), start == null ? 0 : Duration.between(start, end).toMillis(), lastError);
+    }
+}
@@ -0,0 +1,123 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Caching;
+import javax.cache.configuration.CompleteConfiguration;
+import javax.cache.expiry.ExpiryPolicy;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitConfigTest {
+
+    private static final String CAFFEINE_JCACHE = "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider";
+
+    @Test
+    void resolveBucket_shouldReuseBucketPerKey() {
+        // Given
+        RateLimitConfig config = new RateLimitConfig(10, Duration.ofMinutes(10), 64);
+
+        // When
+        Bucket first = config.resolveBucket("key");
+        first.tryConsume(1);
+
+        // Then
+        assertSame(first, config.resolveBucket("key"));
+        assertNotSame(first, config.resolveBucket("other"));
+        assertEquals(RateLimitConfig.CAPACITY - 1, config.resolveBucket("key").getAvailableTokens());
+    }
+
+    @Test
+    void resolveBucket_shouldBoundNumberOfBuckets() {
+        // Given
+        RateLimitConfig config = new RateLimitConfig(100, Duration.ofMinutes(10), 64);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            config.resolveBucket("random-key-" + i);
+        }
+        config.getBuckets().cleanUp();
+
+        // Then
+        assertTrue(config.getBuckets().estimatedSize() <= 100);
+        assertTrue(config.getBuckets().stats().evictionCount() >= 900);
+    }
+
+    @Test
+    void boundedKey_shouldDigestOverlongKeys() {
+        // Given
+        RateLimitConfig config = new RateLimitConfig(10, Duration.ofMinutes(10), 16);
+        String longKey = "k".repeat(10_000);
+
+        // When
+        String bounded = config.boundedKey(longKey);
+
+        // Then
+        assertEquals("short-key", config.boundedKey("short-key"));
+        assertTrue(bounded.length() <= 64);
+        assertEquals(bounded, config.boundedKey("k".repeat(10_000)));
+        assertSame(config.resolveBucket(longKey), config.resolveBucket("k".repeat(10_000)));
+    }
+
+    @Test
+    void resolveBucket_shouldShareLimitAcrossNodesWithJCacheBackend() {
+        // Given two nodes backed by the same in-process JCache cache, syncing every token
+        ProxyManager<String> proxyManager = RateLimitConfig.jcacheProxyManager(CAFFEINE_JCACHE, "shared-limit",
+                Duration.ofMinutes(10));
+        DelayParameters syncEveryToken = new DelayParameters(0, Duration.ofSeconds(1));
+        RateLimitConfig node1 = new RateLimitConfig(10, Duration.ofMinutes(10), 64, proxyManager, syncEveryToken);
+        RateLimitConfig node2 = new RateLimitConfig(10, Duration.ofMinutes(10), 64, proxyManager, syncEveryToken);
+
+        // When
+        assertTrue(node1.resolveBucket("key").tryConsume(RateLimitConfig.CAPACITY / 2));
+        assertTrue(node2.resolveBucket("key").tryConsume(RateLimitConfig.CAPACITY / 2));
+
+        // Then
+        assertFalse(node1.resolveBucket("key").tryConsume(1));
+        assertFalse(node2.resolveBucket("key").tryConsume(1));
+        assertTrue(node2.resolveBucket("other").tryConsume(1));
+    }
+
+    @Test
+    void resolveBucket_shouldConsumeLocallyUntilSyncThreshold() {
+        // Given
+        ProxyManager<String> proxyManager = RateLimitConfig.jcacheProxyManager(CAFFEINE_JCACHE, "local-allowance",
+                Duration.ofMinutes(10));
+        DelayParameters syncEveryTenTokens = new DelayParameters(10, Duration.ofMinutes(1));
+        RateLimitConfig node1 = new RateLimitConfig(10, Duration.ofMinutes(10), 64, proxyManager, syncEveryTenTokens);
+        RateLimitConfig node2 = new RateLimitConfig(10, Duration.ofMinutes(10), 64, proxyManager, syncEveryTenTokens);
+        Bucket bucket = node1.resolveBucket("key");
+
+        // When
+        for (int i = 0; i < RateLimitConfig.CAPACITY; i++) {
+            assertTrue(bucket.tryConsume(1));
+        }
+
+        // Then the other node sees the shared state lag by at most the unsynchronized allowance
+        long seenByNode2 = node2.resolveBucket("key").getAvailableTokens();
+        assertTrue(seenByNode2 <= 10, "node2 saw " + seenByNode2 + " tokens");
+        assertFalse(bucket.tryConsume(1));
+    }
+
+    @Test
+    void jcacheProxyManager_shouldExpireIdleBucketsInSharedCache() {
+        // When
+        RateLimitConfig.jcacheProxyManager(CAFFEINE_JCACHE, "expiring", RateLimitConfig.bucketExpiry(Duration.ofSeconds(5)));
+
+        // Then: idle buckets are dropped after the refill period, never earlier
+        javax.cache.Cache<String, byte[]> cache = Caching.getCachingProvider(CAFFEINE_JCACHE).getCacheManager()
+                .getCache("expiring", String.class, byte[].class);
+        ExpiryPolicy expiry = cache.getConfiguration(CompleteConfiguration.class).getExpiryPolicyFactory().create();
+        assertEquals(new javax.cache.expiry.Duration(TimeUnit.MILLISECONDS, RateLimitConfig.REFILL_PERIOD.toMillis()),
+                expiry.getExpiryForAccess());
+    }
+}
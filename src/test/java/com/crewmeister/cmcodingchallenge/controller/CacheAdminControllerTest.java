@@ -0,0 +1,75 @@
+package com.crewmeister.cmcodingchallenge.controller;
+
+import com.crewmeister.cmcodingchallenge.config.RateLimitConfig;
+import com.crewmeister.cmcodingchallenge.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class CacheAdminControllerTest {
+
+    private CaffeineCacheManager cacheManager;
+    private RateLimitConfig rateLimitConfig;
+    private CacheAdminController cacheAdminController;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache("exchangeRate", Caffeine.newBuilder().maximumSize(1).recordStats().build());
+        rateLimitConfig = new RateLimitConfig(2, Duration.ofMinutes(10), 64);
+        cacheAdminController = new CacheAdminController(cacheManager, rateLimitConfig);
+    }
+
+    @Test
+    void getCacheStatistics_shouldReportHitsMissesAndEvictions() {
+        // Arrange
+        Cache cache = cacheManager.getCache("exchangeRate");
+        cache.get("USD_2024-04-19", () -> "1.0987");
+        cache.get("USD_2024-04-19", () -> "1.0987");
+        cache.get("GBP_2024-04-19", () -> "0.8561");
+        ((com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache()).cleanUp();
+
+        // Act
+        ResponseEntity<List<CacheStatsDTO>> response = cacheAdminController.getCacheStatistics();
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertNotNull(response.getBody());
+        assertEquals(2, response.getBody().size());
+        CacheStatsDTO stats = response.getBody().get(0);
+        assertEquals("exchangeRate", stats.getName());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(2, stats.getLoadCount());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(1, stats.getEstimatedSize());
+    }
+
+    @Test
+    void getCacheStatistics_shouldReportLiveRateLimitBuckets() {
+        // Arrange
+        rateLimitConfig.resolveBucket("key-1");
+        rateLimitConfig.resolveBucket("key-2");
+        rateLimitConfig.resolveBucket("key-1");
+
+        // Act
+        ResponseEntity<List<CacheStatsDTO>> response = cacheAdminController.getCacheStatistics();
+
+        // Assert
+        assertNotNull(response.getBody());
+        CacheStatsDTO stats = response.getBody().get(response.getBody().size() - 1);
+        assertEquals(CacheAdminController.RATE_LIMIT_BUCKETS, stats.getName());
+        assertEquals(2, stats.getEstimatedSize());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+    }
+}
@@ -1,30 +1,50 @@
 package com.crewmeister.cmcodingchallenge.controller;
 
 import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.dto.BatchConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.ConversionRequestDTO;
 import com.crewmeister.cmcodingchallenge.dto.ConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.CrossConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRatePageDTO;
+import com.crewmeister.cmcodingchallenge.dto.RateStatisticsDTO;
 import com.crewmeister.cmcodingchallenge.facade.CurrencyFacade;
 import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateExportService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +53,10 @@ class ExchangeRateControllerTest {
     @Mock
     private CurrencyFacade currencyFacade;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
     @InjectMocks
     private ExchangeRateController exchangeRateController;
 
@@ -56,7 +80,7 @@ class ExchangeRateControllerTest {
         when(currencyFacade.getExchangeRatesForCurrency("USD")).thenReturn(testRates);
 
         // Act
-        ResponseEntity<List<ExchangeRate>> response = exchangeRateController.getExchangeRates("USD");
+        ResponseEntity<List<ExchangeRate>> response = exchangeRateController.getExchangeRates("USD", null, null, null, null);
 
         // Assert
         assertEquals(200, response.getStatusCode().value());
@@ -66,6 +90,66 @@ class ExchangeRateControllerTest {
         assertEquals(new BigDecimal("1.0987"), response.getBody().get(0).getRate());
     }
 
+    @Test
+    void getExchangeRates_shouldReturnPageWithNextCursorHeader() {
+        // Arrange
+        LocalDate from = testDate.minusDays(30);
+        when(currencyFacade.getExchangeRatesPage("USD", from, null, 2, null))
+            .thenReturn(new ExchangeRatePageDTO(testRates, "next"));
+
+        // Act
+        ResponseEntity<List<ExchangeRate>> response = exchangeRateController.getExchangeRates("USD", from, null, 2, null);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(testRates, response.getBody());
+        assertEquals("next", response.getHeaders().getFirst(ExchangeRateController.NEXT_CURSOR_HEADER));
+        verify(currencyFacade, never()).getExchangeRatesForCurrency(any());
+    }
+
+    @Test
+    void getExchangeRates_shouldOmitCursorHeaderOnLastPage() {
+        // Arrange
+        when(currencyFacade.getExchangeRatesPage("USD", null, null, null, "last"))
+            .thenReturn(new ExchangeRatePageDTO(testRates, null));
+
+        // Act
+        ResponseEntity<List<ExchangeRate>> response = exchangeRateController.getExchangeRates("USD", null, null, null, "last");
+
+        // Assert
+        assertEquals(2, response.getBody().size());
+        assertFalse(response.getHeaders().containsKey(ExchangeRateController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void exportExchangeRatesCsv_shouldStreamExportWithCsvContentType() throws IOException {
+        // Arrange
+        when(currencyFacade.exportExchangeRates("USD", null, null, ExchangeRateExportService.Format.CSV))
+            .thenReturn(out -> out.write("currency,date,rate\n".getBytes()));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = exchangeRateController.exportExchangeRatesCsv("USD", null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("text/csv", response.getHeaders().getContentType().toString());
+        assertEquals("currency,date,rate\n", out.toString());
+    }
+
+    @Test
+    void exportExchangeRatesNdjson_shouldRejectInvalidCurrencyBeforeStreaming() {
+        // Arrange
+        when(currencyFacade.exportExchangeRates("XYZ", null, null, ExchangeRateExportService.Format.NDJSON))
+            .thenThrow(new ExchangeRateException("INVALID_CURRENCY", "Invalid currency code: XYZ"));
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> exchangeRateController.exportExchangeRatesNdjson("XYZ", null, null));
+        assertEquals(400, exception.getStatus().value());
+    }
+
     @Test
     void getExchangeRateForDate_shouldReturnRateForSpecificDate() {
         // Arrange
@@ -73,7 +157,7 @@ class ExchangeRateControllerTest {
             .thenReturn(testRate);
 
         // Act
-        ResponseEntity<ExchangeRate> response = exchangeRateController.getExchangeRateForDate(testDate, "USD");
+        ResponseEntity<ExchangeRate> response = exchangeRateController.getExchangeRateForDate(testDate, "USD", false);
 
         // Assert
         assertEquals(200, response.getStatusCode().value());
@@ -97,7 +181,7 @@ class ExchangeRateControllerTest {
 
         // Act
         ResponseEntity<ConversionResultDTO> response = exchangeRateController.convertCurrency(
-            "USD", amount, testDate);
+            "USD", amount, testDate, false);
 
         // Assert
         assertEquals(200, response.getStatusCode().value());
@@ -109,6 +193,129 @@ class ExchangeRateControllerTest {
         assertEquals(testDate, response.getBody().getDate());
     }
 
+    @Test
+    void convertCurrency_asOfShouldReportDateOfRateUsed() {
+        // Arrange
+        LocalDate sunday = testDate.plusDays(2);
+        BigDecimal amount = new BigDecimal("100.00");
+        when(currencyFacade.convertToEurAsOf("USD", amount, sunday)).thenReturn(new ConversionResultDTO(
+            "USD", amount, new BigDecimal("1.0987"), new BigDecimal("91.02"), sunday, testDate));
+
+        // Act
+        ResponseEntity<ConversionResultDTO> response = exchangeRateController.convertCurrency("USD", amount, sunday, true);
+
+        // Assert
+        assertEquals(sunday, response.getBody().getDate());
+        assertEquals(testDate, response.getBody().getRateDate());
+        verify(currencyFacade, never()).convertToEur(any(), any(), any());
+    }
+
+    @Test
+    void getExchangeRateForDate_asOfShouldReturnPreviousObservation() {
+        // Arrange
+        when(currencyFacade.getExchangeRateAsOf("USD", testDate.plusDays(1))).thenReturn(testRate);
+
+        // Act
+        ResponseEntity<ExchangeRate> response = exchangeRateController.getExchangeRateForDate(testDate.plusDays(1), "USD", true);
+
+        // Assert
+        assertEquals(testDate, response.getBody().getDate());
+    }
+
+    @Test
+    void convertCrossCurrency_shouldReturnConvertedAmount() {
+        // Arrange
+        BigDecimal amount = new BigDecimal("100.00");
+        CrossConversionResultDTO expected = new CrossConversionResultDTO(
+            "USD", "JPY", amount, new BigDecimal("152.3148148148"), new BigDecimal("15231.48"), testDate);
+        when(currencyFacade.convert("USD", "JPY", amount, testDate)).thenReturn(expected);
+
+        // Act
+        ResponseEntity<CrossConversionResultDTO> response = exchangeRateController.convertCrossCurrency("USD", "JPY", amount, testDate);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(expected, response.getBody());
+    }
+
+    @Test
+    void convertCrossCurrency_shouldReturnServerErrorWhenRateMissing() {
+        // Arrange
+        when(currencyFacade.convert("USD", "JPY", BigDecimal.TEN, testDate))
+            .thenThrow(new ExchangeRateException("RATE_NOT_FOUND", "No exchange rate found"));
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> exchangeRateController.convertCrossCurrency("USD", "JPY", BigDecimal.TEN, testDate));
+        assertEquals(500, exception.getStatus().value());
+    }
+
+    @Test
+    void getRateSnapshot_shouldReturnSerializedSnapshot() {
+        // Arrange
+        byte[] json = "{\"date\":\"2024-04-19\",\"rates\":{\"USD\":1.0987}}".getBytes();
+        when(currencyFacade.getRateSnapshot(testDate)).thenReturn(json);
+
+        // Act
+        ResponseEntity<byte[]> response = exchangeRateController.getRateSnapshot(testDate);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertSame(json, response.getBody());
+    }
+
+    @Test
+    void getLatestRateSnapshot_shouldReturnNotFoundWithoutRates() {
+        // Arrange
+        when(currencyFacade.getLatestRateSnapshot()).thenReturn(null);
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> exchangeRateController.getLatestRateSnapshot());
+        assertEquals(404, exception.getStatus().value());
+    }
+
+    @Test
+    void getRateStatistics_shouldReturnStatistics() {
+        // Arrange
+        RateStatisticsDTO statistics = new RateStatisticsDTO("USD", testDate.minusDays(4), testDate, 5,
+            new BigDecimal("1.0700"), new BigDecimal("1.0987"), new BigDecimal("1.0650"), new BigDecimal("1.0987"),
+            new BigDecimal("1.080000"), new BigDecimal("0.012000"));
+        when(currencyFacade.getRateStatistics("USD", testDate.minusDays(6), testDate)).thenReturn(statistics);
+
+        // Act
+        ResponseEntity<RateStatisticsDTO> response =
+            exchangeRateController.getRateStatistics("USD", testDate.minusDays(6), testDate);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(statistics, response.getBody());
+    }
+
+    @Test
+    void getRateStatistics_shouldReturnNotFoundWithoutRatesInRange() {
+        // Arrange
+        when(currencyFacade.getRateStatistics("USD", testDate, testDate)).thenReturn(null);
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> exchangeRateController.getRateStatistics("USD", testDate, testDate));
+        assertEquals(404, exception.getStatus().value());
+    }
+
+    @Test
+    void getRateStatistics_shouldRejectInvalidDateRange() {
+        // Arrange
+        when(currencyFacade.getRateStatistics("USD", testDate, testDate.minusDays(1)))
+            .thenThrow(new ExchangeRateException("INVALID_DATE_RANGE", "Start date is after end date"));
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> exchangeRateController.getRateStatistics("USD", testDate, testDate.minusDays(1)));
+        assertEquals(400, exception.getStatus().value());
+    }
+
     @Test
     void getExchangeRates_shouldHandleInvalidCurrency() {
         // Arrange
@@ -117,7 +324,7 @@ class ExchangeRateControllerTest {
 
         // Act & Assert
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-            () -> exchangeRateController.getExchangeRates("INVALID"));
+            () -> exchangeRateController.getExchangeRates("INVALID", null, null, null, null));
         assertEquals(400, exception.getStatus().value());
     }
 
@@ -129,7 +336,7 @@ class ExchangeRateControllerTest {
 
         // Act & Assert
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-            () -> exchangeRateController.getExchangeRates("USD"));
+            () -> exchangeRateController.getExchangeRates("USD", null, null, null, null));
         assertEquals(500, exception.getStatus().value());
     }
 
@@ -141,7 +348,7 @@ class ExchangeRateControllerTest {
 
         // Act & Assert
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-            () -> exchangeRateController.getExchangeRateForDate(testDate, "INVALID"));
+            () -> exchangeRateController.getExchangeRateForDate(testDate, "INVALID", false));
         assertEquals(400, exception.getStatus().value());
     }
 
@@ -154,7 +361,7 @@ class ExchangeRateControllerTest {
 
         // Act & Assert
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-            () -> exchangeRateController.getExchangeRateForDate(futureDate, "USD"));
+            () -> exchangeRateController.getExchangeRateForDate(futureDate, "USD", false));
         assertEquals(400, exception.getStatus().value());
     }
 
@@ -166,7 +373,7 @@ class ExchangeRateControllerTest {
 
         // Act & Assert
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-            () -> exchangeRateController.getExchangeRateForDate(testDate, "USD"));
+            () -> exchangeRateController.getExchangeRateForDate(testDate, "USD", false));
         assertEquals(500, exception.getStatus().value());
     }
 
@@ -178,7 +385,7 @@ class ExchangeRateControllerTest {
 
         // Act & Assert
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-            () -> exchangeRateController.convertCurrency("INVALID", new BigDecimal("100.00"), testDate));
+            () -> exchangeRateController.convertCurrency("INVALID", new BigDecimal("100.00"), testDate, false));
         assertEquals(400, exception.getStatus().value());
     }
 
@@ -190,7 +397,7 @@ class ExchangeRateControllerTest {
 
         // Act & Assert
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-            () -> exchangeRateController.convertCurrency("USD", new BigDecimal("-100.00"), testDate));
+            () -> exchangeRateController.convertCurrency("USD", new BigDecimal("-100.00"), testDate, false));
         assertEquals(400, exception.getStatus().value());
     }
 
@@ -203,7 +410,7 @@ class ExchangeRateControllerTest {
 
         // Act & Assert
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-            () -> exchangeRateController.convertCurrency("USD", new BigDecimal("100.00"), futureDate));
+            () -> exchangeRateController.convertCurrency("USD", new BigDecimal("100.00"), futureDate, false));
         assertEquals(400, exception.getStatus().value());
     }
 
@@ -215,7 +422,52 @@ class ExchangeRateControllerTest {
 
         // Act & Assert
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-            () -> exchangeRateController.convertCurrency("USD", new BigDecimal("100.00"), testDate));
+            () -> exchangeRateController.convertCurrency("USD", new BigDecimal("100.00"), testDate, false));
         assertEquals(500, exception.getStatus().value());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void convertCurrencyBatch_shouldStreamResultsAndErrorsInOrder() throws IOException {
+        // Arrange
+        List<ConversionRequestDTO> requests = Arrays.asList(
+            new ConversionRequestDTO("USD", new BigDecimal("100.00"), testDate),
+            new ConversionRequestDTO("XYZ", new BigDecimal("5.00"), testDate)
+        );
+        when(currencyFacade.convertBatchToEur(requests)).thenReturn(Stream.of(
+            BatchConversionResultDTO.success(0, new ConversionResultDTO("USD", new BigDecimal("100.00"),
+                new BigDecimal("1.0987"), new BigDecimal("91.02"), testDate)),
+            BatchConversionResultDTO.failure(1, "INVALID_CURRENCY", "Currency code 'XYZ' is not supported")
+        ));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = exchangeRateController.convertCurrencyBatch(requests);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        JsonNode items = objectMapper.readTree(out.toByteArray());
+        assertEquals(2, items.size());
+        assertEquals(0, items.get(0).get("index").asInt());
+        assertEquals("91.02", items.get(0).get("result").get("convertedAmount").asText());
+        assertEquals("2024-04-19", items.get(0).get("result").get("date").asText());
+        assertFalse(items.get(0).has("errorCode"));
+        assertEquals("INVALID_CURRENCY", items.get(1).get("errorCode").asText());
+        assertFalse(items.get(1).has("result"));
+    }
+
+    @Test
+    void convertCurrencyBatch_shouldRejectEmptyAndOversizedBatches() {
+        List<ConversionRequestDTO> oversized = Collections.nCopies(ExchangeRateController.MAX_BATCH_ITEMS + 1,
+            new ConversionRequestDTO("USD", BigDecimal.ONE, testDate));
+
+        ResponseStatusException empty = assertThrows(ResponseStatusException.class,
+            () -> exchangeRateController.convertCurrencyBatch(Collections.emptyList()));
+        ResponseStatusException tooLarge = assertThrows(ResponseStatusException.class,
+            () -> exchangeRateController.convertCurrencyBatch(oversized));
+
+        assertEquals(400, empty.getStatus().value());
+        assertEquals(400, tooLarge.getStatus().value());
+        verifyNoInteractions(currencyFacade);
+    }
+}
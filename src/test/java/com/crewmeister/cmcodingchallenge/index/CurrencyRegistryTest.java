@@ -0,0 +1,54 @@
+package com.crewmeister.cmcodingchallenge.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CurrencyRegistryTest {
+
+    private final CurrencyRegistry registry = new CurrencyRegistry();
+
+    @Test
+    void replace_shouldAssignIdsInCodeOrderAndSkipMalformedCodes() {
+        // When
+        registry.replace(Arrays.asList("USD", "GBP", "INVALID", "usd", "GBP", "AUD"));
+
+        // Then
+        assertEquals(Arrays.asList("AUD", "GBP", "USD"), registry.codes());
+        assertEquals(0, registry.idOf("AUD"));
+        assertEquals(2, registry.idOf("USD"));
+        assertEquals("GBP", registry.codeOf(registry.idOf("GBP")));
+        assertEquals(CurrencyRegistry.NOT_REGISTERED, registry.idOf("JPY"));
+        assertEquals(CurrencyRegistry.NOT_REGISTERED, registry.idOf("usd"));
+    }
+
+    @Test
+    void replace_shouldSwapWholeRegistry() {
+        // Given
+        registry.replace(Arrays.asList("USD", "GBP"));
+
+        // When
+        registry.replace(Arrays.asList("JPY"));
+
+        // Then
+        assertTrue(registry.contains("JPY"));
+        assertFalse(registry.contains("USD"));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void isWellFormed_shouldAcceptOnlyThreeUppercaseLetters() {
+        assertTrue(CurrencyRegistry.isWellFormed("AAA"));
+        assertTrue(CurrencyRegistry.isWellFormed("ZZZ"));
+        assertFalse(CurrencyRegistry.isWellFormed(null));
+        assertFalse(CurrencyRegistry.isWellFormed("US"));
+        assertFalse(CurrencyRegistry.isWellFormed("USDX"));
+        assertFalse(CurrencyRegistry.isWellFormed("U5D"));
+        assertFalse(CurrencyRegistry.isWellFormed("Usd"));
+        assertEquals(CurrencyRegistry.CAPACITY - 1, CurrencyRegistry.slot("ZZZ"));
+    }
+}
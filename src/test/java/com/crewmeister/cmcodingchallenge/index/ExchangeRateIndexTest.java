@@ -0,0 +1,232 @@
+package com.crewmeister.cmcodingchallenge.index;
+
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateIndexTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 4, 15);
+
+    @Mock
+    private ExchangeRateRepository repository;
+
+    private ExchangeRateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ExchangeRateIndex(repository);
+    }
+
+    @Test
+    void rebuild_shouldGroupRowsByCurrency() {
+        // Given
+        when(repository.findAllRatesOrderByCurrencyAndDate()).thenReturn(Arrays.asList(
+            new Object[]{"GBP", MONDAY, new BigDecimal("0.8561")},
+            new Object[]{"USD", MONDAY, new BigDecimal("1.0987")},
+            new Object[]{"USD", MONDAY.plusDays(1), new BigDecimal("1.06545")}
+        ));
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertTrue(index.contains("GBP"));
+        assertEquals(2, index.size("USD"));
+        assertEquals(8561L, index.rateOn("GBP", MONDAY));
+        assertEquals(10987L, index.rateOn("USD", MONDAY));
+        assertEquals(10655L, index.rateOn("USD", MONDAY.plusDays(1)));
+        assertEquals(ExchangeRateIndex.NOT_FOUND, index.rateOn("USD", MONDAY.plusDays(2)));
+        assertEquals(ExchangeRateIndex.NOT_FOUND, index.rateOn("JPY", MONDAY));
+    }
+
+    @Test
+    void merge_shouldAppendAndOverwriteExistingDays() {
+        // Given
+        int monday = (int) MONDAY.toEpochDay();
+        index.merge("USD", new int[]{monday, monday + 2}, new long[]{10000L, 10200L}, 2);
+
+        // When
+        index.merge("USD", new int[]{monday + 1, monday + 2, monday + 3}, new long[]{10100L, 10250L, 10300L}, 3);
+
+        // Then
+        assertEquals(4, index.size("USD"));
+        assertEquals(10000L, index.rateOn("USD", MONDAY));
+        assertEquals(10100L, index.rateOn("USD", MONDAY.plusDays(1)));
+        assertEquals(10250L, index.rateOn("USD", MONDAY.plusDays(2)));
+        assertEquals(10300L, index.rateOn("USD", MONDAY.plusDays(3)));
+    }
+
+    @Test
+    void merge_shouldIgnoreEmptyInput() {
+        index.merge("USD", new int[0], new long[0], 0);
+
+        assertFalse(index.contains("USD"));
+    }
+
+    @Test
+    void copyDescending_shouldReturnNewestFirstWithinRangeUpToCapacity() {
+        // Given: Monday to Friday, with Wednesday missing
+        int monday = (int) MONDAY.toEpochDay();
+        index.merge("USD", new int[]{monday, monday + 1, monday + 3, monday + 4},
+                new long[]{10000L, 10100L, 10300L, 10400L}, 4);
+        int[] days = new int[2];
+        long[] rates = new long[2];
+
+        // When: Tuesday to Wednesday, so the range ends on a missing day
+        int copied = index.copyDescending("USD", monday + 1, monday + 2, days, rates);
+
+        // Then
+        assertEquals(1, copied);
+        assertEquals(monday + 1, days[0]);
+        assertEquals(10100L, rates[0]);
+
+        // When: whole week, page of two
+        copied = index.copyDescending("USD", monday, monday + 6, days, rates);
+
+        // Then
+        assertEquals(2, copied);
+        assertArrayEquals(new int[]{monday + 4, monday + 3}, days);
+        assertArrayEquals(new long[]{10400L, 10300L}, rates);
+        assertEquals(0, index.copyDescending("USD", monday - 7, monday - 1, days, rates));
+        assertEquals(0, index.copyDescending("GBP", monday, monday + 6, days, rates));
+    }
+
+    @Test
+    void floorDay_shouldReturnLatestObservationOnOrBeforeDay() {
+        // Given: Monday and Friday
+        int monday = (int) MONDAY.toEpochDay();
+        index.merge("USD", new int[]{monday, monday + 4}, new long[]{10000L, 10400L}, 2);
+
+        // Then
+        assertEquals(monday, index.floorDay("USD", MONDAY));
+        assertEquals(monday, index.floorDay("USD", MONDAY.plusDays(3)));
+        assertEquals(monday + 4, index.floorDay("USD", MONDAY.plusDays(6)));
+        assertEquals(ExchangeRateIndex.NO_DAY, index.floorDay("USD", MONDAY.minusDays(1)));
+        assertEquals(ExchangeRateIndex.NO_DAY, index.floorDay("GBP", MONDAY));
+    }
+
+    @Test
+    void statistics_shouldSummarizeObservationsBetweenDays() {
+        // Given: Monday to Friday, with Wednesday missing
+        int monday = (int) MONDAY.toEpochDay();
+        index.merge("USD", new int[]{monday, monday + 1, monday + 3, monday + 4},
+                new long[]{10000L, 10400L, 10100L, 10300L}, 4);
+
+        // When: Tuesday to the following Sunday
+        RangeStatistics statistics = index.statistics("USD", monday + 1, monday + 6);
+
+        // Then
+        assertEquals(3, statistics.getCount());
+        assertEquals(monday + 1, statistics.getFirstDay());
+        assertEquals(monday + 4, statistics.getLastDay());
+        assertEquals(10400L, statistics.getFirst());
+        assertEquals(10300L, statistics.getLast());
+        assertEquals(10100L, statistics.getMin());
+        assertEquals(10400L, statistics.getMax());
+        assertEquals(10266.667, statistics.getMean(), 0.001);
+        assertEquals(152.753, statistics.getStandardDeviation(), 0.001);
+        assertNull(index.statistics("USD", monday + 2, monday + 2));
+        assertNull(index.statistics("USD", monday + 4, monday));
+        assertNull(index.statistics("GBP", monday, monday + 6));
+    }
+
+    @Test
+    void statistics_shouldMatchBruteForceAfterIncrementalMerges() {
+        // Given: a history merged in chunks of increasing days, queried between merges
+        Random random = new Random(42);
+        int start = (int) MONDAY.toEpochDay();
+        int[] days = new int[500];
+        long[] rates = new long[500];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = start + i * 2;
+            rates[i] = 9000L + random.nextInt(3000);
+        }
+        int merged = 0;
+        for (int chunk : new int[]{1, 6, 9, 64, 100, 320}) {
+            index.merge("USD", Arrays.copyOfRange(days, merged, merged + chunk),
+                    Arrays.copyOfRange(rates, merged, merged + chunk), chunk);
+            merged += chunk;
+
+            // Then
+            for (int query = 0; query < 200; query++) {
+                int from = random.nextInt(merged);
+                int to = from + random.nextInt(merged - from);
+                RangeStatistics statistics = index.statistics("USD", days[from], days[to]);
+                assertBruteForce(rates, from, to, statistics);
+            }
+        }
+
+        // When: a late correction inside the history invalidates the incremental statistics
+        index.merge("USD", new int[]{days[250]}, new long[]{20000L}, 1);
+        rates[250] = 20000L;
+
+        // Then
+        assertBruteForce(rates, 0, days.length - 1, index.statistics("USD", days[0], days[days.length - 1]));
+        assertBruteForce(rates, 240, 260, index.statistics("USD", days[240], days[260]));
+    }
+
+    @Test
+    void statistics_shouldKeepShortRangesPreciseOnLargeRates() {
+        // Given: 25 years of a rate rising from 2000 to 17000 (like IDR), whose squares sum past 2^53,
+        // ending in ten days that only move by the last fixed-point digit
+        int start = (int) MONDAY.toEpochDay();
+        int[] days = new int[9000];
+        long[] rates = new long[9000];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = start + i;
+            rates[i] = i < 8990 ? 20_000_000L + 16_700L * i : 170_000_000L + (i & 1);
+        }
+        index.merge("IDR", days, rates, days.length);
+        index.statistics("IDR", days[0], days[days.length - 1]);
+
+        // When
+        RangeStatistics statistics = index.statistics("IDR", days[8990], days[8999]);
+
+        // Then
+        assertBruteForce(rates, 8990, 8999, statistics);
+        assertEquals(0.527, statistics.getStandardDeviation(), 0.001);
+    }
+
+    private static void assertBruteForce(long[] rates, int from, int to, RangeStatistics statistics) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        double sum = 0;
+        for (int i = from; i <= to; i++) {
+            min = Math.min(min, rates[i]);
+            max = Math.max(max, rates[i]);
+            sum += rates[i];
+        }
+        int count = to - from + 1;
+        double mean = sum / count;
+        double squares = 0;
+        for (int i = from; i <= to; i++) {
+            squares += (rates[i] - mean) * (rates[i] - mean);
+        }
+        double standardDeviation = count > 1 ? Math.sqrt(squares / (count - 1)) : 0;
+
+        assertEquals(count, statistics.getCount());
+        assertEquals(rates[from], statistics.getFirst());
+        assertEquals(rates[to], statistics.getLast());
+        assertEquals(min, statistics.getMin());
+        assertEquals(max, statistics.getMax());
+        assertEquals(mean, statistics.getMean(), 1e-6);
+        assertEquals(standardDeviation, statistics.getStandardDeviation(), 1e-6);
+    }
+}
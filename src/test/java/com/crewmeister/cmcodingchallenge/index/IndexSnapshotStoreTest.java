@@ -0,0 +1,172 @@
+package com.crewmeister.cmcodingchallenge.index;
+
+import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IndexSnapshotStoreTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 4, 15);
+
+    @TempDir
+    Path directory;
+
+    private final ExchangeRateRepository repository = mock(ExchangeRateRepository.class);
+    private ExchangeRateIndex index;
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        index = new ExchangeRateIndex(repository);
+        file = directory.resolve("index").resolve("exchange-rates.snapshot");
+        int monday = (int) MONDAY.toEpochDay();
+        index.merge("USD", new int[]{monday, monday + 1, monday + 3}, new long[]{10987L, 10655L, 10700L}, 3);
+        index.merge("GBP", new int[]{monday}, new long[]{8561L}, 1);
+        when(repository.findMaxId()).thenReturn(4L);
+        storeNewestDay("GBP", MONDAY);
+        storeNewestDay("USD", MONDAY.plusDays(3));
+    }
+
+    @Test
+    void save_shouldServeIndexFromMappedSnapshot() {
+        // When
+        new IndexSnapshotStore(index, repository, file.toString(), true).save();
+
+        // Then
+        assertTrue(Files.exists(file));
+        assertTrue(index.contents().get("USD") instanceof IndexSnapshotFile.MappedSeries);
+        assertEquals(3, index.size("USD"));
+        assertEquals(10655L, index.rateOn("USD", MONDAY.plusDays(1)));
+        assertEquals(ExchangeRateIndex.NOT_FOUND, index.rateOn("USD", MONDAY.plusDays(2)));
+        assertEquals((int) MONDAY.plusDays(1).toEpochDay(), index.floorDay("USD", MONDAY.plusDays(2)));
+        assertEquals(8561L, index.rateOn("GBP", MONDAY));
+        assertTrue(index.rateMatrix().contains("GBP"));
+    }
+
+    @Test
+    void save_shouldKeepRateMatrixOfUnchangedIndex() {
+        // Given
+        RateMatrix matrix = index.rateMatrix();
+
+        // When
+        new IndexSnapshotStore(index, repository, file.toString(), true).save();
+
+        // Then
+        assertSame(matrix, index.rateMatrix());
+    }
+
+    @Test
+    void load_shouldMapSnapshotIntoFreshIndex() {
+        // Given: a snapshot written by another instance
+        new IndexSnapshotStore(index, repository, file.toString(), true).save();
+        ExchangeRateIndex fresh = new ExchangeRateIndex(repository);
+
+        // When
+        boolean loaded = new IndexSnapshotStore(fresh, repository, file.toString(), true).load(4);
+
+        // Then
+        assertTrue(loaded);
+        assertEquals(10987L, fresh.rateOn("USD", MONDAY));
+        assertEquals(10700L, fresh.rateOn("USD", MONDAY.plusDays(3)));
+        assertEquals(1, fresh.size("GBP"));
+        verify(repository, never()).findAllRatesOrderByCurrencyAndDate();
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    void load_shouldIgnoreSnapshotWithDifferentRateCount() {
+        // Given: the database gained a rate after the snapshot was written
+        new IndexSnapshotStore(index, repository, file.toString(), true).save();
+        ExchangeRateIndex fresh = new ExchangeRateIndex(repository);
+
+        // When
+        boolean loaded = new IndexSnapshotStore(fresh, repository, file.toString(), true).load(5);
+
+        // Then
+        assertFalse(loaded);
+        assertFalse(fresh.contains("USD"));
+    }
+
+    @Test
+    void load_shouldIgnoreSnapshotOfDifferentDatabaseWithSameRateCount() {
+        // Given: a restored database holding as many rates, but not the same ones
+        new IndexSnapshotStore(index, repository, file.toString(), true).save();
+        when(repository.findMaxId()).thenReturn(9L);
+        ExchangeRateIndex fresh = new ExchangeRateIndex(repository);
+
+        // When
+        boolean loaded = new IndexSnapshotStore(fresh, repository, file.toString(), true).load(4);
+
+        // Then
+        assertFalse(loaded);
+        assertFalse(fresh.contains("USD"));
+    }
+
+    @Test
+    void load_shouldIgnoreSnapshotEndingOnDifferentDay() {
+        // Given: as many rates and the same highest id, but USD ends a day later in the database
+        new IndexSnapshotStore(index, repository, file.toString(), true).save();
+        storeNewestDay("USD", MONDAY.plusDays(4));
+        ExchangeRateIndex fresh = new ExchangeRateIndex(repository);
+
+        // When
+        boolean loaded = new IndexSnapshotStore(fresh, repository, file.toString(), true).load(4);
+
+        // Then
+        assertFalse(loaded);
+        assertFalse(fresh.contains("USD"));
+    }
+
+    @Test
+    void load_shouldIgnoreCorruptSnapshot() throws IOException {
+        // Given: one rate byte flipped on disk
+        new IndexSnapshotStore(index, repository, file.toString(), true).save();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x01;
+        Files.write(file, bytes);
+        ExchangeRateIndex fresh = new ExchangeRateIndex(repository);
+
+        // When
+        boolean loaded = new IndexSnapshotStore(fresh, repository, file.toString(), true).load(4);
+
+        // Then
+        assertFalse(loaded);
+        assertFalse(fresh.contains("USD"));
+    }
+
+    @Test
+    void load_shouldDoNothingWhenDisabled() {
+        // Given
+        new IndexSnapshotStore(index, repository, file.toString(), true).save();
+        ExchangeRateIndex fresh = new ExchangeRateIndex(repository);
+
+        // When
+        boolean loaded = new IndexSnapshotStore(fresh, repository, file.toString(), false).load(4);
+
+        // Then
+        assertFalse(loaded);
+    }
+
+    private void storeNewestDay(String currency, LocalDate day) {
+        when(repository.findFirstByCurrencyOrderByDateDesc(currency))
+            .thenReturn(Optional.of(new ExchangeRate(currency, day, BigDecimal.ONE)));
+    }
+}
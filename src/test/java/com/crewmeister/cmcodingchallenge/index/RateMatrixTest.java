@@ -0,0 +1,105 @@
+package com.crewmeister.cmcodingchallenge.index;
+
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class RateMatrixTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 4, 15);
+
+    @Mock
+    private ExchangeRateRepository repository;
+
+    private ExchangeRateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ExchangeRateIndex(repository);
+        int monday = (int) MONDAY.toEpochDay();
+        // 1 EUR = 1.0800 USD = 164.5000 JPY on Monday; JPY also on Tuesday
+        index.merge("USD", new int[]{monday}, new long[]{10800L}, 1);
+        index.merge("JPY", new int[]{monday, monday + 1}, new long[]{1645000L, 1650000L}, 2);
+    }
+
+    @Test
+    void crossRate_shouldTriangulateThroughEur() {
+        // When
+        RateMatrix matrix = index.rateMatrix();
+
+        // Then
+        assertEquals(2, matrix.currencyCount());
+        assertEquals(2, matrix.dayCount());
+        assertEquals(new BigDecimal("152.3148148148"), scaled(matrix.crossRate("USD", "JPY", MONDAY)));
+        assertEquals(new BigDecimal("0.0065653495"), scaled(matrix.crossRate("JPY", "USD", MONDAY)));
+        assertEquals(new BigDecimal("1.0800000000"), scaled(matrix.crossRate("EUR", "USD", MONDAY)));
+        assertEquals(new BigDecimal("0.9259259259"), scaled(matrix.crossRate("USD", "EUR", MONDAY)));
+        assertEquals(BigDecimal.ONE.setScale(10), scaled(matrix.crossRate("EUR", "EUR", MONDAY)));
+    }
+
+    @Test
+    void crossRate_shouldBeNullWithoutObservationForBothCurrencies() {
+        // When
+        RateMatrix matrix = index.rateMatrix();
+
+        // Then: USD has no Tuesday rate, and nothing exists outside the covered days
+        assertNull(matrix.crossRate("USD", "JPY", MONDAY.plusDays(1)));
+        assertNull(matrix.crossRate("USD", "JPY", MONDAY.minusDays(1)));
+        assertNull(matrix.crossRate("USD", "JPY", MONDAY.plusDays(30)));
+        assertTrue(matrix.contains("EUR"));
+        assertFalse(matrix.contains("GBP"));
+        assertNull(matrix.crossRate("GBP", "USD", MONDAY));
+    }
+
+    @Test
+    void rateMatrix_shouldBeReusedUntilNextMerge() {
+        // Given
+        RateMatrix before = index.rateMatrix();
+        assertSame(before, index.rateMatrix());
+
+        // When
+        index.merge("USD", new int[]{(int) MONDAY.plusDays(1).toEpochDay()}, new long[]{10900L}, 1);
+
+        // Then
+        RateMatrix after = index.rateMatrix();
+        assertNotSame(before, after);
+        assertEquals(new BigDecimal("151.3761467891"), scaled(after.crossRate("USD", "JPY", MONDAY.plusDays(1))));
+    }
+
+    @Test
+    void ratesOn_shouldReadEveryCurrencyFromOneRow() {
+        // When
+        RateMatrix matrix = index.rateMatrix();
+        Map<String, BigDecimal> monday = matrix.ratesOn(MONDAY);
+
+        // Then: currencies in code order, and days without an observation are left out
+        assertEquals(Arrays.asList("JPY", "USD"), Arrays.asList(monday.keySet().toArray()));
+        assertEquals(new BigDecimal("164.5000"), monday.get("JPY"));
+        assertEquals(new BigDecimal("1.0800"), monday.get("USD"));
+        assertEquals(1, matrix.ratesOn(MONDAY.plusDays(1)).size());
+        assertTrue(matrix.ratesOn(MONDAY.minusDays(1)).isEmpty());
+        assertEquals(MONDAY.plusDays(1), matrix.lastDate());
+        assertNull(RateMatrix.EMPTY.lastDate());
+    }
+
+    private static BigDecimal scaled(BigDecimal rate) {
+        return rate.setScale(10, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,107 @@
+package com.crewmeister.cmcodingchallenge.integration;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BundesbankCsvParserTest {
+
+    private static final String SAMPLE_CSV =
+        ",BBEX3.D.USD.EUR.BB.AC.000,BBEX3.D.USD.EUR.BB.AC.000_FLAGS\n" +
+        "unit,USD,\n" +
+        "unit multiplier,one,\n" +
+        "last update,2024-04-19 14:08:42,\n" +
+        "1999-01-01,.,No value available\n" +
+        "1999-01-04,1.1789,\n" +
+        "\"2000-02-29\",\"0.98765\",\n" +
+        "2024-04-19,1.06545,\r\n" +
+        "2024-04-22,156,\n" +
+        "2024-02-30,1.1,\n" +
+        "2024-04-23,1.2e3,\n" +
+        "2024-04-24,1.0701";
+
+    private final BundesbankCsvParser parser = new BundesbankCsvParser();
+
+    @Test
+    void parse_shouldEmitValidObservationsAndSkipEverythingElse() throws IOException {
+        List<long[]> observations = new ArrayList<>();
+
+        int count = parser.parse(stream(SAMPLE_CSV), (day, rate) -> observations.add(new long[]{day, rate}));
+
+        assertThat(count).isEqualTo(5);
+        assertThat(observations).containsExactly(
+            new long[]{LocalDate.of(1999, 1, 4).toEpochDay(), 11789L},
+            new long[]{LocalDate.of(2000, 2, 29).toEpochDay(), 9877L},
+            new long[]{LocalDate.of(2024, 4, 19).toEpochDay(), 10655L},
+            new long[]{LocalDate.of(2024, 4, 22).toEpochDay(), 1560000L},
+            new long[]{LocalDate.of(2024, 4, 24).toEpochDay(), 10701L}
+        );
+    }
+
+    @Test
+    void parse_shouldHandleLinesSpanningBufferBoundaries() throws IOException {
+        StringBuilder csv = new StringBuilder("last update,2024-04-19 14:08:42,\n");
+        LocalDate start = LocalDate.of(1999, 1, 4);
+        for (int i = 0; i < 20_000; i++) {
+            csv.append(start.plusDays(i)).append(',').append("1.").append(1000 + i % 9000).append(",\n");
+        }
+        long[] lastObservation = new long[2];
+
+        int count = parser.parse(stream(csv.toString()), (day, rate) -> {
+            lastObservation[0] = day;
+            lastObservation[1] = rate;
+        });
+
+        assertThat(count).isEqualTo(20_000);
+        assertThat(lastObservation[0]).isEqualTo(start.plusDays(19_999).toEpochDay());
+        assertThat(lastObservation[1]).isEqualTo(10000L + 1000 + 19_999 % 9000);
+    }
+
+    @Test
+    void parse_shouldReturnZeroForEmptyResponse() throws IOException {
+        assertThat(parser.parse(stream(""), (day, rate) -> { })).isZero();
+    }
+
+    @Test
+    void parseMultiSeries_shouldDemultiplexColumnsByHeaderSeriesKeys() throws IOException {
+        String csv =
+            ",BBEX3.D.AUD.EUR.BB.AC.000,BBEX3.D.AUD.EUR.BB.AC.000_FLAGS,\"BBEX3.D.USD.EUR.BB.AC.000\"," +
+                "BBEX3.D.USD.EUR.BB.AC.000_FLAGS,BBEX3.D.XX1.EUR.BB.AC.000\n" +
+            "unit,AUD,,USD,,XX1\n" +
+            "last update,2024-04-19 14:08:42,,2024-04-19 14:08:42,,\n" +
+            "1999-01-04,1.9100,,1.1789,,9.9\n" +
+            "1999-01-05,.,No value available,\"1.17903\",,\r\n" +
+            "1999-01-06,1.8944,";
+        List<String> observations = new ArrayList<>();
+
+        int count = parser.parseMultiSeries(stream(csv),
+            (currency, day, rate) -> observations.add(currency + "@" + LocalDate.ofEpochDay(day) + "=" + rate));
+
+        assertThat(count).isEqualTo(4);
+        assertThat(observations).containsExactly(
+            "AUD@1999-01-04=19100",
+            "USD@1999-01-04=11789",
+            "USD@1999-01-05=11790",
+            "AUD@1999-01-06=18944"
+        );
+    }
+
+    @Test
+    void parseMultiSeries_shouldIgnoreRowsBeforeHeader() throws IOException {
+        int count = parser.parseMultiSeries(stream("1999-01-04,1.1789,\n"), (currency, day, rate) -> { });
+
+        assertThat(count).isZero();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
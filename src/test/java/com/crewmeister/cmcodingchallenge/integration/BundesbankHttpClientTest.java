@@ -0,0 +1,120 @@
+package com.crewmeister.cmcodingchallenge.integration;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BundesbankHttpClientTest {
+
+    private static final String BODY = "1999-01-04,1.1789,\n";
+
+    private HttpServer server;
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+    private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService bodyExecutor = Executors.newFixedThreadPool(4);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/gzip", exchange -> {
+            assertThat(exchange.getRequestHeaders().getFirst("Accept-Encoding")).contains("gzip");
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+                out.write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            maxConcurrentRequests.accumulateAndGet(concurrentRequests.incrementAndGet(), Math::max);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            concurrentRequests.decrementAndGet();
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+        bodyExecutor.shutdownNow();
+    }
+
+    @Test
+    void get_shouldDecompressGzipBodies() {
+        BundesbankHttpClient client = client(2);
+
+        String body = client.get(url("/gzip"), Collections.emptyMap(),
+            (status, headers, in) -> StreamUtils.copyToString(in, StandardCharsets.UTF_8)).join();
+
+        assertThat(body).isEqualTo(BODY);
+    }
+
+    @Test
+    void get_shouldLimitRequestsInFlight() throws InterruptedException {
+        BundesbankHttpClient client = client(2);
+        List<CompletableFuture<Integer>> responses = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            responses.add(client.get(url("/slow"), Collections.emptyMap(), (status, headers, in) -> status));
+        }
+        Thread.sleep(300);
+        release.countDown();
+
+        assertThat(responses).allSatisfy(response -> assertThat(response.join()).isEqualTo(204));
+        assertThat(maxConcurrentRequests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_shouldHoldSlotUntilAbandonedRequestEnds() throws InterruptedException {
+        BundesbankHttpClient client = client(1);
+
+        CompletableFuture<Integer> abandoned = client.get(url("/slow"), Collections.emptyMap(), (status, headers, in) -> status)
+            .orTimeout(100, TimeUnit.MILLISECONDS);
+        CompletableFuture<Integer> next = client.get(url("/slow"), Collections.emptyMap(), (status, headers, in) -> status);
+        Thread.sleep(300);
+
+        // The caller gave up, but the stalled request still runs on the server and keeps the only slot
+        assertThat(abandoned).isCompletedExceptionally();
+        assertThat(next).isNotDone();
+        release.countDown();
+
+        assertThat(next.join()).isEqualTo(204);
+        assertThat(maxConcurrentRequests.get()).isEqualTo(1);
+    }
+
+    private BundesbankHttpClient client(int maxInFlight) {
+        return new BundesbankHttpClient(bodyExecutor, Duration.ofSeconds(5), Duration.ofSeconds(5), maxInFlight);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+}
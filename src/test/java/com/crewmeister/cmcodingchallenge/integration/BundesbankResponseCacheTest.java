@@ -0,0 +1,135 @@
+package com.crewmeister.cmcodingchallenge.integration;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BundesbankResponseCacheTest {
+
+    private static final String BODY = "1999-01-04,1.1789,\n";
+    private static final String ETAG = "\"v1\"";
+
+    @TempDir
+    Path cacheDirectory;
+
+    private HttpServer server;
+    private final List<String> receivedIfNoneMatch = new ArrayList<>();
+    private BundesbankResponseCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            receivedIfNoneMatch.add(ifNoneMatch);
+            if (ETAG.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("ETag", ETAG);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        BundesbankHttpClient httpClient = new BundesbankHttpClient(Runnable::run, Duration.ofSeconds(5), Duration.ofSeconds(5), 2);
+        cache = new BundesbankResponseCache(httpClient, cacheDirectory.toString(), true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void fetch_shouldSkipReaderWhenServerAnswersNotModified() throws IOException {
+        String url = url("/series?startPeriod=2024-01-01");
+
+        Optional<String> first = cache.fetch("D.USD.EUR.BB.AC.000", url, false, BundesbankResponseCacheTest::read).join();
+        Optional<String> second = cache.<String>fetch("D.USD.EUR.BB.AC.000", url, false, body -> {
+            throw new AssertionError("Body must not be read on 304");
+        }).join();
+
+        assertThat(first).contains(BODY);
+        assertThat(second).isEmpty();
+        assertThat(receivedIfNoneMatch).containsExactly(null, ETAG);
+        try (InputStream stored = cache.openStoredResponse("D.USD.EUR.BB.AC.000").orElseThrow()) {
+            assertThat(read(stored)).isEqualTo(BODY);
+        }
+    }
+
+    @Test
+    void fetch_shouldNotSendValidatorsForDifferentUrl() {
+        cache.fetch("D.USD.EUR.BB.AC.000", url("/series?startPeriod=2024-01-01"), false, BundesbankResponseCacheTest::read).join();
+
+        Optional<String> result = cache.fetch("D.USD.EUR.BB.AC.000",
+            url("/series?startPeriod=2024-01-02"), false, BundesbankResponseCacheTest::read).join();
+
+        assertThat(result).contains(BODY);
+        assertThat(receivedIfNoneMatch).containsExactly(null, null);
+    }
+
+    @Test
+    void fetch_shouldDownloadAgainAfterInvalidate() {
+        String url = url("/series");
+        cache.fetch("D.USD.EUR.BB.AC.000", url, false, BundesbankResponseCacheTest::read).join();
+
+        cache.invalidate("D.USD.EUR.BB.AC.000");
+        Optional<String> result = cache.fetch("D.USD.EUR.BB.AC.000", url, false, BundesbankResponseCacheTest::read).join();
+
+        assertThat(result).contains(BODY);
+        assertThat(receivedIfNoneMatch).containsExactly(null, null);
+    }
+
+    @Test
+    void fetch_shouldReplayStoredResponseOnNotModifiedWhenCallerHasNoData() {
+        String url = url("/series");
+        cache.fetch("D.USD.EUR.BB.AC.000", url, false, BundesbankResponseCacheTest::read).join();
+
+        // The database was reset since, so the caller holds none of the unchanged series
+        Optional<String> result = cache.fetch("D.USD.EUR.BB.AC.000", url, true, BundesbankResponseCacheTest::read).join();
+
+        assertThat(result).contains(BODY);
+        assertThat(receivedIfNoneMatch).containsExactly(null, ETAG);
+    }
+
+    @Test
+    void fetch_shouldNotSendValidatorsForReplayWithoutStoredResponse() throws IOException {
+        String url = url("/series");
+        cache.fetch("D.USD.EUR.BB.AC.000", url, false, BundesbankResponseCacheTest::read).join();
+        Files.delete(cacheDirectory.resolve("D.USD.EUR.BB.AC.000.csv.gz"));
+
+        Optional<String> result = cache.fetch("D.USD.EUR.BB.AC.000", url, true, BundesbankResponseCacheTest::read).join();
+
+        assertThat(result).contains(BODY);
+        assertThat(receivedIfNoneMatch).containsExactly(null, null);
+    }
+
+    private String url(String pathAndQuery) {
+        return "http://localhost:" + server.getAddress().getPort() + pathAndQuery;
+    }
+
+    private static String read(InputStream body) throws IOException {
+        return StreamUtils.copyToString(body, StandardCharsets.UTF_8);
+    }
+}
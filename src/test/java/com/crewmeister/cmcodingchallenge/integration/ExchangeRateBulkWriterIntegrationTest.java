@@ -0,0 +1,82 @@
+package com.crewmeister.cmcodingchallenge.integration;
+
+import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.index.RateSeries;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBulkWriter;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ExchangeRateBulkWriterIntegrationTest {
+
+    private static final LocalDate START = LocalDate.of(2023, 1, 2);
+
+    @Autowired
+    private ExchangeRateBulkWriter bulkWriter;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateRepository.deleteAll();
+    }
+
+    @Test
+    void write_shouldInsertAllRowsAcrossChunks() {
+        // Given: more rows than one chunk
+        RateSeries series = new RateSeries("USD");
+        for (int i = 0; i < 2500; i++) {
+            series.add((int) START.plusDays(i).toEpochDay(), 10000L + i);
+        }
+
+        // When
+        int written = bulkWriter.write(series);
+
+        // Then
+        assertThat(written).isEqualTo(2500);
+        assertThat(exchangeRateRepository.count()).isEqualTo(2500);
+        assertThat(exchangeRateRepository.findFirstByCurrencyOrderByDateDesc("USD"))
+            .map(ExchangeRate::getRate)
+            .contains(new BigDecimal("1.2499"));
+    }
+
+    @Test
+    void write_shouldUpsertExistingCurrencyAndDate() {
+        // Given: a stored rate for the first day
+        exchangeRateRepository.save(new ExchangeRate("USD", START, new BigDecimal("1.0000")));
+        RateSeries series = new RateSeries("USD");
+        series.add((int) START.toEpochDay(), 10500L);
+        series.add((int) START.plusDays(1).toEpochDay(), 10600L);
+
+        // When
+        bulkWriter.write(series);
+
+        // Then: the existing day is updated rather than duplicated
+        List<ExchangeRate> rates = exchangeRateRepository.findByCurrencyOrderByDateDesc("USD");
+        assertThat(rates).extracting(ExchangeRate::getDate).containsExactly(START.plusDays(1), START);
+        assertThat(rates).extracting(ExchangeRate::getRate)
+            .containsExactly(new BigDecimal("1.0600"), new BigDecimal("1.0500"));
+    }
+
+    @Test
+    void constructor_shouldRejectNonPositiveChunkSize() {
+        // When / Then: a chunk size of 0 would never advance through the series
+        assertThatThrownBy(() -> new ExchangeRateBulkWriter(null, mock(PlatformTransactionManager.class), 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,7 +1,13 @@
 package com.crewmeister.cmcodingchallenge.integration;
 
 import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.dto.BatchConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.ConversionRequestDTO;
 import com.crewmeister.cmcodingchallenge.dto.ConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.CrossConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.RateSnapshotDTO;
+import com.crewmeister.cmcodingchallenge.index.CurrencyRegistry;
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
 import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,7 +15,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -33,10 +43,18 @@ class ExchangeRateIntegrationTest {
     @Autowired
     private ExchangeRateRepository exchangeRateRepository;
 
+    @Autowired
+    private ExchangeRateIndex exchangeRateIndex;
+
+    @Autowired
+    private CurrencyRegistry currencyRegistry;
+
     @BeforeEach
     void setUp() {
-        // Clear the repository before each test
+        // Clear the repository before each test, and the index so lookups go to the repository
         exchangeRateRepository.deleteAll();
+        exchangeRateIndex.rebuild();
+        currencyRegistry.replace(Arrays.asList("USD", "GBP"));
     }
 
     @Test
@@ -62,6 +80,65 @@ class ExchangeRateIntegrationTest {
         assertThat(response.getBody()[1].getRate()).isEqualTo(new BigDecimal("1.2345")); // Second rate is for 2023-01-01
     }
 
+    @Test
+    void testGetExchangeRatesPaged() {
+        // Given: Three USD rates in the database
+        exchangeRateRepository.saveAll(Arrays.asList(
+            new ExchangeRate("USD", LocalDate.of(2023, 1, 2), new BigDecimal("1.2345")),
+            new ExchangeRate("USD", LocalDate.of(2023, 1, 3), new BigDecimal("1.2346")),
+            new ExchangeRate("USD", LocalDate.of(2023, 1, 4), new BigDecimal("1.2347"))
+        ));
+        String url = "http://localhost:" + port + "/api/v1/exchange-rates?currency=USD&from=2023-01-01&to=2023-01-31&limit=2";
+
+        // When: Requesting the first page
+        ResponseEntity<ExchangeRate[]> first = restTemplate.getForEntity(url, ExchangeRate[].class);
+
+        // Then: The two newest rates come back with a cursor for the rest
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody()).extracting(ExchangeRate::getDate)
+            .containsExactly(LocalDate.of(2023, 1, 4), LocalDate.of(2023, 1, 3));
+        String cursor = first.getHeaders().getFirst("X-Next-Cursor");
+        assertThat(cursor).isNotNull();
+
+        // When: Following the cursor
+        ResponseEntity<ExchangeRate[]> second = restTemplate.getForEntity(url + "&cursor=" + cursor, ExchangeRate[].class);
+
+        // Then: The last rate comes back and there is no further page
+        assertThat(second.getBody()).extracting(ExchangeRate::getDate).containsExactly(LocalDate.of(2023, 1, 2));
+        assertThat(second.getHeaders().containsKey("X-Next-Cursor")).isFalse();
+    }
+
+    @Test
+    void testExportExchangeRatesByContentNegotiation() {
+        // Given: Two USD rates in the database
+        exchangeRateRepository.saveAll(Arrays.asList(
+            new ExchangeRate("USD", LocalDate.of(2023, 1, 2), new BigDecimal("1.2345")),
+            new ExchangeRate("USD", LocalDate.of(2023, 1, 3), new BigDecimal("1.2346"))
+        ));
+        String url = "http://localhost:" + port + "/api/v1/exchange-rates?currency=USD";
+
+        // When: Asking for NDJSON, CSV and anything
+        ResponseEntity<String> ndjson = getWithAccept(url, "application/x-ndjson");
+        ResponseEntity<String> csv = getWithAccept(url + "&from=2023-01-03", "text/csv");
+        ResponseEntity<String> any = getWithAccept(url, "*/*");
+
+        // Then: Each format is streamed row by row, newest first, and JSON stays the default
+        assertThat(ndjson.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_NDJSON)).isTrue();
+        assertThat(ndjson.getBody()).isEqualTo(
+            "{\"currency\":\"USD\",\"date\":\"2023-01-03\",\"rate\":1.2346}\n" +
+            "{\"currency\":\"USD\",\"date\":\"2023-01-02\",\"rate\":1.2345}\n");
+        assertThat(csv.getHeaders().getContentType().isCompatibleWith(MediaType.parseMediaType("text/csv"))).isTrue();
+        assertThat(csv.getBody()).isEqualTo("currency,date,rate\nUSD,2023-01-03,1.2346\n");
+        assertThat(any.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(any.getBody()).startsWith("[");
+    }
+
+    private ResponseEntity<String> getWithAccept(String url, String accept) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT, accept);
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
     @Test
     void testGetExchangeRateForDate() {
         // Given: An exchange rate in the database
@@ -100,6 +177,99 @@ class ExchangeRateIntegrationTest {
         assertThat(response.getBody().getDate()).isEqualTo(LocalDate.of(2023, 1, 1));
     }
 
+    @Test
+    void testConvertCurrencyAsOfWeekend() {
+        // Given: A Friday rate and nothing for the weekend
+        exchangeRateRepository.save(new ExchangeRate("USD", LocalDate.of(2023, 1, 6), new BigDecimal("1.2345")));
+
+        // When: Converting on Sunday as of that date
+        String url = "http://localhost:" + port + "/api/v1/exchange-rates/convert?currency=USD&amount=100.00&date=2023-01-08&asOf=true";
+        ResponseEntity<ConversionResultDTO> response = restTemplate.getForEntity(url, ConversionResultDTO.class);
+
+        // Then: The Friday rate is used and reported
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getConvertedAmount()).isEqualTo(new BigDecimal("81.00"));
+        assertThat(response.getBody().getDate()).isEqualTo(LocalDate.of(2023, 1, 8));
+        assertThat(response.getBody().getRateDate()).isEqualTo(LocalDate.of(2023, 1, 6));
+    }
+
+    @Test
+    void testConvertCrossCurrencyFromRateMatrix() {
+        // Given: USD and GBP rates, indexed
+        exchangeRateRepository.saveAll(Arrays.asList(
+            new ExchangeRate("USD", LocalDate.of(2023, 1, 2), new BigDecimal("1.0800")),
+            new ExchangeRate("GBP", LocalDate.of(2023, 1, 2), new BigDecimal("0.8640"))
+        ));
+        exchangeRateIndex.rebuild();
+
+        // When: Converting USD to GBP
+        String url = "http://localhost:" + port + "/api/v1/exchange-rates/convert/cross?from=USD&to=GBP&amount=100.00&date=2023-01-02";
+        ResponseEntity<CrossConversionResultDTO> response = restTemplate.getForEntity(url, CrossConversionResultDTO.class);
+
+        // Then: The amount is triangulated through EUR
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getRate()).isEqualByComparingTo("0.8");
+        assertThat(response.getBody().getConvertedAmount()).isEqualTo(new BigDecimal("80.00"));
+    }
+
+    @Test
+    void testGetRateSnapshotForDateAndLatest() {
+        // Given: Rates for two currencies, indexed
+        exchangeRateRepository.saveAll(Arrays.asList(
+            new ExchangeRate("USD", LocalDate.of(2023, 1, 2), new BigDecimal("1.0800")),
+            new ExchangeRate("GBP", LocalDate.of(2023, 1, 2), new BigDecimal("0.8640")),
+            new ExchangeRate("USD", LocalDate.of(2023, 1, 3), new BigDecimal("1.0900"))
+        ));
+        exchangeRateIndex.rebuild();
+
+        // When: Fetching one date, and the latest
+        String baseUrl = "http://localhost:" + port + "/api/v1/exchange-rates/snapshot/";
+        ResponseEntity<RateSnapshotDTO> byDate = restTemplate.getForEntity(baseUrl + "2023-01-02", RateSnapshotDTO.class);
+        ResponseEntity<RateSnapshotDTO> latest = restTemplate.getForEntity(baseUrl + "latest", RateSnapshotDTO.class);
+
+        // Then: Every currency in one response
+        assertThat(byDate.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(byDate.getHeaders().getETag()).isNotNull();
+        assertThat(byDate.getBody().getRates()).containsOnlyKeys("GBP", "USD");
+        assertThat(byDate.getBody().getRates().get("GBP")).isEqualByComparingTo("0.8640");
+        assertThat(latest.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(latest.getBody().getDate()).isEqualTo(LocalDate.of(2023, 1, 3));
+        assertThat(latest.getBody().getRates()).containsOnlyKeys("USD");
+    }
+
+    @Test
+    void testHistoricalRateIsImmutableAndRevalidatesWithNotModified() {
+        // Given: A historical rate
+        exchangeRateRepository.save(new ExchangeRate("USD", LocalDate.of(2023, 1, 2), new BigDecimal("1.2345")));
+        String url = "http://localhost:" + port + "/api/v1/exchange-rates/2023-01-02?currency=USD";
+
+        // When: Fetching it, then revalidating with the returned tag
+        ResponseEntity<String> first = restTemplate.getForEntity(url, String.class);
+        String etag = first.getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<String> second = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        // Then: The first response is tagged and immutable, the second is a bodiless 304
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(etag).isNotNull();
+        assertThat(first.getHeaders().getCacheControl()).contains("immutable");
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getBody()).isNull();
+    }
+
+    @Test
+    void testErrorResponsesCarryNoValidators() {
+        // When: Asking for a rate that does not exist
+        String url = "http://localhost:" + port + "/api/v1/exchange-rates/2023-01-02?currency=USD";
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+        // Then
+        assertThat(response.getStatusCode().isError()).isTrue();
+        assertThat(response.getHeaders().getETag()).isNull();
+        assertThat(response.getHeaders().getCacheControl()).isNull();
+    }
+
     @Test
     void testInvalidCurrency() {
         // When: Making a request with an invalid currency
@@ -130,4 +300,25 @@ class ExchangeRateIntegrationTest {
         // Then: Verify the response
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
+
+    @Test
+    void testConvertCurrencyBatch() {
+        // Given: An exchange rate in the database
+        exchangeRateRepository.save(new ExchangeRate("USD", LocalDate.of(2023, 1, 1), new BigDecimal("1.2345")));
+        List<ConversionRequestDTO> requests = Arrays.asList(
+            new ConversionRequestDTO("USD", new BigDecimal("100.00"), LocalDate.of(2023, 1, 1)),
+            new ConversionRequestDTO("USD", new BigDecimal("100.00"), LocalDate.of(2023, 1, 2))
+        );
+
+        // When: Posting a batch with one convertible and one unknown date
+        String url = "http://localhost:" + port + "/api/v1/exchange-rates/convert/batch";
+        ResponseEntity<BatchConversionResultDTO[]> response =
+            restTemplate.postForEntity(url, requests, BatchConversionResultDTO[].class);
+
+        // Then: Both items come back in order, the second one with its own error
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(2);
+        assertThat(response.getBody()[0].getResult().getConvertedAmount()).isEqualTo(new BigDecimal("81.00"));
+        assertThat(response.getBody()[1].getErrorCode()).isEqualTo("RATE_NOT_FOUND");
+    }
 }
@@ -0,0 +1,117 @@
+package com.crewmeister.cmcodingchallenge.interceptor;
+
+import com.crewmeister.cmcodingchallenge.controller.ExchangeRateController;
+import com.crewmeister.cmcodingchallenge.service.DatasetVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+class ConditionalRequestInterceptorTest {
+
+    @Mock
+    private DatasetVersion datasetVersion;
+
+    private ConditionalRequestInterceptor interceptor;
+    private HandlerMethod rateForDate;
+    private HandlerMethod export;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        interceptor = new ConditionalRequestInterceptor(datasetVersion, Duration.ofDays(2), Duration.ofDays(365));
+        lenient().when(datasetVersion.current()).thenReturn("abc.1");
+        ExchangeRateController controller = mock(ExchangeRateController.class);
+        rateForDate = new HandlerMethod(controller, ExchangeRateController.class.getMethod(
+                "getExchangeRateForDate", LocalDate.class, String.class, boolean.class));
+        export = new HandlerMethod(controller, ExchangeRateController.class.getMethod(
+                "exportExchangeRatesCsv", String.class, LocalDate.class, LocalDate.class));
+    }
+
+    @Test
+    void preHandle_shouldAnswerNotModifiedForCurrentTag() {
+        // Given
+        MockHttpServletRequest request = get("2023-01-02");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc.0\", W/\"abc.1\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean proceed = interceptor.preHandle(request, response, rateForDate);
+
+        // Then
+        assertFalse(proceed);
+        assertEquals(304, response.getStatus());
+        assertEquals("\"abc.1\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("max-age=31536000, public, immutable", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void preHandle_shouldProceedAndRecordTagForStaleOrMissingTag() {
+        // Given
+        MockHttpServletRequest request = get("2023-01-02");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc.0\"");
+
+        // When
+        boolean proceed = interceptor.preHandle(request, new MockHttpServletResponse(), rateForDate);
+
+        // Then
+        assertTrue(proceed);
+        assertEquals("\"abc.1\"", request.getAttribute(ConditionalRequestInterceptor.ETAG_ATTRIBUTE));
+    }
+
+    @Test
+    void preHandle_shouldSkipStreamedExportsAndWrites() {
+        // Given
+        MockHttpServletRequest exportRequest = new MockHttpServletRequest("GET", "/api/v1/exchange-rates");
+        exportRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc.1\"");
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/v1/exchange-rates/convert/batch");
+        post.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc.1\"");
+
+        // Then
+        assertTrue(interceptor.preHandle(exportRequest, new MockHttpServletResponse(), export));
+        assertTrue(interceptor.preHandle(post, new MockHttpServletResponse(), rateForDate));
+        assertNull(exportRequest.getAttribute(ConditionalRequestInterceptor.ETAG_ATTRIBUTE));
+        assertNull(post.getAttribute(ConditionalRequestInterceptor.ETAG_ATTRIBUTE));
+    }
+
+    @Test
+    void cacheControl_shouldRequireRevalidationForRecentOrOpenEndedResources() {
+        MockHttpServletRequest yesterday = get(LocalDate.now().minusDays(1).toString());
+        MockHttpServletRequest history = new MockHttpServletRequest("GET", "/api/v1/exchange-rates");
+        history.setParameter("currency", "USD");
+        MockHttpServletRequest pastRange = new MockHttpServletRequest("GET", "/api/v1/exchange-rates");
+        pastRange.setParameter("to", "2023-12-31");
+        MockHttpServletRequest conversion = new MockHttpServletRequest("GET", "/api/v1/exchange-rates/convert");
+        conversion.setParameter("amount", BigDecimal.TEN.toString());
+        conversion.setParameter("date", "not-a-date");
+
+        assertEquals("no-cache", interceptor.cacheControl(yesterday));
+        assertEquals("no-cache", interceptor.cacheControl(history));
+        assertEquals("max-age=31536000, public, immutable", interceptor.cacheControl(pastRange));
+        assertEquals("no-cache", interceptor.cacheControl(conversion));
+    }
+
+    private static MockHttpServletRequest get(String date) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/exchange-rates/" + date);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Collections.singletonMap("date", date));
+        return request;
+    }
+}
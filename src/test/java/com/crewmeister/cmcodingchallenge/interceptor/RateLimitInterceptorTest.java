@@ -0,0 +1,44 @@
+package com.crewmeister.cmcodingchallenge.interceptor;
+
+import com.crewmeister.cmcodingchallenge.config.RateLimitConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateLimitInterceptor interceptor =
+            new RateLimitInterceptor(new RateLimitConfig(10, Duration.ofMinutes(10), 64), meterRegistry);
+
+    @Test
+    void preHandle_shouldReportRemainingTokensAndCountRejections() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/currencies");
+        request.addHeader("X-API-KEY", "client");
+
+        // When
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request, first, null));
+        for (int i = 1; i < 100; i++) {
+            assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+        }
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        boolean allowed = interceptor.preHandle(request, rejected, null);
+
+        // Then
+        assertEquals("99", first.getHeader("X-Rate-Limit-Remaining"));
+        assertFalse(allowed);
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("ratelimit.rejections").counter().count());
+    }
+}
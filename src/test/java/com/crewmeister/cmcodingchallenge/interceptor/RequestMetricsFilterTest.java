@@ -0,0 +1,57 @@
+package com.crewmeister.cmcodingchallenge.interceptor;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestMetricsFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestMetricsFilter filter = new RequestMetricsFilter(meterRegistry);
+
+    @Test
+    void doFilter_shouldTimeRequestByMatchedPatternAndStatus() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/exchange-rates/2024-04-19");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/exchange-rates/{date}");
+                resp.setStatus(404);
+            }
+        });
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        Timer timer = meterRegistry.get("http.server.requests")
+                .tag("uri", "/api/v1/exchange-rates/{date}")
+                .tag("method", "GET")
+                .tag("status", "404")
+                .tag("outcome", "CLIENT_ERROR")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void doFilter_shouldTagUnmatchedRequestsAsUnknown() throws Exception {
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/nothing"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        // Then
+        assertEquals(1, meterRegistry.get("http.server.requests").tag("uri", "UNKNOWN").timer().count());
+    }
+}
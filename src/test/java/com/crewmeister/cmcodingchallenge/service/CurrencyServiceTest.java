@@ -2,6 +2,9 @@ package com.crewmeister.cmcodingchallenge.service;
 
 import com.crewmeister.cmcodingchallenge.domain.Currency;
 import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
+import com.crewmeister.cmcodingchallenge.index.CurrencyRegistry;
+import com.crewmeister.cmcodingchallenge.integration.BundesbankResponseCache;
+import com.crewmeister.cmcodingchallenge.integration.ResponseBodyReader;
 import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,14 +12,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -34,7 +45,13 @@ class CurrencyServiceTest {
     private CurrencyRepository currencyRepository;
 
     @Mock
-    private RestTemplate restTemplate;
+    private BundesbankResponseCache responseCache;
+
+    @Mock
+    private DatasetVersion datasetVersion;
+
+    @Spy
+    private CurrencyRegistry currencyRegistry = new CurrencyRegistry();
 
     @InjectMocks
     private CurrencyService currencyService;
@@ -56,8 +73,12 @@ class CurrencyServiceTest {
     @Test
     void updateCurrencies_shouldFetchAndSaveParsedCurrencies() {
         // Arrange
-        when(restTemplate.getForObject(eq(BUNDESBANK_CURRENCY_URL), eq(String.class)))
-            .thenReturn(SAMPLE_CSV);
+        when(responseCache.fetch(eq("currencies"), eq(BUNDESBANK_CURRENCY_URL), anyBoolean(), any()))
+            .thenAnswer(invocation -> {
+                ResponseBodyReader<?> reader = invocation.getArgument(3);
+                return CompletableFuture.completedFuture(
+                    Optional.of(reader.read(new ByteArrayInputStream(SAMPLE_CSV.getBytes(StandardCharsets.UTF_8)))));
+            });
 
         // Act
         currencyService.updateCurrencies();
@@ -72,6 +93,90 @@ class CurrencyServiceTest {
             .containsExactlyInAnyOrder("USD", "GBP");
     }
 
+    @Test
+    void updateCurrencies_shouldInsertOnlyNewCurrenciesAndRegisterAll() {
+        // Arrange: USD is already stored
+        when(responseCache.fetch(eq("currencies"), eq(BUNDESBANK_CURRENCY_URL), anyBoolean(), any()))
+            .thenAnswer(invocation -> {
+                ResponseBodyReader<?> reader = invocation.getArgument(3);
+                return CompletableFuture.completedFuture(
+                    Optional.of(reader.read(new ByteArrayInputStream(SAMPLE_CSV.getBytes(StandardCharsets.UTF_8)))));
+            });
+        when(currencyRepository.findAllCodes()).thenReturn(Set.of("USD"));
+
+        // Act
+        currencyService.updateCurrencies();
+
+        // Assert
+        ArgumentCaptor<List<Currency>> captor = ArgumentCaptor.forClass(List.class);
+        verify(currencyRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(Currency::getCode).containsExactly("GBP");
+        assertThat(currencyRegistry.codes()).containsExactly("GBP", "USD");
+        verify(datasetVersion).bump();
+    }
+
+    @Test
+    void updateCurrencies_shouldReplayUnchangedListIntoEmptyTable() {
+        // Arrange: the database was reset, but the response cache still holds the list's validators
+        when(currencyRepository.count()).thenReturn(0L);
+        when(responseCache.fetch(eq("currencies"), eq(BUNDESBANK_CURRENCY_URL), eq(true), any()))
+            .thenAnswer(invocation -> {
+                ResponseBodyReader<?> reader = invocation.getArgument(3);
+                return CompletableFuture.completedFuture(
+                    Optional.of(reader.read(new ByteArrayInputStream(SAMPLE_CSV.getBytes(StandardCharsets.UTF_8)))));
+            });
+
+        // Act
+        currencyService.updateCurrencies();
+
+        // Assert
+        ArgumentCaptor<List<Currency>> captor = ArgumentCaptor.forClass(List.class);
+        verify(currencyRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(Currency::getCode).containsExactlyInAnyOrder("USD", "GBP");
+    }
+
+    @Test
+    void updateCurrencies_shouldSkipSavingWhenNotModified() {
+        // Arrange
+        when(currencyRepository.count()).thenReturn(2L);
+        when(responseCache.fetch(eq("currencies"), eq(BUNDESBANK_CURRENCY_URL), eq(false), any()))
+            .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        // Act
+        currencyService.updateCurrencies();
+
+        // Assert
+        verify(currencyRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void updateCurrencies_shouldInvalidateCachedResponseWhenSaveFails() {
+        // Arrange
+        when(responseCache.fetch(eq("currencies"), eq(BUNDESBANK_CURRENCY_URL), anyBoolean(), any()))
+            .thenReturn(CompletableFuture.completedFuture(Optional.<Object>of(List.of(new Currency("USD")))));
+        when(currencyRepository.saveAll(any())).thenThrow(new IllegalStateException("database unavailable"));
+
+        // Act
+        currencyService.updateCurrencies();
+
+        // Assert
+        verify(responseCache).invalidate("currencies");
+    }
+
+    @Test
+    void initializeCurrencies_shouldFailWhenDownloadFailsOnEmptyDatabase() {
+        // Arrange: nothing stored yet and the Bundesbank API unreachable
+        when(currencyRepository.count()).thenReturn(0L);
+        when(currencyRepository.findAllCodes()).thenReturn(List.of());
+        when(responseCache.fetch(eq("currencies"), eq(BUNDESBANK_CURRENCY_URL), anyBoolean(), any()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("connection refused")));
+
+        // Act & Assert
+        assertThatThrownBy(() -> currencyService.initializeCurrencies())
+            .isInstanceOf(IllegalStateException.class);
+        verify(responseCache).invalidate("currencies");
+    }
+
     @Test
     void isValidCurrencyFormat_acceptsThreeUppercaseLetters() {
         assertThat(currencyService.isValidCurrencyFormat("ABC")).isTrue();
@@ -95,13 +200,16 @@ class CurrencyServiceTest {
     }
 
     @Test
-    void isValidCurrency_checksRepositoryExistence() {
-        when(currencyRepository.existsById("EUR")).thenReturn(true);
-        when(currencyRepository.existsById("FOO")).thenReturn(false);
+    void isValidCurrency_checksRegistryWithoutQueryingRepository() {
+        currencyRegistry.replace(List.of("EUR", "USD"));
 
         assertThat(currencyService.isValidCurrency("EUR")).isTrue();
         assertThatThrownBy(() -> currencyService.isValidCurrency("FOO"))
             .isInstanceOf(ExchangeRateException.class)
             .hasMessageContaining("Currency code 'FOO' is not supported");
+        assertThatThrownBy(() -> currencyService.isValidCurrency("usd"))
+            .isInstanceOf(ExchangeRateException.class)
+            .hasMessageContaining("exactly 3 uppercase letters");
+        verify(currencyRepository, never()).existsById(any());
     }
 }
\ No newline at end of file
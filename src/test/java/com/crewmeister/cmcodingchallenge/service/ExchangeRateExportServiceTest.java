@@ -0,0 +1,108 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDTO;
+import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateExportServiceTest {
+
+    private static final LocalDate FRIDAY = LocalDate.of(2024, 4, 19);
+
+    @Mock
+    private ExchangeRateRepository repository;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExchangeRateExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ExchangeRateExportService(repository, currencyService, transactionManager, objectMapper);
+        lenient().when(currencyService.isValidCurrency("USD")).thenReturn(true);
+    }
+
+    @Test
+    void export_shouldWriteNdjsonLinesAndCloseCursor() throws IOException {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(repository.streamByCurrencyAndDateBetween("USD", FRIDAY.minusDays(7), FRIDAY)).thenReturn(Stream.of(
+                new ExchangeRateDTO("USD", FRIDAY, new BigDecimal("1.0987")),
+                new ExchangeRateDTO("USD", FRIDAY.minusDays(1), new BigDecimal("1.0985"))
+        ).onClose(() -> closed.set(true)));
+
+        // When
+        String body = write(exportService.export("USD", FRIDAY.minusDays(7), FRIDAY, ExchangeRateExportService.Format.NDJSON));
+
+        // Then
+        assertEquals("{\"currency\":\"USD\",\"date\":\"2024-04-19\",\"rate\":1.0987}\n" +
+                "{\"currency\":\"USD\",\"date\":\"2024-04-18\",\"rate\":1.0985}\n", body);
+        assertTrue(closed.get());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void export_shouldWriteCsvWithHeaderOverOpenRange() throws IOException {
+        // Given
+        when(repository.streamByCurrencyAndDateBetween(eq("USD"), eq(ExchangeRateService.EARLIEST_DATE), any(LocalDate.class)))
+                .thenReturn(Stream.of(new ExchangeRateDTO("USD", FRIDAY, new BigDecimal("1.0000"))));
+
+        // When
+        String body = write(exportService.export("USD", null, null, ExchangeRateExportService.Format.CSV));
+
+        // Then
+        assertEquals("currency,date,rate\nUSD,2024-04-19,1.0000\n", body);
+    }
+
+    @Test
+    void export_shouldValidateBeforeStreaming() {
+        // Given
+        when(currencyService.isValidCurrency("XYZ")).thenReturn(false);
+
+        // When & Then
+        assertThrows(ExchangeRateException.class, () ->
+                exportService.export("XYZ", null, null, ExchangeRateExportService.Format.CSV));
+        ExchangeRateException range = assertThrows(ExchangeRateException.class, () ->
+                exportService.export("USD", FRIDAY, FRIDAY.minusDays(1), ExchangeRateExportService.Format.NDJSON));
+        assertEquals("INVALID_DATE_RANGE", range.getErrorCode());
+        verifyNoInteractions(repository, transactionManager);
+    }
+
+    private static String write(ExchangeRateExportService.Export export) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
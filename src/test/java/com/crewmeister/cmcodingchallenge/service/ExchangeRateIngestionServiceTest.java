@@ -0,0 +1,363 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.crewmeister.cmcodingchallenge.index.RateSeries;
+import com.crewmeister.cmcodingchallenge.integration.BundesbankApiClient;
+import com.crewmeister.cmcodingchallenge.integration.RateObservationHandler;
+import com.crewmeister.cmcodingchallenge.integration.SeriesObservationHandler;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBulkWriter;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateIngestionServiceTest {
+
+    @Mock
+    private ExchangeRateRepository repository;
+
+    @Mock
+    private BundesbankApiClient bundesbankApiClient;
+
+    @Mock
+    private ExchangeRateBulkWriter bulkWriter;
+
+    @Mock
+    private ExchangeRateIndex exchangeRateIndex;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ExchangeRateIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        ingestionService = ingestionService(ExchangeRateIngestionService.FetchMode.PER_CURRENCY);
+    }
+
+    private ExchangeRateIngestionService ingestionService(ExchangeRateIngestionService.FetchMode fetchMode) {
+        return new ExchangeRateIngestionService(
+            repository, bundesbankApiClient, bulkWriter, exchangeRateIndex, 2, Duration.ofMillis(500), fetchMode,
+            meterRegistry);
+    }
+
+    @Test
+    void ingest_shouldOnlyFetchDaysAfterHighWatermark() {
+        // Given
+        LocalDate watermark = LocalDate.now().minusDays(3);
+        when(repository.findFirstByCurrencyOrderByDateDesc("USD"))
+            .thenReturn(Optional.of(new ExchangeRate("USD", watermark, BigDecimal.valueOf(1.1))));
+        when(bundesbankApiClient.fetchExchangeRates(eq("USD"), eq(watermark.plusDays(1)), any()))
+            .thenAnswer(invocation -> {
+                RateObservationHandler handler = invocation.getArgument(2);
+                handler.onObservation((int) watermark.toEpochDay(), 11000L);
+                handler.onObservation((int) watermark.plusDays(1).toEpochDay(), 11100L);
+                return CompletableFuture.completedFuture(2);
+            });
+        when(bulkWriter.write(any())).thenReturn(1);
+
+        // When
+        Map<String, Integer> result = ingestionService.ingest(Collections.singletonList("USD"));
+
+        // Then
+        ArgumentCaptor<RateSeries> captor = ArgumentCaptor.forClass(RateSeries.class);
+        verify(bulkWriter).write(captor.capture());
+        RateSeries written = captor.getValue();
+        assertEquals("USD", written.getCurrency());
+        assertEquals(1, written.size());
+        assertEquals(watermark.plusDays(1).toEpochDay(), written.epochDayAt(0));
+        assertEquals(11100L, written.scaledRateAt(0));
+        verify(exchangeRateIndex).merge(written);
+        assertEquals(Collections.singletonMap("USD", 1), result);
+    }
+
+    @Test
+    void ingest_shouldFetchFullHistoryForNewCurrency() {
+        // Given
+        when(repository.findFirstByCurrencyOrderByDateDesc("USD")).thenReturn(Optional.empty());
+        when(bundesbankApiClient.fetchExchangeRates(eq("USD"), isNull(), any()))
+            .thenReturn(CompletableFuture.completedFuture(0));
+
+        // When
+        Map<String, Integer> result = ingestionService.ingest(Collections.singletonList("USD"));
+
+        // Then
+        verify(bundesbankApiClient).fetchExchangeRates(eq("USD"), isNull(), any());
+        verify(bulkWriter, never()).write(any());
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void ingest_shouldSkipCurrencyAlreadyUpToDate() {
+        // Given
+        when(repository.findFirstByCurrencyOrderByDateDesc("USD"))
+            .thenReturn(Optional.of(new ExchangeRate("USD", LocalDate.now(), BigDecimal.valueOf(1.1))));
+
+        // When
+        ingestionService.ingest(Collections.singletonList("USD"));
+
+        // Then
+        verify(bundesbankApiClient, never()).fetchExchangeRates(anyString(), any(), any());
+    }
+
+    @Test
+    void ingest_shouldPersistEveryCurrencyThroughBoundedQueue() {
+        // Given
+        LocalDate day = LocalDate.now().minusDays(1);
+        when(repository.findFirstByCurrencyOrderByDateDesc(anyString())).thenReturn(Optional.empty());
+        when(bundesbankApiClient.fetchExchangeRates(anyString(), isNull(), any()))
+            .thenAnswer(invocation -> {
+                RateObservationHandler handler = invocation.getArgument(2);
+                handler.onObservation((int) day.toEpochDay(), 10000L);
+                return CompletableFuture.completedFuture(1);
+            });
+        when(bulkWriter.write(any())).thenReturn(1);
+
+        // When
+        Map<String, Integer> result = ingestionService.ingest(Arrays.asList("USD", "GBP", "JPY", "CHF"));
+
+        // Then
+        assertEquals(4, result.size());
+        verify(bulkWriter, times(4)).write(any());
+        verify(exchangeRateIndex, times(4)).merge(any(RateSeries.class));
+    }
+
+    @Test
+    void ingest_shouldRecordRunAndPersistMetrics() {
+        // Given
+        LocalDate day = LocalDate.now().minusDays(1);
+        when(repository.findFirstByCurrencyOrderByDateDesc(anyString())).thenReturn(Optional.empty());
+        when(bundesbankApiClient.fetchExchangeRates(anyString(), isNull(), any()))
+            .thenAnswer(invocation -> {
+                RateObservationHandler handler = invocation.getArgument(2);
+                handler.onObservation((int) day.toEpochDay(), 10000L);
+                return CompletableFuture.completedFuture(1);
+            });
+        when(bulkWriter.write(any())).thenReturn(3);
+
+        // When
+        ingestionService.ingest(Arrays.asList("USD", "GBP"));
+
+        // Then
+        assertEquals(1, meterRegistry.get("ingestion.run").timer().count());
+        assertEquals(6.0, meterRegistry.get("ingestion.rows.written").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("ingestion.persist").tag("currency", "USD").timer().count());
+        assertEquals(1, meterRegistry.get("ingestion.persist").tag("currency", "GBP").timer().count());
+    }
+
+    @Test
+    void ingest_shouldAbandonFetchExceedingTimeout() {
+        // Given
+        when(repository.findFirstByCurrencyOrderByDateDesc(anyString())).thenReturn(Optional.empty());
+        CompletableFuture<Integer> hangingDownload = new CompletableFuture<>();
+        when(bundesbankApiClient.fetchExchangeRates(eq("USD"), isNull(), any())).thenReturn(hangingDownload);
+        when(bundesbankApiClient.fetchExchangeRates(eq("GBP"), isNull(), any()))
+            .thenAnswer(invocation -> {
+                RateObservationHandler handler = invocation.getArgument(2);
+                handler.onObservation((int) LocalDate.now().minusDays(1).toEpochDay(), 8500L);
+                return CompletableFuture.supplyAsync(() -> 1);
+            });
+        when(bulkWriter.write(any())).thenReturn(1);
+
+        // When
+        long start = System.nanoTime();
+        Map<String, Integer> result = ingestionService.ingest(Arrays.asList("USD", "GBP"));
+
+        // Then
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+        assertEquals(Collections.singletonMap("GBP", 1), result);
+        assertTrue(hangingDownload.isCompletedExceptionally());
+        verify(bundesbankApiClient).invalidateCachedResponse("USD");
+    }
+
+    @Test
+    void ingest_shouldLimitOutstandingFetches() {
+        // Given
+        when(repository.findFirstByCurrencyOrderByDateDesc(anyString())).thenReturn(Optional.empty());
+        List<CompletableFuture<Integer>> downloads = new CopyOnWriteArrayList<>();
+        AtomicInteger maxPending = new AtomicInteger();
+        when(bundesbankApiClient.fetchExchangeRates(anyString(), isNull(), any()))
+            .thenAnswer(invocation -> {
+                CompletableFuture<Integer> download = new CompletableFuture<>();
+                downloads.add(download);
+                return download;
+            });
+        CompletableFuture.runAsync(() -> {
+            // Complete downloads one by one, recording how many were pending at once
+            for (int completed = 0; completed < 4; completed++) {
+                while (downloads.size() < Math.min(completed + 2, 4)) {
+                    Thread.onSpinWait();
+                }
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                maxPending.accumulateAndGet(downloads.size() - completed, Math::max);
+                downloads.get(completed).complete(0);
+            }
+        });
+
+        // When
+        ingestionService.ingest(Arrays.asList("USD", "GBP", "JPY", "CHF"));
+
+        // Then
+        assertEquals(4, downloads.size());
+        assertEquals(2, maxPending.get());
+        assertTrue(downloads.stream().allMatch(download -> download.getNow(-1) == 0));
+    }
+
+    @Test
+    void ingest_bulkMode_shouldFetchOnceFromOldestWatermarkAndSplitPerCurrency() {
+        // Given
+        LocalDate usdWatermark = LocalDate.now().minusDays(5);
+        LocalDate gbpWatermark = LocalDate.now().minusDays(2);
+        when(repository.findFirstByCurrencyOrderByDateDesc("USD"))
+            .thenReturn(Optional.of(new ExchangeRate("USD", usdWatermark, BigDecimal.valueOf(1.1))));
+        when(repository.findFirstByCurrencyOrderByDateDesc("GBP"))
+            .thenReturn(Optional.of(new ExchangeRate("GBP", gbpWatermark, BigDecimal.valueOf(0.85))));
+        when(bundesbankApiClient.fetchAllExchangeRates(eq(usdWatermark.plusDays(1)), any()))
+            .thenAnswer(invocation -> {
+                SeriesObservationHandler handler = invocation.getArgument(1);
+                for (int i = 1; i <= 4; i++) {
+                    int day = (int) usdWatermark.plusDays(i).toEpochDay();
+                    handler.onObservation("USD", day, 11000L + i);
+                    handler.onObservation("GBP", day, 8500L + i);
+                    handler.onObservation("JPY", day, 1600000L);
+                }
+                return CompletableFuture.completedFuture(12);
+            });
+        when(bulkWriter.write(any())).thenAnswer(invocation -> ((RateSeries) invocation.getArgument(0)).size());
+
+        // When
+        Map<String, Integer> result = ingestionService(ExchangeRateIngestionService.FetchMode.BULK)
+            .ingest(Arrays.asList("USD", "GBP"));
+
+        // Then
+        assertEquals(4, result.get("USD"));
+        assertEquals(1, result.get("GBP"));
+        assertEquals(2, result.size());
+        verify(bundesbankApiClient, never()).fetchExchangeRates(anyString(), any(), any());
+        verify(exchangeRateIndex, times(2)).merge(any(RateSeries.class));
+    }
+
+    @Test
+    void ingest_bulkMode_shouldSkipRequestWhenAllCurrenciesAreUpToDate() {
+        // Given
+        when(repository.findFirstByCurrencyOrderByDateDesc(anyString()))
+            .thenReturn(Optional.of(new ExchangeRate("USD", LocalDate.now(), BigDecimal.valueOf(1.1))));
+
+        // When
+        Map<String, Integer> result = ingestionService(ExchangeRateIngestionService.FetchMode.BULK)
+            .ingest(Arrays.asList("USD", "GBP"));
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(bundesbankApiClient, never()).fetchAllExchangeRates(any(), any());
+    }
+
+    @Test
+    void ingest_shouldInvalidateCachedResponseWhenPersistingFails() {
+        // Given
+        when(repository.findFirstByCurrencyOrderByDateDesc("USD")).thenReturn(Optional.empty());
+        when(bundesbankApiClient.fetchExchangeRates(eq("USD"), isNull(), any()))
+            .thenAnswer(invocation -> {
+                RateObservationHandler handler = invocation.getArgument(2);
+                handler.onObservation((int) LocalDate.now().minusDays(1).toEpochDay(), 11000L);
+                return CompletableFuture.completedFuture(1);
+            });
+        when(bulkWriter.write(any())).thenThrow(new IllegalStateException("database unavailable"));
+
+        // When
+        Map<String, Integer> result = ingestionService.ingest(Collections.singletonList("USD"));
+
+        // Then
+        assertEquals(Collections.singletonMap("USD", 0), result);
+        verify(bundesbankApiClient).invalidateCachedResponse("USD");
+        verify(exchangeRateIndex, never()).merge(any(RateSeries.class));
+    }
+
+    @Test
+    void ingest_shouldIndexChunksCommittedBeforeWriteFailed() {
+        // Given: three days, the chunk holding the last one fails
+        LocalDate day = LocalDate.now().minusDays(3);
+        when(repository.findFirstByCurrencyOrderByDateDesc("USD")).thenReturn(Optional.empty());
+        when(bundesbankApiClient.fetchExchangeRates(eq("USD"), isNull(), any()))
+            .thenAnswer(invocation -> {
+                RateObservationHandler handler = invocation.getArgument(2);
+                handler.onObservation((int) day.plusDays(2).toEpochDay(), 11200L);
+                handler.onObservation((int) day.toEpochDay(), 11000L);
+                handler.onObservation((int) day.plusDays(1).toEpochDay(), 11100L);
+                return CompletableFuture.completedFuture(3);
+            });
+        when(bulkWriter.write(any())).thenThrow(new ExchangeRateBulkWriter.PartialWriteException("USD", 2,
+            new IllegalStateException("database unavailable")));
+
+        // When
+        Map<String, Integer> result = ingestionService.ingest(Collections.singletonList("USD"));
+
+        // Then: the two committed days, the earliest ones, are indexed
+        ArgumentCaptor<RateSeries> captor = ArgumentCaptor.forClass(RateSeries.class);
+        verify(bulkWriter).write(captor.capture());
+        assertEquals(day.toEpochDay(), captor.getValue().epochDayAt(0));
+        assertEquals(day.plusDays(1).toEpochDay(), captor.getValue().epochDayAt(1));
+        verify(exchangeRateIndex).merge(captor.getValue(), 2);
+        verify(bundesbankApiClient).invalidateCachedResponse("USD");
+        assertEquals(Collections.singletonMap("USD", 2), result);
+    }
+
+    @Test
+    void ingest_shouldReportEveryCurrencyToProgress() {
+        // Given: USD has new rates, GBP is up to date and the JPY download fails
+        LocalDate day = LocalDate.now().minusDays(1);
+        when(repository.findFirstByCurrencyOrderByDateDesc("USD")).thenReturn(Optional.empty());
+        when(repository.findFirstByCurrencyOrderByDateDesc("GBP"))
+            .thenReturn(Optional.of(new ExchangeRate("GBP", LocalDate.now(), BigDecimal.valueOf(0.85))));
+        when(repository.findFirstByCurrencyOrderByDateDesc("JPY")).thenReturn(Optional.empty());
+        when(bundesbankApiClient.fetchExchangeRates(eq("USD"), isNull(), any()))
+            .thenAnswer(invocation -> {
+                RateObservationHandler handler = invocation.getArgument(2);
+                handler.onObservation((int) day.toEpochDay(), 11000L);
+                return CompletableFuture.completedFuture(1);
+            });
+        CompletableFuture<Integer> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("connection reset"));
+        when(bundesbankApiClient.fetchExchangeRates(eq("JPY"), isNull(), any())).thenReturn(failed);
+        when(bulkWriter.write(any())).thenReturn(1);
+        Map<String, Integer> reported = new ConcurrentHashMap<>();
+
+        // When
+        ingestionService.ingest(Arrays.asList("USD", "GBP", "JPY"), reported::put);
+
+        // Then
+        assertEquals(3, reported.size());
+        assertEquals(1, reported.get("USD"));
+        assertEquals(0, reported.get("GBP"));
+        assertEquals(0, reported.get("JPY"));
+    }
+}
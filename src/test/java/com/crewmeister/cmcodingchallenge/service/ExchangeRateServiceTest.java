@@ -1,11 +1,15 @@
 package com.crewmeister.cmcodingchallenge.service;
 
 import com.crewmeister.cmcodingchallenge.domain.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.dto.BatchConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.ConversionRequestDTO;
 import com.crewmeister.cmcodingchallenge.dto.ConversionResultDTO;
+import com.crewmeister.cmcodingchallenge.dto.CrossConversionResultDTO;
 import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDTO;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRatePageDTO;
 import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
-import com.crewmeister.cmcodingchallenge.integration.BundesbankApiClient;
-import com.crewmeister.cmcodingchallenge.integration.BundesbankApiClient.ExchangeRateData;
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.crewmeister.cmcodingchallenge.index.IndexSnapshotStore;
 import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +19,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -22,10 +27,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,11 +42,20 @@ class ExchangeRateServiceTest {
     private ExchangeRateRepository repository;
 
     @Mock
-    private BundesbankApiClient bundesbankApiClient;
+    private ExchangeRateIngestionService ingestionService;
 
     @Mock
     private CurrencyService currencyService;
 
+    @Mock
+    private ExchangeRateIndex exchangeRateIndex;
+
+    @Mock
+    private DatasetVersion datasetVersion;
+
+    @Mock
+    private IndexSnapshotStore indexSnapshotStore;
+
     @InjectMocks
     private ExchangeRateService exchangeRateService;
 
@@ -145,6 +161,120 @@ class ExchangeRateServiceTest {
         assertEquals(date, result.getDate());
     }
 
+    @Test
+    void convertCurrency_shouldUseIndexWithoutQueryingRepository() {
+        // Given
+        LocalDate date = LocalDate.now();
+        when(exchangeRateIndex.contains("USD")).thenReturn(true);
+        when(exchangeRateIndex.rateOn("USD", date)).thenReturn(11000L);
+
+        // When
+        ConversionResultDTO result = exchangeRateService.convertCurrency("USD", BigDecimal.valueOf(100), date);
+
+        // Then
+        assertEquals(new BigDecimal("1.1000"), result.getRate());
+        assertEquals(BigDecimal.valueOf(90.91), result.getConvertedAmount());
+        verify(repository, never()).findByCurrencyAndDate(anyString(), any(LocalDate.class));
+    }
+
+    @Test
+    void convertCurrency_asOfShouldUsePreviousObservationFromIndex() {
+        // Given: nothing published on Sunday, the index floor is Friday
+        LocalDate sunday = LocalDate.of(2024, 4, 21);
+        LocalDate friday = LocalDate.of(2024, 4, 19);
+        when(exchangeRateIndex.contains("USD")).thenReturn(true);
+        when(exchangeRateIndex.floorDay("USD", sunday)).thenReturn((int) friday.toEpochDay());
+        when(exchangeRateIndex.rateOn("USD", friday)).thenReturn(11000L);
+
+        // When
+        ConversionResultDTO result = exchangeRateService.convertCurrency("USD", BigDecimal.valueOf(100), sunday, true);
+
+        // Then
+        assertEquals(sunday, result.getDate());
+        assertEquals(friday, result.getRateDate());
+        assertEquals(BigDecimal.valueOf(90.91), result.getConvertedAmount());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getExchangeRateAsOf_shouldProbeRepositoryOnceForUnindexedCurrency() {
+        // Given
+        LocalDate sunday = LocalDate.of(2024, 4, 21);
+        ExchangeRate friday = new ExchangeRate("USD", LocalDate.of(2024, 4, 19), BigDecimal.valueOf(1.1));
+        when(repository.findFirstByCurrencyAndDateLessThanEqualOrderByDateDesc("USD", sunday))
+            .thenReturn(Optional.of(friday));
+
+        // When
+        ExchangeRate result = exchangeRateService.getExchangeRateAsOf("USD", sunday);
+
+        // Then
+        assertEquals(friday, result);
+        verify(repository, never()).findByCurrencyAndDate(anyString(), any(LocalDate.class));
+    }
+
+    @Test
+    void getExchangeRateAsOf_shouldThrowWhenNothingPublishedBeforeDate() {
+        // Given
+        LocalDate date = LocalDate.of(1998, 12, 31);
+        when(exchangeRateIndex.contains("USD")).thenReturn(true);
+        when(exchangeRateIndex.floorDay("USD", date)).thenReturn(ExchangeRateIndex.NO_DAY);
+
+        // When & Then
+        ExchangeRateException exception = assertThrows(ExchangeRateException.class, () ->
+            exchangeRateService.getExchangeRateAsOf("USD", date));
+        assertEquals("RATE_NOT_FOUND", exception.getErrorCode());
+    }
+
+    @Test
+    void convertCrossCurrency_shouldUseRateMatrixWithoutQueryingRepository() {
+        // Given: 1 EUR = 1.0800 USD = 164.5000 JPY
+        LocalDate date = LocalDate.of(2024, 4, 15);
+        lenient().when(currencyService.isValidCurrency("JPY")).thenReturn(true);
+        ExchangeRateIndex index = new ExchangeRateIndex(repository);
+        index.merge("USD", new int[]{(int) date.toEpochDay()}, new long[]{10800L}, 1);
+        index.merge("JPY", new int[]{(int) date.toEpochDay()}, new long[]{1645000L}, 1);
+        when(exchangeRateIndex.rateMatrix()).thenReturn(index.rateMatrix());
+
+        // When
+        CrossConversionResultDTO result = exchangeRateService.convertCrossCurrency("USD", "JPY", BigDecimal.valueOf(100), date);
+
+        // Then
+        assertEquals(new BigDecimal("152.3148148148"), result.getRate());
+        assertEquals(new BigDecimal("15231.48"), result.getConvertedAmount());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void convertCrossCurrency_shouldFallBackToRateLookupsForUnindexedCurrency() {
+        // Given
+        LocalDate date = LocalDate.of(2024, 4, 15);
+        lenient().when(currencyService.isValidCurrency("GBP")).thenReturn(true);
+        when(exchangeRateIndex.rateMatrix()).thenReturn(new ExchangeRateIndex(repository).rateMatrix());
+        when(repository.findByCurrencyAndDate("USD", date)).thenReturn(Optional.of(new ExchangeRate("USD", date, new BigDecimal("1.0800"))));
+        when(repository.findByCurrencyAndDate("GBP", date)).thenReturn(Optional.of(new ExchangeRate("GBP", date, new BigDecimal("0.8640"))));
+
+        // When
+        CrossConversionResultDTO result = exchangeRateService.convertCrossCurrency("USD", "GBP", BigDecimal.valueOf(100), date);
+
+        // Then
+        assertEquals(new BigDecimal("0.8000000000"), result.getRate());
+        assertEquals(new BigDecimal("80.00"), result.getConvertedAmount());
+    }
+
+    @Test
+    void getExchangeRateForDate_shouldThrowWhenIndexedCurrencyHasNoRateForDate() {
+        // Given
+        LocalDate date = LocalDate.now();
+        when(exchangeRateIndex.contains("USD")).thenReturn(true);
+        when(exchangeRateIndex.rateOn("USD", date)).thenReturn(ExchangeRateIndex.NOT_FOUND);
+
+        // When & Then
+        ExchangeRateException exception = assertThrows(ExchangeRateException.class, () ->
+            exchangeRateService.getExchangeRateForDate("USD", date));
+        assertEquals("RATE_NOT_FOUND", exception.getErrorCode());
+        verify(repository, never()).findByCurrencyAndDate(anyString(), any(LocalDate.class));
+    }
+
     @Test
     void getExchangeRatesForCurrency_shouldReturnRatesForValidCurrency() {
         // Given
@@ -172,6 +302,81 @@ class ExchangeRateServiceTest {
         assertEquals("NO_RATES_FOUND", exception.getErrorCode());
     }
 
+    @Test
+    void getExchangeRatesPage_shouldServeIndexedCurrencyFromIndex() {
+        // Given: the index holds three days in the requested range
+        LocalDate to = LocalDate.of(2024, 4, 19);
+        when(exchangeRateIndex.contains("USD")).thenReturn(true);
+        when(exchangeRateIndex.copyDescending(eq("USD"), eq((int) to.minusDays(9).toEpochDay()),
+                eq((int) to.toEpochDay()), any(int[].class), any(long[].class))).thenAnswer(invocation -> {
+            int[] days = invocation.getArgument(3);
+            long[] rates = invocation.getArgument(4);
+            assertEquals(3, days.length); // one beyond the page, to detect a next page
+            for (int i = 0; i < 3; i++) {
+                days[i] = (int) to.minusDays(i).toEpochDay();
+                rates[i] = 10900L + i;
+            }
+            return 3;
+        });
+
+        // When
+        ExchangeRatePageDTO page = exchangeRateService.getExchangeRatesPage("USD", to.minusDays(9), to, 2, null);
+
+        // Then
+        assertEquals(Arrays.asList(
+                new ExchangeRate("USD", to, new BigDecimal("1.0900")),
+                new ExchangeRate("USD", to.minusDays(1), new BigDecimal("1.0901"))), page.getRates());
+        assertTrue(page.hasNext());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getExchangeRatesPage_shouldContinueBeforeCursorDate() {
+        // Given: an unindexed currency is served by a bounded range query
+        LocalDate from = LocalDate.of(2024, 4, 1);
+        LocalDate to = LocalDate.of(2024, 4, 19);
+        ExchangeRate friday = new ExchangeRate("USD", to, BigDecimal.valueOf(1.1));
+        ExchangeRate thursday = new ExchangeRate("USD", to.minusDays(1), BigDecimal.valueOf(1.2));
+        when(repository.findByCurrencyAndDateBetweenOrderByDateDesc("USD", from, to, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(friday, thursday));
+        when(repository.findByCurrencyAndDateBetweenOrderByDateDesc("USD", from, to.minusDays(1), PageRequest.of(0, 2)))
+                .thenReturn(Collections.singletonList(thursday));
+
+        // When
+        ExchangeRatePageDTO first = exchangeRateService.getExchangeRatesPage("USD", from, to, 1, null);
+        ExchangeRatePageDTO second = exchangeRateService.getExchangeRatesPage("USD", from, to, 1, first.getNextCursor());
+
+        // Then
+        assertEquals(Collections.singletonList(friday), first.getRates());
+        assertNotNull(first.getNextCursor());
+        assertEquals(Collections.singletonList(thursday), second.getRates());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void getExchangeRatesPage_shouldRejectInvalidRequests() {
+        // Given
+        LocalDate date = LocalDate.of(2024, 4, 19);
+        lenient().when(currencyService.isValidCurrency("GBP")).thenReturn(true);
+
+        // When & Then
+        ExchangeRateException range = assertThrows(ExchangeRateException.class, () ->
+            exchangeRateService.getExchangeRatesPage("USD", date, date.minusDays(1), null, null));
+        assertEquals("INVALID_DATE_RANGE", range.getErrorCode());
+        assertThrows(IllegalArgumentException.class, () ->
+            exchangeRateService.getExchangeRatesPage("USD", null, null, ExchangeRateService.MAX_PAGE_SIZE + 1, null));
+        assertThrows(IllegalArgumentException.class, () ->
+            exchangeRateService.getExchangeRatesPage("USD", null, null, null, "not-a-cursor"));
+
+        // A cursor is only valid for the currency it was issued for
+        when(repository.findByCurrencyAndDateBetweenOrderByDateDesc(eq("USD"), any(), any(), any()))
+                .thenReturn(Arrays.asList(new ExchangeRate("USD", date, BigDecimal.ONE),
+                        new ExchangeRate("USD", date.minusDays(1), BigDecimal.ONE)));
+        String cursor = exchangeRateService.getExchangeRatesPage("USD", null, date, 1, null).getNextCursor();
+        assertThrows(IllegalArgumentException.class, () ->
+            exchangeRateService.getExchangeRatesPage("GBP", null, null, null, cursor));
+    }
+
     @Test
     void getAllExchangeRates_shouldReturnEmptyListForNoRates() {
         // Given
@@ -183,4 +388,104 @@ class ExchangeRateServiceTest {
         // Then
         assertTrue(result.isEmpty());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void updateExchangeRatesParallel_shouldHandAllCurrenciesToIngestion() {
+        // Given
+        List<String> currencies = Arrays.asList("USD", "GBP");
+        when(currencyService.getAllCurrencies()).thenReturn(currencies);
+        when(ingestionService.ingest(currencies, IngestionProgress.NONE)).thenReturn(Collections.singletonMap("USD", 2));
+
+        // When
+        exchangeRateService.updateExchangeRatesParallel();
+
+        // Then
+        verify(ingestionService).ingest(currencies, IngestionProgress.NONE);
+        verify(datasetVersion).bump();
+        verify(indexSnapshotStore).save();
+    }
+
+    @Test
+    void initializeData_shouldFailWhenNoRatesCouldBeLoaded() {
+        // Given: an empty database and every Bundesbank fetch failing, which ingestion reports as 0 rows
+        List<String> currencies = Arrays.asList("USD", "GBP");
+        when(repository.count()).thenReturn(0L);
+        when(currencyService.getAllCurrencies()).thenReturn(currencies);
+        when(ingestionService.ingest(currencies, IngestionProgress.NONE)).thenReturn(Collections.singletonMap("USD", 0));
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> exchangeRateService.initializeData(IngestionProgress.NONE));
+        verify(indexSnapshotStore, never()).save();
+    }
+
+    @Test
+    void updateExchangeRatesParallel_shouldKeepDatasetVersionWhenNothingWritten() {
+        // Given
+        List<String> currencies = Collections.singletonList("USD");
+        when(currencyService.getAllCurrencies()).thenReturn(currencies);
+        when(ingestionService.ingest(currencies, IngestionProgress.NONE)).thenReturn(Collections.singletonMap("USD", 0));
+
+        // When
+        exchangeRateService.updateExchangeRatesParallel();
+
+        // Then
+        verify(datasetVersion, never()).bump();
+        verify(indexSnapshotStore, never()).save();
+    }
+
+    @Test
+    void convertBatch_shouldResolveEachDistinctRateOnceAndKeepOrder() {
+        // Given
+        LocalDate day1 = LocalDate.of(2024, 4, 18);
+        LocalDate day2 = LocalDate.of(2024, 4, 19);
+        when(repository.findByCurrencyAndDate("USD", day1))
+            .thenReturn(Optional.of(new ExchangeRate("USD", day1, new BigDecimal("1.1000"))));
+        when(repository.findByCurrencyAndDate("USD", day2))
+            .thenReturn(Optional.of(new ExchangeRate("USD", day2, new BigDecimal("1.2500"))));
+        List<ConversionRequestDTO> requests = Arrays.asList(
+            new ConversionRequestDTO("USD", new BigDecimal("110.00"), day1),
+            new ConversionRequestDTO("USD", new BigDecimal("125.00"), day2),
+            new ConversionRequestDTO("USD", new BigDecimal("11.00"), day1),
+            new ConversionRequestDTO("USD", new BigDecimal("250.00"), day2)
+        );
+
+        // When
+        List<BatchConversionResultDTO> results = exchangeRateService.convertBatch(requests).collect(Collectors.toList());
+
+        // Then
+        assertEquals(4, results.size());
+        assertEquals(new BigDecimal("100.00"), results.get(0).getResult().getConvertedAmount());
+        assertEquals(new BigDecimal("100.00"), results.get(1).getResult().getConvertedAmount());
+        assertEquals(new BigDecimal("10.00"), results.get(2).getResult().getConvertedAmount());
+        assertEquals(new BigDecimal("200.00"), results.get(3).getResult().getConvertedAmount());
+        verify(currencyService, times(1)).isValidCurrency("USD");
+        verify(repository, times(1)).findByCurrencyAndDate("USD", day1);
+        verify(repository, times(1)).findByCurrencyAndDate("USD", day2);
+    }
+
+    @Test
+    void convertBatch_shouldReportFailuresPerItem() {
+        // Given
+        LocalDate date = LocalDate.of(2024, 4, 19);
+        when(repository.findByCurrencyAndDate("USD", date))
+            .thenReturn(Optional.of(new ExchangeRate("USD", date, new BigDecimal("1.2500"))));
+        when(repository.findByCurrencyAndDate("USD", date.minusDays(1))).thenReturn(Optional.empty());
+        List<ConversionRequestDTO> requests = Arrays.asList(
+            new ConversionRequestDTO("USD", new BigDecimal("-1"), date),
+            new ConversionRequestDTO("USD", new BigDecimal("125.00"), date.minusDays(1)),
+            new ConversionRequestDTO(null, BigDecimal.ONE, date),
+            new ConversionRequestDTO("USD", new BigDecimal("125.00"), date)
+        );
+
+        // When
+        List<BatchConversionResultDTO> results = exchangeRateService.convertBatch(requests).collect(Collectors.toList());
+
+        // Then
+        assertEquals("INVALID_AMOUNT", results.get(0).getErrorCode());
+        assertEquals("RATE_NOT_FOUND", results.get(1).getErrorCode());
+        assertEquals("INVALID_REQUEST", results.get(2).getErrorCode());
+        assertNull(results.get(3).getErrorCode());
+        assertEquals(new BigDecimal("100.00"), results.get(3).getResult().getConvertedAmount());
+        assertEquals(3, results.get(3).getIndex());
+    }
+}
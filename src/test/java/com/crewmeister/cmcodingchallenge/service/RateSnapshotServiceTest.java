@@ -0,0 +1,105 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.dto.RateSnapshotDTO;
+import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+class RateSnapshotServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 4, 15);
+
+    @Mock
+    private ExchangeRateRepository repository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private ExchangeRateIndex index;
+    private RateSnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        index = new ExchangeRateIndex(repository);
+        int monday = (int) MONDAY.toEpochDay();
+        index.merge("USD", new int[]{monday}, new long[]{10800L}, 1);
+        index.merge("JPY", new int[]{monday, monday + 1}, new long[]{1645000L, 1650000L}, 2);
+        snapshotService = new RateSnapshotService(index, objectMapper,
+            new ConcurrentMapCacheManager(RateSnapshotService.CACHE_NAME));
+    }
+
+    @Test
+    void getSnapshotJson_shouldSerializeAllRatesForDate() throws IOException {
+        // When
+        RateSnapshotDTO snapshot = read(snapshotService.getSnapshotJson(MONDAY));
+
+        // Then
+        assertEquals(MONDAY, snapshot.getDate());
+        assertEquals(2, snapshot.getRates().size());
+        assertEquals(new BigDecimal("1.0800"), snapshot.getRates().get("USD"));
+        assertEquals(new BigDecimal("164.5000"), snapshot.getRates().get("JPY"));
+    }
+
+    @Test
+    void getSnapshotJson_shouldReuseCachedPayloadUntilRatesChange() throws IOException {
+        // Given
+        byte[] first = snapshotService.getSnapshotJson(MONDAY);
+        assertSame(first, snapshotService.getSnapshotJson(MONDAY));
+
+        // When: ingestion merges a corrected rate
+        index.merge("USD", new int[]{(int) MONDAY.toEpochDay()}, new long[]{10900L}, 1);
+
+        // Then
+        byte[] updated = snapshotService.getSnapshotJson(MONDAY);
+        assertNotSame(first, updated);
+        assertEquals(new BigDecimal("1.0900"), read(updated).getRates().get("USD"));
+    }
+
+    @Test
+    void getSnapshotJson_shouldReturnNullWhenNothingPublished() {
+        // When / Then
+        assertNull(snapshotService.getSnapshotJson(MONDAY.minusDays(2)));
+    }
+
+    @Test
+    void getSnapshotJson_shouldRejectFutureDate() {
+        // When / Then
+        ExchangeRateException exception = assertThrows(ExchangeRateException.class,
+            () -> snapshotService.getSnapshotJson(LocalDate.now().plusDays(1)));
+        assertEquals("FUTURE_DATE", exception.getErrorCode());
+    }
+
+    @Test
+    void getLatestSnapshotJson_shouldUseLatestPublishedDate() throws IOException {
+        // When
+        RateSnapshotDTO snapshot = read(snapshotService.getLatestSnapshotJson());
+
+        // Then
+        assertEquals(MONDAY.plusDays(1), snapshot.getDate());
+        assertEquals(1, snapshot.getRates().size());
+        assertEquals(new BigDecimal("165.0000"), snapshot.getRates().get("JPY"));
+    }
+
+    private RateSnapshotDTO read(byte[] json) throws IOException {
+        return objectMapper.readValue(json, RateSnapshotDTO.class);
+    }
+}
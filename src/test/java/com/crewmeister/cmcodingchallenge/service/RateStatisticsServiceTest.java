@@ -0,0 +1,137 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.dto.RateStatisticsDTO;
+import com.crewmeister.cmcodingchallenge.exception.ExchangeRateException;
+import com.crewmeister.cmcodingchallenge.index.ExchangeRateIndex;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateStatisticsServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 4, 15);
+
+    @Mock
+    private ExchangeRateRepository repository;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    private ExchangeRateIndex index;
+    private RateStatisticsService statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        index = new ExchangeRateIndex(repository);
+        int monday = (int) MONDAY.toEpochDay();
+        index.merge("USD", new int[]{monday, monday + 1, monday + 3, monday + 4},
+            new long[]{10000L, 10400L, 10100L, 10300L}, 4);
+        statisticsService = new RateStatisticsService(index, currencyService);
+    }
+
+    @Test
+    void getStatistics_shouldSummarizeRatesInRange() {
+        // Given
+        when(currencyService.isValidCurrency("USD")).thenReturn(true);
+
+        // When
+        RateStatisticsDTO statistics = statisticsService.getStatistics("USD", MONDAY.plusDays(1), MONDAY.plusDays(6));
+
+        // Then
+        assertEquals("USD", statistics.getCurrency());
+        assertEquals(MONDAY.plusDays(1), statistics.getFrom());
+        assertEquals(MONDAY.plusDays(4), statistics.getTo());
+        assertEquals(3, statistics.getCount());
+        assertEquals(new BigDecimal("1.0400"), statistics.getFirst());
+        assertEquals(new BigDecimal("1.0300"), statistics.getLast());
+        assertEquals(new BigDecimal("1.0100"), statistics.getMin());
+        assertEquals(new BigDecimal("1.0400"), statistics.getMax());
+        assertEquals(new BigDecimal("1.026667"), statistics.getMean());
+        assertEquals(new BigDecimal("0.015275"), statistics.getStandardDeviation());
+    }
+
+    @Test
+    void getStatistics_shouldCoverWholeHistoryWithoutBounds() {
+        // Given
+        when(currencyService.isValidCurrency("USD")).thenReturn(true);
+
+        // When
+        RateStatisticsDTO statistics = statisticsService.getStatistics("USD", null, null);
+
+        // Then
+        assertEquals(4, statistics.getCount());
+        assertEquals(MONDAY, statistics.getFrom());
+        assertEquals(new BigDecimal("1.0000"), statistics.getMin());
+        assertEquals(new BigDecimal("1.020000"), statistics.getMean());
+    }
+
+    @Test
+    void getStatistics_shouldReturnNullWithoutRatesInRange() {
+        // Given
+        when(currencyService.isValidCurrency("USD")).thenReturn(true);
+
+        // When / Then
+        assertNull(statisticsService.getStatistics("USD", MONDAY.plusDays(2), MONDAY.plusDays(2)));
+    }
+
+    @Test
+    void getStatistics_shouldRejectStartAfterEnd() {
+        // Given
+        when(currencyService.isValidCurrency("USD")).thenReturn(true);
+
+        // When
+        ExchangeRateException exception = assertThrows(ExchangeRateException.class,
+            () -> statisticsService.getStatistics("USD", MONDAY.plusDays(1), MONDAY));
+
+        // Then
+        assertEquals("INVALID_DATE_RANGE", exception.getErrorCode());
+    }
+
+    @Test
+    void getStatistics_shouldRejectUnknownCurrency() {
+        // Given
+        when(currencyService.isValidCurrency("XYZ"))
+            .thenThrow(new ExchangeRateException("INVALID_CURRENCY", "Currency code 'XYZ' is not supported"));
+
+        // When / Then
+        assertThrows(ExchangeRateException.class, () -> statisticsService.getStatistics("XYZ", null, null));
+    }
+
+    @Test
+    void getStatistics_shouldRejectCurrencyLikeOtherEndpoints() {
+        // Given
+        when(currencyService.isValidCurrency("XYZ")).thenReturn(false);
+
+        // When
+        ExchangeRateException exception = assertThrows(ExchangeRateException.class,
+            () -> statisticsService.getStatistics("XYZ", null, null));
+
+        // Then
+        assertEquals("INVALID_CURRENCY", exception.getErrorCode());
+        assertEquals("Invalid currency code: XYZ", exception.getErrorMessage());
+        assertThrows(IllegalArgumentException.class, () -> statisticsService.getStatistics(null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> statisticsService.getStatistics("USDX", null, null));
+    }
+
+    @Test
+    void getStatistics_shouldRejectFutureEndDate() {
+        // When
+        ExchangeRateException exception = assertThrows(ExchangeRateException.class,
+            () -> statisticsService.getStatistics("USD", null, LocalDate.now().plusDays(1)));
+
+        // Then
+        assertEquals("FUTURE_DATE", exception.getErrorCode());
+    }
+}
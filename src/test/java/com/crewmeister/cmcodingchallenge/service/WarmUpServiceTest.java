@@ -0,0 +1,122 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.dto.WarmUpStatusDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WarmUpServiceTest {
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Runnable> submitted = new ArrayList<>();
+
+    private WarmUpService warmUpService(boolean enabled) {
+        return new WarmUpService(currencyService, exchangeRateService, submitted::add, enabled, Duration.ZERO,
+            meterRegistry);
+    }
+
+    @Test
+    void onApplicationStarted_shouldLoadDataInBackgroundAndThenBecomeReady() {
+        // Given
+        when(currencyService.getAllCurrencies()).thenReturn(Arrays.asList("USD", "GBP"));
+        doAnswer(invocation -> {
+            IngestionProgress progress = invocation.getArgument(0);
+            progress.currencyCompleted("USD", 120);
+            progress.currencyCompleted("GBP", 80);
+            return null;
+        }).when(exchangeRateService).initializeData(any());
+        WarmUpService warmUpService = warmUpService(true);
+
+        // When: the application has started but the warm-up has not run yet
+        warmUpService.onApplicationStarted();
+
+        // Then
+        assertEquals(1, submitted.size());
+        assertFalse(warmUpService.isReady());
+        verifyNoInteractions(exchangeRateService);
+
+        // When: the warm-up runs
+        submitted.get(0).run();
+
+        // Then
+        WarmUpStatusDTO status = warmUpService.getStatus();
+        assertTrue(warmUpService.isReady());
+        assertEquals(WarmUpService.Phase.READY, status.getPhase());
+        assertEquals(2, status.getCurrenciesCompleted());
+        assertEquals(2, status.getCurrenciesTotal());
+        assertEquals(200, status.getRatesWritten());
+        assertEquals(1, status.getAttempts());
+        assertEquals(1.0, meterRegistry.get("warmup.ready").gauge().value());
+        verify(currencyService).initializeCurrencies();
+    }
+
+    @Test
+    void run_shouldRetryAfterFailedAttempt() {
+        // Given
+        doThrow(new IllegalStateException("database unavailable"))
+            .doNothing()
+            .when(currencyService).initializeCurrencies();
+        WarmUpService warmUpService = warmUpService(true);
+        warmUpService.onApplicationStarted();
+
+        // When
+        submitted.get(0).run();
+
+        // Then
+        assertTrue(warmUpService.isReady());
+        assertEquals(2, warmUpService.getStatus().getAttempts());
+        assertNull(warmUpService.getStatus().getLastError());
+        verify(exchangeRateService, times(1)).initializeData(any());
+    }
+
+    @Test
+    void run_shouldRetryWhenNoRatesCouldBeLoaded() {
+        // Given: the Bundesbank API is unreachable for the first attempt
+        doThrow(new IllegalStateException("No exchange rates could be loaded"))
+            .doNothing()
+            .when(exchangeRateService).initializeData(any());
+        WarmUpService warmUpService = warmUpService(true);
+        warmUpService.onApplicationStarted();
+
+        // When
+        submitted.get(0).run();
+
+        // Then
+        assertTrue(warmUpService.isReady());
+        assertEquals(2, warmUpService.getStatus().getAttempts());
+        verify(currencyService, times(2)).initializeCurrencies();
+        verify(exchangeRateService, times(2)).initializeData(any());
+    }
+
+    @Test
+    void onApplicationStarted_shouldBeReadyAtOnceWhenDisabled() {
+        // Given
+        WarmUpService warmUpService = warmUpService(false);
+
+        // When
+        warmUpService.onApplicationStarted();
+
+        // Then
+        assertTrue(warmUpService.isReady());
+        assertTrue(submitted.isEmpty());
+        verifyNoInteractions(currencyService, exchangeRateService);
+    }
+}